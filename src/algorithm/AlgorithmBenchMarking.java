@@ -12,6 +12,9 @@ public class AlgorithmBenchMarking {
 	 * @affiliation Dr. Yong Gao's Research Group, Computer Science, UBC Okanagan 
 	 * @date October 12, 2016
 	 * 
+	 * Single sequential trials; see BenchmarkRunner for repeated trials on a thread pool with 
+	 * per-stage timings and csv/json output
+	 * 
 	 **/
 		
 	public static void main (String[] args) {
@@ -110,12 +113,18 @@ public class AlgorithmBenchMarking {
 			
 			int ilpFlag = 0; 
 			SimpleWeightedGraph<Integer, DefaultWeightedEdge> inducedWeightedGraph = CCEditing.ILpRelaxed(g, ilpFlag);
-			SimpleWeightedGraph<Integer, DefaultWeightedEdge> ultraGraph = 
-					Ultrametric.getUltrametricDistanceMatrixGraph(inducedWeightedGraph);
-			for (double t=0; t<1; t+=0.1){
-				double error = HeuristicCCEditing.getClusteringDisaggrements(ultraGraph, g, t);
-				System.out.println(t + "\t\t" + error);
+			UltrametricTree ultra = Ultrametric.getUltrametricTree(inducedWeightedGraph);
+			
+			// all thresholds in one pass (HeuristicCCEditing.sweepThresholds)
+			double[] thresholds = new double[10];
+			for (int t=0; t<10; t++){
+				thresholds[t] = t / 10.0;
+			}
+			ThresholdSweep sweep = HeuristicCCEditing.sweepThresholds(ultra, g, thresholds);
+			for (int t=0; t<sweep.size(); t++){
+				System.out.println(sweep.threshold(t) + "\t\t" + sweep.disagreement(t) + "\t\t" + sweep.clusterCount(t));
 			}
+			System.out.println("Best threshold: " + sweep.bestThreshold());
 			System.out.println("..........................................................");
 		}*/
 
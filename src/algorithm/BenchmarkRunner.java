@@ -0,0 +1,723 @@
+package algorithm;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+
+import randomSignedGraphGenerator.NestedSignedRandomGraphV2;
+import randomSignedGraphGenerator.RandomSignedGraph;
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Batch benchmark of the heuristic correlation clustering pipeline on signed random networks G(n,e,p)
+ * and on planted partitions G(m, n, p, r, pNoise, rNoise) (NestedSignedRandomGraphV2), against the
+ * pivot clustering engine (PivotClustering)
+ *
+ * Every trial (n, e, p, seed) generates its own graph from its own seed and runs the pipeline of
+ * HeuristicCCEditing with its own LP backend, so independent trials run on a fixed size thread pool.
+ * Each configuration (n, e, p) is repeated for confidence intervals; the seed of a trial depends only
+ * on the base seed and the position of the trial, so the graphs do not depend on the scheduling.
+ * Every engine (ENGINE_LP, ENGINE_PIVOT, ENGINE_PARALLEL_PIVOT) runs on the same graphs.
+ *
+ * Timings are taken per stage with System.nanoTime (long):
+ * 		generate - random graph and its CSR form
+ * 		lp_build - CCEditing.ILpRelaxed without the time spent in LpBackend.solve (model building,
+ * 				   triangle separation, reading the solution)
+ * 		lp_solve - time spent in LpBackend.solve
+ * 		ultrametric - Ultrametric.getUltrametricTree
+ * 		rounding - threshold sweep (AUTO_THRESHOLD only) and cutting the ultrametric tree
+ * 		pivot - PivotClustering.solve / solveParallel (the pivot engines have no other stage but
+ * 				generate)
+ * 		refine - LocalSearchRefinement of the clusters of every engine (setRefine only)
+ *
+ * The quality of every clustering is measured outside the timed stages: the disagreement, and for a
+ * planted partition its recovery (ClusteringScore: ARI, NMI, purity and imbalance), so quality and
+ * speed are tracked together over the same sweeps.
+ *
+ * With one thread the runner is in sequential mode: the trials run one by one in the calling thread,
+ * after warm-up trials and a garbage collection before each trial, for clean timings. Note that the
+ * Cplex backend is multi-threaded itself; use the sequential mode (or few threads) for Cplex timings.
+ *
+ **/
+
+public class BenchmarkRunner {
+
+	public static final int STAGE_GENERATE = 0;
+	public static final int STAGE_LP_BUILD = 1;
+	public static final int STAGE_LP_SOLVE = 2;
+	public static final int STAGE_ULTRAMETRIC = 3;
+	public static final int STAGE_ROUNDING = 4;
+	public static final int STAGE_PIVOT = 5;
+	public static final int STAGE_REFINE = 6;
+	public static final String[] STAGE_NAMES = {"generate", "lp_build", "lp_solve", "ultrametric", "rounding", "pivot", "refine"};
+
+	public static final String ENGINE_LP = "lp";
+	public static final String ENGINE_PIVOT = "pivot";
+	public static final String ENGINE_PARALLEL_PIVOT = "parallel_pivot";
+
+	private int threads;
+	private int repeats = 5;
+	private int warmup = 2;
+	private long baseSeed = 2016;
+	private double threshold = 0.5;
+	private String lpBackend = "pdhg";
+	private boolean lazy = true;
+	private boolean sparse = false;
+	private String[] engines = {ENGINE_LP};
+	private int pivotParallelism = Runtime.getRuntime().availableProcessors();
+	private boolean refine = false;
+
+	// {n, e, p, groups, r, pNoise, rNoise}; groups = 0 for G(n,e,p), e = NaN for a planted partition
+	private List<double[]> configurations = new ArrayList<double[]>();
+
+	/**
+	 * @param threads - size of the thread pool; 1 for the sequential mode
+	 **/
+	public BenchmarkRunner(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be positive: " + threads);
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * @param repeats - number of trials (different seeds) of every configuration (n, e, p)
+	 **/
+	public BenchmarkRunner setRepeats(int repeats) {
+		this.repeats = repeats;
+		return this;
+	}
+
+	/**
+	 * @param warmup - number of discarded trials before the sequential mode is timed
+	 **/
+	public BenchmarkRunner setWarmup(int warmup) {
+		this.warmup = warmup;
+		return this;
+	}
+
+	public BenchmarkRunner setBaseSeed(long baseSeed) {
+		this.baseSeed = baseSeed;
+		return this;
+	}
+
+	/**
+	 * @param threshold - the rounding threshold, or HeuristicCCEditing.AUTO_THRESHOLD
+	 **/
+	public BenchmarkRunner setThreshold(double threshold) {
+		this.threshold = threshold;
+		return this;
+	}
+
+	/**
+	 * @param name - LP backend name, see CCEditing.newLpBackend(name)
+	 **/
+	public BenchmarkRunner setLpBackend(String name) {
+		this.lpBackend = name;
+		return this;
+	}
+
+	public BenchmarkRunner setLazy(boolean lazy) {
+		this.lazy = lazy;
+		return this;
+	}
+
+	/**
+	 * @param sparse - true: the sparse relaxed ILP over the edges (CCEditing.ILpRelaxedSparse)
+	 **/
+	public BenchmarkRunner setSparse(boolean sparse) {
+		this.sparse = sparse;
+		return this;
+	}
+
+	/**
+	 * @param engines - the engines run on every graph: ENGINE_LP (default), ENGINE_PIVOT and/or
+	 * 					ENGINE_PARALLEL_PIVOT
+	 **/
+	public BenchmarkRunner setEngines(String... engines) {
+		for (String engine : engines) {
+			if (!engine.equals(ENGINE_LP) && !engine.equals(ENGINE_PIVOT) && !engine.equals(ENGINE_PARALLEL_PIVOT)) {
+				throw new IllegalArgumentException("unknown engine: " + engine);
+			}
+		}
+		this.engines = engines.clone();
+		return this;
+	}
+
+	/**
+	 * @param parallelism - worker threads of ENGINE_PARALLEL_PIVOT (default: available processors)
+	 **/
+	public BenchmarkRunner setPivotParallelism(int parallelism) {
+		this.pivotParallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * @param refine - true: refine the clusters of every engine by single-vertex moves
+	 * 				   (LocalSearchRefinement, in the thread of the trial)
+	 **/
+	public BenchmarkRunner setRefine(boolean refine) {
+		this.refine = refine;
+		return this;
+	}
+
+	/**
+	 * Add the configurations (n, e, p) for n = nStart, nStart+nStep, ..., nStop
+	 **/
+	public BenchmarkRunner addSizes(int nStart, int nStop, int nStep, double e, double p) {
+		for (int n=nStart; n<=nStop; n+=nStep) {
+			configurations.add(new double[] {n, e, p, 0, Double.NaN, Double.NaN, Double.NaN});
+		}
+		return this;
+	}
+
+	/**
+	 * Add the planted partition G(groups, groupSize, p, r, pNoise, rNoise) of NestedSignedRandomGraphV2;
+	 * its clusterings are also scored against the groups (ClusteringScore)
+	 * @param groups - the number of groups
+	 * @param groupSize - the number of vertices in each group
+	 **/
+	public BenchmarkRunner addPlantedPartition(int groups, int groupSize, double p, double r,
+			double pNoise, double rNoise) {
+		configurations.add(new double[] {(double) groups * groupSize, Double.NaN, p, groups, r, pNoise, rNoise});
+		return this;
+	}
+
+	/**
+	 * Run all trials: repeats times every configuration with every engine
+	 * @return the trial results in the order configuration by configuration, engine by engine, repeat
+	 * 		   by repeat
+	 **/
+	public List<TrialResult> run() {
+		final List<long[]> trials = new ArrayList<long[]>();	// {configuration, repeat, seed, engine}
+		for (int c=0; c<configurations.size(); c++) {
+			for (int k=0; k<engines.length; k++) {
+				for (int r=0; r<repeats; r++) {
+					trials.add(new long[] {c, r, mix(baseSeed + (long) c * repeats + r), k});
+				}
+			}
+		}
+
+		List<TrialResult> results = new ArrayList<TrialResult>(trials.size());
+
+		if (threads == 1) {
+			// sequential mode: warm up the JIT on the first trials, then one trial after the other
+			for (int t=0; t<Math.min(warmup, trials.size()); t++) {
+				runTrial(trials.get(t));
+			}
+			for (long[] trial : trials) {
+				System.gc();
+				results.add(runTrial(trial));
+			}
+			return results;
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<TrialResult>> futures = new ArrayList<Future<TrialResult>>(trials.size());
+			for (final long[] trial : trials) {
+				futures.add(pool.submit(() -> runTrial(trial)));
+			}
+			for (Future<TrialResult> f : futures) {
+				results.add(f.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Benchmark interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Benchmark trial failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		return results;
+	}
+
+	private TrialResult runTrial(long[] trial) {
+		double[] conf = configurations.get((int) trial[0]);
+		int n = (int) conf[0];
+		double e = conf[1];
+		double p = conf[2];
+		int groups = (int) conf[3];
+		long seed = trial[2];
+		String engine = engines[(int) trial[3]];
+		long[] nanos = new long[STAGE_NAMES.length];
+
+		// generate
+		long start = System.nanoTime();
+		SignedCsrGraph csr;
+		if (groups == 0) {
+			SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = RandomSignedGraph.getGnpGraph_jGrapht(n, e, p, new Random(seed));
+			csr = SignedCsrGraph.fromJGraphT(g);
+		}
+		else {
+			csr = NestedSignedRandomGraphV2.getJGrpahtGraph_Csr(groups, n / groups, p, conf[4], conf[5], conf[6], seed, 1);
+		}
+		long time = System.nanoTime();
+		nanos[STAGE_GENERATE] = time - start;
+
+		if (!engine.equals(ENGINE_LP)) {
+			start = time;
+			ClusteringResult result = engine.equals(ENGINE_PIVOT) ? PivotClustering.solve(csr, mix(seed))
+					: PivotClustering.solveParallel(csr, mix(seed), pivotParallelism);
+			nanos[STAGE_PIVOT] = System.nanoTime() - start;
+
+			return finishTrial(engine, conf, trial, csr, result.threshold(), result.assignment(), 0, nanos);
+		}
+
+		// relaxed ILP: building and solving
+		TimedLpBackend lp = new TimedLpBackend(CCEditing.newLpBackend(lpBackend));
+		start = time;
+		SimpleWeightedGraph<Integer, DefaultWeightedEdge> inducedWeightedGraph = CCEditing.ILpRelaxed(csr, sparse ? 3 : lazy ? 2 : 0, lp);
+		time = System.nanoTime();
+		nanos[STAGE_LP_SOLVE] = lp.solveNanos;
+		nanos[STAGE_LP_BUILD] = (time - start) - lp.solveNanos;
+
+		// ultrametric
+		start = time;
+		UltrametricTree ultra = Ultrametric.getUltrametricTree(inducedWeightedGraph);
+		time = System.nanoTime();
+		nanos[STAGE_ULTRAMETRIC] = time - start;
+
+		// rounding
+		start = time;
+		double t = threshold;
+		if (t == HeuristicCCEditing.AUTO_THRESHOLD) {
+			double[] thresholds = new double[101];
+			for (int i=0; i<=100; i++) {
+				thresholds[i] = i / 100.0;
+			}
+			t = HeuristicCCEditing.sweepThresholds(ultra, csr, thresholds).bestThreshold();
+		}
+		ClusterAssignment assignment = HeuristicCCEditing.getClusters(ultra, t);
+		time = System.nanoTime();
+		nanos[STAGE_ROUNDING] = time - start;
+
+		return finishTrial(engine, conf, trial, csr, t, assignment, lp.solveCalls, nanos);
+	}
+
+	/**
+	 * Refine the clusters (setRefine) and score them
+	 **/
+	private TrialResult finishTrial(String engine, double[] conf, long[] trial, SignedCsrGraph csr, double t,
+			ClusterAssignment assignment, int lpSolves, long[] nanos) {
+		if (refine) {
+			long start = System.nanoTime();
+			assignment = new LocalSearchRefinement(csr).refine(assignment);
+			nanos[STAGE_REFINE] = System.nanoTime() - start;
+		}
+
+		// quality of the clustering (not timed)
+		double disagreement = DisagreementEvaluator.evaluate(csr, assignment, 1).disagreement();
+		int groups = (int) conf[3];
+		ClusteringScore score = (groups == 0) ? null : ClusteringScore.plantedPartition(assignment, (int) conf[0] / groups);
+		return new TrialResult(engine, conf, trial[2], (int) trial[1], csr.edgeCount(), t,
+				assignment.clusterCount(), disagreement, score, lpSolves, nanos);
+	}
+
+	/**
+	 * SplitMix64 finalizer; spreads consecutive seeds over the whole long range
+	 **/
+	private static long mix(long z) {
+		z += 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+
+	/**
+	 * Result of one trial; the planted partition fields are 0 (groups) or NaN for G(n,e,p)
+	 **/
+	public static class TrialResult {
+		public final String engine;
+		public final int n;
+		public final double e;
+		public final double p;
+		public final int groups;
+		public final double r;
+		public final double pNoise;
+		public final double rNoise;
+		public final long seed;
+		public final int repeat;
+		public final int edges;
+		public final double threshold;
+		public final int clusters;
+		public final double disagreement;
+		public final double ari;			// recovery of the planted partition (ClusteringScore)
+		public final double nmi;
+		public final double purity;
+		public final double imbalance;		// in percent of the vertices
+		public final int lpSolves;		// number of LpBackend.solve calls (cutting-plane rounds)
+		private final long[] nanos;
+
+		TrialResult(String engine, double[] conf, long seed, int repeat, int edges, double threshold,
+				int clusters, double disagreement, ClusteringScore score, int lpSolves, long[] nanos) {
+			this.engine = engine;
+			this.n = (int) conf[0];
+			this.e = conf[1];
+			this.p = conf[2];
+			this.groups = (int) conf[3];
+			this.r = conf[4];
+			this.pNoise = conf[5];
+			this.rNoise = conf[6];
+			this.seed = seed;
+			this.repeat = repeat;
+			this.edges = edges;
+			this.threshold = threshold;
+			this.clusters = clusters;
+			this.disagreement = disagreement;
+			this.ari = (score == null) ? Double.NaN : score.adjustedRandIndex();
+			this.nmi = (score == null) ? Double.NaN : score.normalizedMutualInformation();
+			this.purity = (score == null) ? Double.NaN : score.purity();
+			this.imbalance = (score == null) ? Double.NaN : score.imbalancePercent();
+			this.lpSolves = lpSolves;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * @return the time of a stage (STAGE_GENERATE, ..., STAGE_PIVOT) in nanoseconds
+		 **/
+		public long stageNanos(int stage) {
+			return nanos[stage];
+		}
+
+		public long totalNanos() {
+			long total = 0;
+			for (long t : nanos) total += t;
+			return total;
+		}
+
+		/**
+		 * @return the quality value QUALITY_NAMES[q]
+		 **/
+		public double quality(int q) {
+			switch (q) {
+			case 0: return disagreement;
+			case 1: return ari;
+			case 2: return nmi;
+			case 3: return purity;
+			default: return imbalance;
+			}
+		}
+
+		String configuration() {
+			return engine + "," + n + "," + e + "," + p + "," + groups + "," + r + "," + pNoise + "," + rNoise;
+		}
+
+		String jsonConfiguration() {
+			return "\"engine\": \"" + engine + "\", \"n\": " + n + ", \"e\": " + json(e) + ", \"p\": " + p + ", \"groups\": " + groups
+					+ ", \"r\": " + json(r) + ", \"p_noise\": " + json(pNoise) + ", \"r_noise\": " + json(rNoise);
+		}
+	}
+
+	/**
+	 * Names of the quality values of a trial (see TrialResult.quality)
+	 **/
+	public static final String[] QUALITY_NAMES = {"disagreement", "ari", "nmi", "purity", "imbalance"};
+
+
+	/**
+	 * Write one csv line per trial; times in milliseconds
+	 **/
+	public static void writeTrialsCsv(List<TrialResult> results, String outputFile) throws IOException {
+		PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter(outputFile)));
+		try {
+			w.print(CONFIGURATION_HEADER + ",seed,repeat,edges,threshold,clusters,"
+					+ String.join(",", QUALITY_NAMES) + ",lp_solves");
+			for (String stage : STAGE_NAMES) {
+				w.print("," + stage + "_ms");
+			}
+			w.println(",total_ms");
+
+			for (TrialResult r : results) {
+				w.print(r.configuration() + "," + r.seed + "," + r.repeat + "," + r.edges + ","
+						+ r.threshold + "," + r.clusters);
+				for (int q=0; q<QUALITY_NAMES.length; q++) {
+					w.print("," + r.quality(q));
+				}
+				w.print("," + r.lpSolves);
+				for (int s=0; s<STAGE_NAMES.length; s++) {
+					w.print("," + millis(r.stageNanos(s)));
+				}
+				w.println("," + millis(r.totalNanos()));
+			}
+		} finally {
+			w.close();
+		}
+	}
+
+	/**
+	 * Write one csv line per configuration: mean and half width of the 95% confidence interval 
+	 * (Student's t) of every stage time in milliseconds, and of every quality value
+	 **/
+	public static void writeSummaryCsv(List<TrialResult> results, String outputFile) throws IOException {
+		PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter(outputFile)));
+		try {
+			w.print(CONFIGURATION_HEADER + ",repeats");
+			for (String stage : STAGE_NAMES) {
+				w.print("," + stage + "_mean_ms," + stage + "_ci95_ms");
+			}
+			w.print(",total_mean_ms,total_ci95_ms");
+			for (String quality : QUALITY_NAMES) {
+				w.print("," + quality + "_mean," + quality + "_ci95");
+			}
+			w.println();
+
+			for (List<TrialResult> group : groupByConfiguration(results).values()) {
+				TrialResult first = group.get(0);
+				w.print(first.configuration() + "," + group.size());
+				for (double[] stat : summarize(group)) {
+					w.print("," + stat[0] + "," + stat[1]);
+				}
+				w.println();
+			}
+		} finally {
+			w.close();
+		}
+	}
+
+	/**
+	 * Write the trials and the summary as one json document
+	 **/
+	public static void writeJson(List<TrialResult> results, String outputFile) throws IOException {
+		PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter(outputFile)));
+		try {
+			w.println("{");
+			w.println("  \"stages\": [" + quotedStageNames() + "],");
+
+			w.println("  \"trials\": [");
+			for (int i=0; i<results.size(); i++) {
+				TrialResult r = results.get(i);
+				w.print("    {" + r.jsonConfiguration() + ", \"seed\": " + r.seed
+						+ ", \"repeat\": " + r.repeat + ", \"edges\": " + r.edges + ", \"threshold\": " + r.threshold
+						+ ", \"clusters\": " + r.clusters);
+				for (int q=0; q<QUALITY_NAMES.length; q++) {
+					w.print(", \"" + QUALITY_NAMES[q] + "\": " + json(r.quality(q)));
+				}
+				w.print(", \"lp_solves\": " + r.lpSolves + ", \"ms\": {");
+				for (int s=0; s<STAGE_NAMES.length; s++) {
+					w.print("\"" + STAGE_NAMES[s] + "\": " + millis(r.stageNanos(s)) + ", ");
+				}
+				w.print("\"total\": " + millis(r.totalNanos()) + "}}");
+				w.println(i < results.size()-1 ? "," : "");
+			}
+			w.println("  ],");
+
+			w.println("  \"summary\": [");
+			List<List<TrialResult>> groups = new ArrayList<List<TrialResult>>(groupByConfiguration(results).values());
+			for (int i=0; i<groups.size(); i++) {
+				List<TrialResult> group = groups.get(i);
+				TrialResult first = group.get(0);
+				List<double[]> stats = summarize(group);
+				w.print("    {" + first.jsonConfiguration() + ", \"repeats\": " + group.size());
+				for (int s=0; s<stats.size(); s++) {
+					String name = (s < STAGE_NAMES.length) ? STAGE_NAMES[s] + "_ms"
+							: (s == STAGE_NAMES.length) ? "total_ms" : QUALITY_NAMES[s - STAGE_NAMES.length - 1];
+					w.print(", \"" + name + "\": {\"mean\": " + json(stats.get(s)[0])
+							+ ", \"ci95\": " + json(stats.get(s)[1]) + "}");
+				}
+				w.print("}");
+				w.println(i < groups.size()-1 ? "," : "");
+			}
+			w.println("  ]");
+			w.println("}");
+		} finally {
+			w.close();
+		}
+	}
+
+	private static Map<String, List<TrialResult>> groupByConfiguration(List<TrialResult> results) {
+		Map<String, List<TrialResult>> groups = new LinkedHashMap<String, List<TrialResult>>();
+		for (TrialResult r : results) {
+			String key = r.configuration();
+			List<TrialResult> group = groups.get(key);
+			if (group == null) {
+				group = new ArrayList<TrialResult>();
+				groups.put(key, group);
+			}
+			group.add(r);
+		}
+		return groups;
+	}
+
+	/**
+	 * {mean, ci95} of every stage (ms), of the total (ms) and of every quality value (NaN for the 
+	 * planted partition scores of G(n,e,p))
+	 **/
+	private static List<double[]> summarize(List<TrialResult> group) {
+		int k = group.size();
+		List<double[]> stats = new ArrayList<double[]>();
+		for (int s=0; s<=STAGE_NAMES.length+QUALITY_NAMES.length; s++) {
+			double[] values = new double[k];
+			for (int i=0; i<k; i++) {
+				TrialResult r = group.get(i);
+				values[i] = (s < STAGE_NAMES.length) ? millis(r.stageNanos(s))
+						: (s == STAGE_NAMES.length) ? millis(r.totalNanos()) : r.quality(s - STAGE_NAMES.length - 1);
+			}
+			stats.add(meanAndCi95(values));
+		}
+		return stats;
+	}
+
+	// two-sided 95% quantiles of Student's t distribution for 1..30 degrees of freedom
+	private static final double[] T95 = {
+			12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+			2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+			2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042};
+
+	private static double[] meanAndCi95(double[] values) {
+		int k = values.length;
+		double mean = 0;
+		for (double v : values) mean += v;
+		mean /= k;
+		if (k < 2) return new double[] {mean, 0};
+
+		double var = 0;
+		for (double v : values) var += (v - mean) * (v - mean);
+		var /= (k - 1);
+		double t = (k - 1 <= T95.length) ? T95[k - 2] : 1.960;
+		return new double[] {mean, t * Math.sqrt(var / k)};
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6;
+	}
+
+	private static final String CONFIGURATION_HEADER = "engine,n,e,p,groups,r,p_noise,r_noise";
+
+	// json has no NaN
+	private static String json(double x) {
+		return Double.isNaN(x) ? "null" : Double.toString(x);
+	}
+
+	private static String quotedStageNames() {
+		StringBuilder s = new StringBuilder();
+		for (int i=0; i<STAGE_NAMES.length; i++) {
+			if (i > 0) s.append(", ");
+			s.append('"').append(STAGE_NAMES[i]).append('"');
+		}
+		s.append(", \"total\"");
+		return s.toString();
+	}
+
+
+	/**
+	 * LP backend that measures the time spent in solve; all calls are delegated
+	 **/
+	private static class TimedLpBackend implements LpBackend {
+		private LpBackend lp;
+		long solveNanos = 0;
+		int solveCalls = 0;
+
+		TimedLpBackend(LpBackend lp) {
+			this.lp = lp;
+		}
+
+		public int addVariables(int count, double lb, double ub) {
+			return lp.addVariables(count, lb, ub);
+		}
+
+		public int addBoolVariables(int count) {
+			return lp.addBoolVariables(count);
+		}
+
+		public boolean supportsBoolVariables() {
+			return lp.supportsBoolVariables();
+		}
+
+		public void addObjectiveTerm(int var, double coef) {
+			lp.addObjectiveTerm(var, coef);
+		}
+
+		public void setObjectiveCoefficient(int var, double coef) {
+			lp.setObjectiveCoefficient(var, coef);
+		}
+
+		public void addGe(int[] vars, double[] coefs, double rhs) {
+			lp.addGe(vars, coefs, rhs);
+		}
+
+		public void addEq(int[] vars, double[] coefs, double rhs) {
+			lp.addEq(vars, coefs, rhs);
+		}
+
+		public boolean solve() {
+			long start = System.nanoTime();
+			try {
+				return lp.solve();
+			} finally {
+				solveNanos += System.nanoTime() - start;
+				solveCalls += 1;
+			}
+		}
+
+		public double getValue(int var) {
+			return lp.getValue(var);
+		}
+
+		public double[] getValues(int first, int count) {
+			return lp.getValues(first, count);
+		}
+
+		public double getObjValue() {
+			return lp.getObjValue();
+		}
+
+		public void end() {
+			lp.end();
+		}
+	}
+
+
+	/**
+	 * Runtime benchmark of the configurations of AlgorithmBenchMarking.main, with repeats, and of
+	 * planted partitions; the LP pipeline against the pivot engines
+	 **/
+	public static void main(String[] args) throws IOException {
+
+		boolean sequential = false;	// true: clean timings, one trial at a time
+		int threads = sequential ? 1 : Runtime.getRuntime().availableProcessors();
+		String output = "data/benchmark";
+
+		BenchmarkRunner runner = new BenchmarkRunner(threads)
+				.setRepeats(5)
+				.setThreshold(0.5)
+				.setLpBackend("pdhg")
+				.setEngines(ENGINE_LP, ENGINE_PIVOT, ENGINE_PARALLEL_PIVOT);
+
+		int nStart = 10;	// staring nodes number
+		int nStop = 300;	// stoping number of nodes
+		double[][] ep = {{0.1, 0.1}, {0.3, 0.3}, {0.5, 0.3}, {0.5, 0.5}, {0.7, 0.3},
+				{0.7, 0.7}, {0.9, 0.3}, {0.9, 0.5}, {0.9, 0.9}};
+		for (double[] c : ep) {
+			runner.addSizes(nStart, nStop, nStart, c[0], c[1]);
+		}
+
+		// planted partitions: recovery of m groups of 50 vertices under increasing noise
+		for (int m=2; m<=6; m+=2) {
+			for (int noise=0; noise<=3; noise++) {
+				runner.addPlantedPartition(m, 50, 0.9, 0.9, noise / 10.0, noise / 10.0);
+			}
+		}
+
+		List<TrialResult> results = runner.run();
+
+		new java.io.File(output).mkdirs();
+		writeTrialsCsv(results, output + "/trials.csv");
+		writeSummaryCsv(results, output + "/summary.csv");
+		writeJson(results, output + "/results.json");
+	}
+}
@@ -1,18 +1,11 @@
 package algorithm;
 
-import ilog.concert.IloException;
-import ilog.concert.IloLinearNumExpr;
-import ilog.concert.IloNumExpr;
-import ilog.concert.IloNumVar;
-import ilog.cplex.IloCplex;
-import java.util.LinkedList;
-import java.util.List;
-
 import org.jgrapht.UndirectedGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 
 import graphImporter.ReadGraph_w_edgeList;
+import signedGraph.SignedCsrGraph;
 
 
 /**
@@ -24,219 +17,249 @@ import graphImporter.ReadGraph_w_edgeList;
  **/
 
 public class CCEditing {
+
+	// Cutting-plane mode: maximum number of triangle inequalities added per round
+	public static final int LAZY_MAX_CUTS_PER_ROUND = 10000;
+	
+	// Cutting-plane mode: a triangle inequality counts as violated only above this tolerance
+	public static final double LAZY_TOLERANCE = 1e-5;
+	
+	// Cutting-plane mode: maximum number of solve-and-separate rounds
+	public static final int LAZY_MAX_ROUNDS = 1000;
+	
+	// System property selecting the LP backend: "cplex", "pdhg" or "auto" (default)
+	public static final String LP_BACKEND_PROPERTY = "cc.lp.backend";
+	
+	/**
+	 * Create the LP backend selected by the system property 'cc.lp.backend'
+	 **/
+	public static LpBackend newLpBackend() {
+		return newLpBackend(System.getProperty(LP_BACKEND_PROPERTY, "auto"));
+	}
+	
+	/**
+	 * Create a LP backend
+	 * @param name - "cplex", "pdhg", or "auto" (Cplex when it is installed and can be created, pure 
+	 * 				 Java PDHG otherwise)
+	 **/
+	public static LpBackend newLpBackend(String name) {
+		if (name.equals("pdhg")) {
+			return new PdhgLpBackend();
+		}
+		else if (name.equals("cplex")) {
+			return new CplexLpBackend();
+		}
+		else if (name.equals("auto")) {
+			try {
+				return new CplexLpBackend();
+			} catch (LinkageError | LpBackendException e) {
+				// Cplex jar or native library not available, or Cplex could not be created (license,
+				// environment)
+				return new PdhgLpBackend();
+			}
+		}
+		else throw new IllegalArgumentException("Unknown LP backend: " + name);
+	}
 	
 	/**
 	 * 
 	 * Solving Relaxed ILP for Correlation Clustering Problems
 	 * 
 	 * @param g - signed graph
-	 * @param intFlag - 1-> solving ILP, 0-> solving relaxed ILP
+	 * @param intFlag - 1-> solving ILP, 0-> solving relaxed ILP, 
+	 * 					2-> solving relaxed ILP with lazy triangle constraints (cutting-plane loop), 
+	 * 					3-> solving the sparse relaxed ILP over the edges (see ILpRelaxedSparse)
 	 * 
 	 * @return the unsigned weighted graph induced by the solution matrix
 	 * 
 	 * Using libraries: (1) jGrapht; available at:  www.jGrapht.org
-	 * 					(2) IBM ILOG Cplex V.12.1 (academic edition)
+	 * 					(2) LP backend selected by newLpBackend(), e.g. IBM ILOG Cplex V.12.1 (academic edition)
 	 * 
 	 **/
 
 	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> ILpRelaxed 
 	(UndirectedGraph<Integer, DefaultWeightedEdge> g, int ilpFlag) {
+		return ILpRelaxed(g, ilpFlag, newLpBackend());
+	}
+	
+	/**
+	 * 
+	 * Solving Relaxed ILP for Correlation Clustering Problems on the given LP backend
+	 * 
+	 * @param g - signed graph
+	 * @param intFlag - 1-> solving ILP, 0-> solving relaxed ILP, 
+	 * 					2-> solving relaxed ILP with lazy triangle constraints (cutting-plane loop), 
+	 * 					3-> solving the sparse relaxed ILP over the edges (see ILpRelaxedSparse)
+	 * @param lp - an empty LP backend; it is ended before returning
+	 * 
+	 * @return the unsigned weighted graph induced by the solution matrix
+	 * @throws IllegalArgumentException if ilpFlag = 1 and the backend has no binary variables
+	 * 
+	 **/
 
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> ILpRelaxed 
+	(UndirectedGraph<Integer, DefaultWeightedEdge> g, int ilpFlag, LpBackend lp) {
+		return ILpRelaxed(SignedCsrGraph.fromJGraphT(g), ilpFlag, lp);
+	}
+	
+	/**
+	 * Same as ILpRelaxed(g, ilpFlag, lp) for a graph in CSR format
+	 * The i-th vertex of the LP (1 <= i <= n) is the vertex index i-1 of g; the returned graph uses 
+	 * the original vertex ids of g
+	 **/
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> ILpRelaxed 
+	(SignedCsrGraph g, int ilpFlag, LpBackend lp) {
+
+		if (ilpFlag == 1 && !lp.supportsBoolVariables()) {
+			lp.end();
+			throw new IllegalArgumentException("ilpFlag 1 (ILP) needs binary variables, which the LP backend "
+					+ lp.getClass().getSimpleName() + " does not support; use the cplex backend");
+		}
+		if (ilpFlag == 2) {
+			return ILpRelaxedLazy(g, LAZY_MAX_CUTS_PER_ROUND, LAZY_TOLERANCE, lp);
+		}
+		if (ilpFlag == 3) {
+			return ILpRelaxedSparse(g, LAZY_MAX_CUTS_PER_ROUND, LAZY_TOLERANCE, lp);
+		}
 
 		//Creating output Induced G_{X_R}} graph object (undirected and weighted)
 		SimpleWeightedGraph<Integer, DefaultWeightedEdge> ilpSolGraph =
 				new SimpleWeightedGraph<Integer, DefaultWeightedEdge> (DefaultWeightedEdge.class);
 
 		// Number of vertices in the input graph
-		int n = g.vertexSet().size();    
+		int n = g.vertexCount();    
 
 		/**
-		 * Solve the ILP/ILP-Relaxed Correlation Clustering Proglem by using ILOG Cplex V.12.1
+		 * Solve the ILP/ILP-Relaxed Correlation Clustering Proglem by using the LP backend
 		 **/ 
 		try {
-			IloCplex cplex = new IloCplex();
-			cplex.setOut(null);
-
 			/** 
 			 * Creating Decision Variables X= ( x_{ij} ) for each i,j in V
 			 * If x_{ij} = 0 then (i,j) in E; otherwise x_{ij} = 1.
+			 * x[i] is the index of the backend variable x_{i0}; x_{ij} is the variable x[i] + j
 			 **/ 	
-			IloNumVar[][] x = new IloNumVar[n+1][];
+			int[] x = new int[n+1];
 
 			if (ilpFlag == 0){			// for selecting relaxed ILP
 				//Value range of variables 
 				for (int i=1; i<n+1; i++) {
-					x[i] = cplex.numVarArray(n+1, 0, 1);     
+					x[i] = lp.addVariables(n+1, 0, 1);     
 				}
 			}
 			else if (ilpFlag == 1) {	// for selecting ILP
 				//Value range of variables 
 				for (int i=1; i<n+1; i++) {
-					x[i] = cplex.boolVarArray(n+1);  		
+					x[i] = lp.addBoolVariables(n+1);  		
 				}
 			}
 			else System.out.print("Error in ILP flag");
 
 			/**
-			 * Create two dummy variables y[0][0] & y[0][1] 
-			 * Assigned y[0][0] = 0; and y[0][1] = 1 
+			 * Create two dummy variables y_{00} & y_{01} 
+			 * Assigned y_{00} = 0; and y_{01} = 1 
 			 **/ 
-			IloNumVar[][] y = new IloNumVar[2][];
-			y[0] = cplex.numVarArray(2, 0, 1);
+			int y;
 
 			if (ilpFlag == 0) { // for selecting relaxed ILP
-				y[0] = cplex.numVarArray(2, 0, 1);
+				y = lp.addVariables(2, 0, 1);
 			} 
 			else { 				// for selecting ILP
-				y[0] = cplex.boolVarArray(2);             
+				y = lp.addBoolVariables(2);             
 			}
 
 			/**
 			 * Creating Objective Function: 
 			 * \sum_{(i,j) \in E^-} w_{ij} (1 - x_{ij}) + \sum_{(i,j) \in E^+} w_{ij} x_{ij}
 			 **/ 
-		
-			IloLinearNumExpr obj = cplex.linearNumExpr();	// linear objective fucntion
-
-			for (int i=1; i<n+1; i++) { 
-				for (int j=i+1; j<n+1; j++) {
-
-					if (g.containsEdge(i, j) ){
-						// get the non negative edge weight corresponding to edge (i,j)
-						double w = g.getEdgeWeight(g.getEdge(i, j));
-						double w_abs = Math.abs(g.getEdgeWeight(g.getEdge(i, j)));
-						
-						// if edge is negative: \sum_{(i,j) \in E^-} w_{ij} (1 - x_{ij})
-						if (w < 0){
-							obj.addTerm(w_abs, y[0][1]);
-							obj.addTerm(-w_abs, x[i][j]);
-						}
-						// if edge is positive: \sum_{(i,j) \in E^+} w_{ij} x_{ij} 
-						if (w >= 0) {
-							obj.addTerm(w_abs, x[i][j]);
-						}
-					}
-					else continue;
-				}
-			}
-			
-				
-			// OBJECTIVE FUNCTION: Define
-			cplex.addMinimize(obj);
+			addObjective(g, x, y, lp);
 
 			// ADD DUMMY CONSTRAINTS: y_{00} = 0; y{01} = 1;
-			cplex.addEq(y[0][0], 0);
-			cplex.addEq(y[0][1], 1);
+			lp.addEq(new int[] {y}, new double[] {1}, 0);
+			lp.addEq(new int[] {y+1}, new double[] {1}, 1);
 
 			// CONSTRAINTS
+			double[] triangle = {1, 1, -1};
 			for (int i=1; i<n+1; i++) {
 				for (int j=i+1; j<n+1; j++) {
 					for (int k=j+1; k<n+1; k++) {
 
 						// Clustering constraints (triangle inequalities)
 						// x_{ij} + x_{jk} - x_{ik} >= 0
-						IloNumExpr cliqueConst1 = cplex.sum(x[i][j], x[j][k], cplex.prod(-1, x[i][k]));
-						cplex.addGe(cliqueConst1, 0);
+						lp.addGe(new int[] {x[i]+j, x[j]+k, x[i]+k}, triangle, 0);
 
 						// x_{ij} + x_{ik} - x_{jk} >= 0
-						IloNumExpr cliqueConst2 = cplex.sum(x[i][j], x[i][k], cplex.prod(-1, x[j][k]));
-						cplex.addGe(cliqueConst2, 0);
+						lp.addGe(new int[] {x[i]+j, x[i]+k, x[j]+k}, triangle, 0);
 
 						// x_{jk} + x_{ik} - x_{ij} >= 0
-						IloNumExpr cliqueConst3 = cplex.sum(x[j][k], x[i][k], cplex.prod(-1, x[i][j]));
-						cplex.addGe(cliqueConst3, 0);			
+						lp.addGe(new int[] {x[j]+k, x[i]+k, x[i]+j}, triangle, 0);
 					}
 				}
 			}
 
 			// if ilpFlag = 0, solve the ILP-Relaxed problem
 			if (ilpFlag == 0){
-				if (cplex.solve()) {
+				if (lp.solve()) {
 					// Print the objective value of ILP-Relaxed problem
 					//System.out.println("ILP-Relaxed Problem Solved.");
 					//System.out.println("Objectives:");
-					//System.out.println("Total clustering error: " + cplex.getObjValue());
-
+					//System.out.println("Total clustering error: " + lp.getObjValue());
 
-					for (int i=1; i<n+1; i++){
-						for (int j=i+1; j<n+1; j++) {
-							//System.out.println(i+","+j+"," + cplex.getValue(x[i][j]));
-
-							// Add vertices to the ilpSolGraph
-							ilpSolGraph.addVertex(i);
-							ilpSolGraph.addVertex(j);
-
-							// Add edge and weight to ilpSolGraph
-							DefaultWeightedEdge e = ilpSolGraph.addEdge(i, j);
-							Double relaxedEdgeWeight = cplex.getValue(x[i][j]);
-							ilpSolGraph.setEdgeWeight(e, relaxedEdgeWeight);
-						}
-					}
+					addRelaxedSolution(ilpSolGraph, g, x, lp);
 				}
 				else System.out.println("Model is not solved.");
 			}
 
 			//if ilpflag = 1, solve the ILP problem
 			else {   
-				if(cplex.solve()) {
+				if(lp.solve()) {
 					// Print objective value
 					//System.out.println("ILP Problem Solved.");
 					//System.out.println("Objectives:");
-					//System.out.println("Total clustering error: " + cplex.getObjValue());
-
-
-					// Print clusters steps:
-					// 1. Put n vertics into n clusers, i.e. each cluster contains exactly one vertices
-					// 2. Now for all 1 <= j<k <=n, if x_{jk} = 0, then put all elements in k's cluster to the j's cluster 
-					// 3. Clear all element from k's cluster
-					// 4. Print all cluster size > 0
-					List<LinkedList<Integer>> clusters = new LinkedList<LinkedList<Integer>>();
-					for (int i=0; i<n+1; i++) { //step 1
-						LinkedList<Integer> c = new LinkedList<Integer>();
-						c.add(i);
-						clusters.add(i, c);
-					}
-					for (int j=1; j<n+1; j++) { //step 2
-						for (int k=j+1; k< n+1; k++) {
-							if (j!=k && cplex.getValue(x[j][k]) == 0) {
-								LinkedList<Integer> c1 = clusters.get(j);
-								LinkedList<Integer> c2 = clusters.get(k);
-								
-								if (!c2.isEmpty()){
-									for (int l : c2){
-										c1.add(l);
-									}
-									c2.clear(); //step 3
-								}
+					//System.out.println("Total clustering error: " + lp.getObjValue());
+
+
+					// Print clusters: join i and j (vertex indices i-1, j-1) whenever x_{ij} = 0,
+					// then print each cluster of the union-find
+					UnionFind uf = new UnionFind(n);
+					for (int i=1; i<n+1; i++) {
+						double[] xi = lp.getValues(x[i], n+1);
+						for (int j=i+1; j<n+1; j++) {
+							if (xi[j] < 0.5) {
+								uf.union(i-1, j-1);
 							}
 						}
 					}
-					
-					for (int i=1; i<n+1; i++) { //step 4
-						LinkedList<Integer> c3 = clusters.get(i);
-						if (c3.size() > 0) {
-							for (int j : c3){
-								System.out.print(j + ",");
-							}
-							System.out.println();
+
+					int[] vertexIds = new int[n];
+					for (int i=0; i<n; i++) {
+						vertexIds[i] = g.vertexId(i);
+					}
+					ClusterAssignment assignment = ClusterAssignment.fromUnionFind(vertexIds, uf);
+					for (int c=0; c<assignment.clusterCount(); c++) {
+						for (int t=0; t<assignment.clusterSize(c); t++) {
+							System.out.print(assignment.vertexId(assignment.member(c, t)) + ",");
 						}
+						System.out.println();
 					}
 					
 					
 					// Add vertices and edges to the solution graph
 					// 	if x_{ij}=0; 1<=i<j<=n, then add an edge (i,j) to the solution graph
 					// 	other wise add vertices i & j to the graph if they are not already exist
+					// 	(x_{ij} < 0.5 as for the clusters above, the backend values are approximate)
 					for (int i=1; i<n+1; i++) {
+						double[] xi = lp.getValues(x[i], n+1);
 						for (int j=i+1; j<n+1; j++) {
-							System.out.println("ILP: x["+i+"]["+j+"] = " + cplex.getValue(x[i][j]));
-							if (cplex.getValue(x[i][j]) == 0) {
-								ilpSolGraph.addVertex(i);
-								ilpSolGraph.addVertex(j);
-								ilpSolGraph.setEdgeWeight(ilpSolGraph.addEdge(i, j), 0);
+							int vi = g.vertexId(i-1);
+							int vj = g.vertexId(j-1);
+							if (xi[j] < 0.5) {
+								ilpSolGraph.addVertex(vi);
+								ilpSolGraph.addVertex(vj);
+								ilpSolGraph.setEdgeWeight(ilpSolGraph.addEdge(vi, vj), 0);
 							}
 							else {
-								ilpSolGraph.addVertex(i);
-								ilpSolGraph.addVertex(j);
+								ilpSolGraph.addVertex(vi);
+								ilpSolGraph.addVertex(vj);
 							}
 						}
 					}
@@ -244,14 +267,366 @@ public class CCEditing {
 				else {
 					System.out.println("Model not solved!!");
 				}
-				cplex.end();
 			}
-		} catch (IloException e) {
+		} catch (LpBackendException e) {
+			e.printStackTrace();
+		} finally {
+			lp.end();
+		}
+		return ilpSolGraph;
+	}
+	
+	/**
+	 * 
+	 * Solving Relaxed ILP for Correlation Clustering Problems with lazy triangle constraints
+	 * 
+	 * Instead of adding all 3*C(n,3) triangle inequalities before the first solve, the model starts 
+	 * without any of them. After each solve the solution matrix is scanned for violated triangles 
+	 * and only the maxCutsPerRound most violated ones are added, until no triangle inequality is 
+	 * violated by more than the tolerance. The final solution satisfies every triangle inequality 
+	 * (up to tolerance) and is optimal for a relaxation of the full model, hence it is an optimal 
+	 * solution of the full relaxed ILP.
+	 * 
+	 * Size: the model has the n(n-1)/2 variables x_{ij}, i < j (no unused lower triangle), and a 
+	 * round reads them once and separates in O(n^2 + sum_j d_j^2), d_j the number of x_{ij} below 
+	 * 1 - tolerance (see TriangleSeparator). At n = 3000 that is 4.5M variables and, when the 
+	 * solution is clustered, far fewer checks than the 4.5e9 triples; the LP itself, not the 
+	 * constraints, bounds the size, and ILpRelaxedSparse is the mode for sparse graphs beyond that.
+	 * 
+	 * @param g - signed graph
+	 * @param maxCutsPerRound - the maximum number of triangle inequalities added per round
+	 * @param tolerance - the violation tolerance of a triangle inequality
+	 * 
+	 * @return the unsigned weighted graph induced by the solution matrix
+	 * 
+	 **/
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> ILpRelaxedLazy 
+	(UndirectedGraph<Integer, DefaultWeightedEdge> g, int maxCutsPerRound, double tolerance) {
+		return ILpRelaxedLazy(g, maxCutsPerRound, tolerance, newLpBackend());
+	}
+	
+	/**
+	 * Same as ILpRelaxedLazy(g, maxCutsPerRound, tolerance) on the given (empty) LP backend
+	 **/
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> ILpRelaxedLazy 
+	(UndirectedGraph<Integer, DefaultWeightedEdge> g, int maxCutsPerRound, double tolerance, LpBackend lp) {
+		return ILpRelaxedLazy(SignedCsrGraph.fromJGraphT(g), maxCutsPerRound, tolerance, lp);
+	}
+	
+	/**
+	 * Same as ILpRelaxedLazy(g, maxCutsPerRound, tolerance, lp) for a graph in CSR format
+	 **/
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> ILpRelaxedLazy 
+	(SignedCsrGraph g, int maxCutsPerRound, double tolerance, LpBackend lp) {
+
+		//Creating output Induced G_{X_R}} graph object (undirected and weighted)
+		SimpleWeightedGraph<Integer, DefaultWeightedEdge> ilpSolGraph =
+				new SimpleWeightedGraph<Integer, DefaultWeightedEdge> (DefaultWeightedEdge.class);
+
+		// Number of vertices in the input graph
+		int n = g.vertexCount();
+
+		try {
+			// Decision variables x_{ij}, i < j, and the dummy variables y_{00} = 0 & y_{01} = 1
+			int[] x = addUpperTriangleVariables(lp, n);
+			int y = lp.addVariables(2, 0, 1);
+
+			// Objective function (same as in ILpRelaxed)
+			addObjective(g, x, y, lp);
+			lp.addEq(new int[] {y}, new double[] {1}, 0);
+			lp.addEq(new int[] {y+1}, new double[] {1}, 1);
+
+			// Cutting-plane loop
+			double[][] xValue = triangleCuttingPlanes(lp, x, n, maxCutsPerRound, tolerance);
+			if (xValue == null) {
+				System.out.println("Model is not solved.");
+				return ilpSolGraph;
+			}
+
+			// Add vertices and relaxed edge weights to the ilpSolGraph
+			for (int i=1; i<n+1; i++){
+				ilpSolGraph.addVertex(g.vertexId(i-1));
+			}
+			for (int i=1; i<n+1; i++){
+				for (int j=i+1; j<n+1; j++) {
+					ilpSolGraph.setEdgeWeight(ilpSolGraph.addEdge(g.vertexId(i-1), g.vertexId(j-1)), xValue[i][j-i-1]);
+				}
+			}
+		} catch (LpBackendException e) {
+			e.printStackTrace();
+		} finally {
+			lp.end();
+		}
+		return ilpSolGraph;
+	}
+	
+	/**
+	 * Add the variables x_{ij}, 1 <= i < j <= n, in [0, 1], row by row: n(n-1)/2 variables
+	 * @return x, where x[i] + j is the variable x_{ij} for i < j (only these are variables of row i)
+	 **/
+	static int[] addUpperTriangleVariables(LpBackend lp, int n) {
+		int[] x = new int[n+1];
+		for (int i=1; i<n; i++) {
+			x[i] = lp.addVariables(n-i, 0, 1) - (i+1);
+		}
+		return x;
+	}
+	
+	/**
+	 * Cutting-plane loop of ILpRelaxedLazy: solve, add the most violated triangle inequalities, and 
+	 * repeat until none is violated by more than the tolerance. The model may already contain 
+	 * triangle inequalities (e.g. of an earlier loop, see IncrementalCCEditing).
+	 * @param x - x[i] + j is the variable x_{ij}, 1 <= i < j <= n (see addUpperTriangleVariables)
+	 * @return the upper triangle of the solution matrix: row i (1 <= i <= n) holds x_{ij}, 
+	 * 		   j = i+1..n, at index j-i-1; or null if a solve failed
+	 * @throws LpBackendException if the loop does not converge within LAZY_MAX_ROUNDS rounds, or if a 
+	 * 		   round finds only violated triangle inequalities that were already added (the solver 
+	 * 		   tolerance is coarser than the violation tolerance)
+	 **/
+	static double[][] triangleCuttingPlanes(LpBackend lp, int[] x, int n, int maxCutsPerRound, double tolerance) {
+		double[][] xValue = new double[n+1][];
+		double[] triangle = {1, 1, -1};
+		// added triangle inequalities, by ((i*(n+1) + j)*(n+1) + k)*3 + type
+		java.util.HashSet<Long> added = new java.util.HashSet<Long>();
+		int round = 0;
+		while (true) {
+			if (round == LAZY_MAX_ROUNDS) {
+				throw new LpBackendException("cutting planes did not converge in " + LAZY_MAX_ROUNDS + " rounds");
+			}
+			if (!lp.solve()) {
+				return null;
+			}
+			for (int i=1; i<n; i++) {
+				xValue[i] = lp.getValues(x[i]+i+1, n-i);
+			}
+			xValue[n] = new double[0];
+
+			// Separation: find the most violated triangle inequalities
+			TriangleSeparator cuts = TriangleSeparator.separate(xValue, n, tolerance, maxCutsPerRound);
+			if (cuts.size == 0) break;
+
+			int newCuts = 0;
+			for (int c=0; c<cuts.size; c++) {
+				int i = cuts.ci[c];
+				int j = cuts.cj[c];
+				int k = cuts.ck[c];
+				if (!added.add(((i * (long) (n+1) + j) * (n+1) + k) * 3 + cuts.type[c])) continue;
+				newCuts += 1;
+
+				if (cuts.type[c] == 0) {
+					// x_{ij} + x_{jk} - x_{ik} >= 0
+					lp.addGe(new int[] {x[i]+j, x[j]+k, x[i]+k}, triangle, 0);
+				}
+				else if (cuts.type[c] == 1) {
+					// x_{ij} + x_{ik} - x_{jk} >= 0
+					lp.addGe(new int[] {x[i]+j, x[i]+k, x[j]+k}, triangle, 0);
+				}
+				else {
+					// x_{jk} + x_{ik} - x_{ij} >= 0
+					lp.addGe(new int[] {x[j]+k, x[i]+k, x[i]+j}, triangle, 0);
+				}
+			}
+			if (newCuts == 0) {
+				throw new LpBackendException("cutting planes made no progress in round " + round + ": the " 
+						+ cuts.size + " violated triangle inequalities were all added before");
+			}
+			round += 1;
+		}
+		return xValue;
+	}
+	
+	/**
+	 * 
+	 * Solving the sparse Relaxed ILP for Correlation Clustering Problems
+	 * 
+	 * The objective only depends on the m edges of g, so the model has one variable x_e per edge 
+	 * instead of one per vertex pair. The distance of a pair without an edge is implied by the metric 
+	 * closure (shortest path in the lengths x, capped at 1), which satisfies the triangle inequalities 
+	 * iff x satisfies the cycle inequalities x_{uv} <= \sum_{f \in P} x_f for every path P between the 
+	 * ends of an edge (u,v). These are added lazily by a cutting-plane loop (CycleSeparator), so the 
+	 * LP has O(m) variables and only the cycle inequalities that were violated at some round, instead 
+	 * of O(n^2) variables and O(n^3) triangle inequalities. The optimum equals that of the full 
+	 * relaxed ILP, as every edge solution of the full model satisfies the cycle inequalities and the 
+	 * closure of every sparse solution is a solution of the full model. The loop fails like a solve 
+	 * after LAZY_MAX_ROUNDS rounds, or when a round only finds cycle inequalities that were already added.
+	 * 
+	 * @param g - signed graph
+	 * @param maxCutsPerRound - the maximum number of cycle inequalities added per round
+	 * @param tolerance - the violation tolerance of a cycle inequality
+	 * 
+	 * @return the unsigned weighted graph with the edges of g weighted by x_e; the ultrametric of 
+	 * 		   Ultrametric.getUltrametricTree is then a forest over the connected components of g
+	 * 
+	 **/
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> ILpRelaxedSparse 
+	(UndirectedGraph<Integer, DefaultWeightedEdge> g, int maxCutsPerRound, double tolerance) {
+		return ILpRelaxedSparse(SignedCsrGraph.fromJGraphT(g), maxCutsPerRound, tolerance, newLpBackend());
+	}
+	
+	/**
+	 * Same as ILpRelaxedSparse(g, maxCutsPerRound, tolerance) for a graph in CSR format, on the given 
+	 * (empty) LP backend
+	 **/
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> ILpRelaxedSparse 
+	(SignedCsrGraph g, int maxCutsPerRound, double tolerance, LpBackend lp) {
+
+		//Creating output Induced G_{X_R}} graph object (undirected and weighted)
+		SimpleWeightedGraph<Integer, DefaultWeightedEdge> ilpSolGraph =
+				new SimpleWeightedGraph<Integer, DefaultWeightedEdge> (DefaultWeightedEdge.class);
+
+		// Number of vertices and edges in the input graph
+		int n = g.vertexCount();
+		int m = g.edgeCount();
+
+		try {
+			// Decision variables x_e = x + e for the edge ids e, and the dummy variables y_{00} = 0 & y_{01} = 1
+			int x = lp.addVariables(m, 0, 1);
+			int y = lp.addVariables(2, 0, 1);
+
+			// Objective function (same as in ILpRelaxed, over the edge variables)
+			for (int u=0; u<n; u++) {
+				for (int s=g.start(u); s<g.end(u); s++) {
+					if (g.neighbour(s) < u) continue;
+					double w = g.weight(s);
+					double w_abs = Math.abs(w);
+
+					// negative edge: w_{ij} (1 - x_{ij}); positive edge: w_{ij} x_{ij}
+					if (w < 0) {
+						lp.addObjectiveTerm(y+1, w_abs);
+						lp.addObjectiveTerm(x + g.edgeId(s), -w_abs);
+					}
+					else {
+						lp.addObjectiveTerm(x + g.edgeId(s), w_abs);
+					}
+				}
+			}
+			lp.addEq(new int[] {y}, new double[] {1}, 0);
+			lp.addEq(new int[] {y+1}, new double[] {1}, 1);
+
+			// Cutting-plane loop
+			double[] xValue = new double[0];
+			// added cycle inequalities
+			CycleSeparator.CutSet added = new CycleSeparator.CutSet();
+			int round = 0;
+			while (true) {
+				if (round == LAZY_MAX_ROUNDS) {
+					throw new LpBackendException("cutting planes did not converge in " + LAZY_MAX_ROUNDS + " rounds");
+				}
+				if (!lp.solve()) {
+					System.out.println("Model is not solved.");
+					return ilpSolGraph;
+				}
+				xValue = lp.getValues(x, m);
+
+				// Separation: find the most violated cycle inequalities
+				CycleSeparator cuts = CycleSeparator.separate(g, xValue, tolerance, maxCutsPerRound);
+				if (cuts.size == 0) break;
+
+				int newCuts = 0;
+				for (int c=0; c<cuts.size; c++) {
+					// \sum_{f \in P} x_f - x_{uv} >= 0
+					int[] path = cuts.path[c];
+					if (!added.add(cuts.edge[c], path)) continue;
+					newCuts += 1;
+
+					int[] vars = new int[path.length + 1];
+					double[] coefs = new double[path.length + 1];
+					for (int t=0; t<path.length; t++) {
+						vars[t] = x + path[t];
+						coefs[t] = 1;
+					}
+					vars[path.length] = x + cuts.edge[c];
+					coefs[path.length] = -1;
+					lp.addGe(vars, coefs, 0);
+				}
+				if (newCuts == 0) {
+					throw new LpBackendException("cutting planes made no progress in round " + round + ": the " 
+							+ cuts.size + " violated cycle inequalities were all added before");
+				}
+				round += 1;
+			}
+
+			// Add vertices and relaxed edge weights to the ilpSolGraph
+			for (int u=0; u<n; u++) {
+				ilpSolGraph.addVertex(g.vertexId(u));
+			}
+			for (int u=0; u<n; u++) {
+				for (int s=g.start(u); s<g.end(u); s++) {
+					int v = g.neighbour(s);
+					if (v < u) continue;
+					ilpSolGraph.setEdgeWeight(ilpSolGraph.addEdge(g.vertexId(u), g.vertexId(v)), xValue[g.edgeId(s)]);
+				}
+			}
+		} catch (LpBackendException e) {
 			e.printStackTrace();
+		} finally {
+			lp.end();
 		}
 		return ilpSolGraph;
 	}
 	
+	/**
+	 * Objective function: 
+	 * \sum_{(i,j) \in E^-} w_{ij} (1 - x_{ij}) + \sum_{(i,j) \in E^+} w_{ij} x_{ij}
+	 * where the constant term w_{ij} * 1 uses the dummy variable y_{01} = 1
+	 * Only the m edges of g are visited (CSR adjacency lists), not all vertex pairs
+	 **/
+	private static void addObjective(
+			SignedCsrGraph g, 
+			int[] x, 
+			int y, 
+			LpBackend lp
+			) {
+		int n = g.vertexCount();
+		for (int u=0; u<n; u++) { 
+			for (int s=g.start(u); s<g.end(u); s++) {
+				int v = g.neighbour(s);
+				if (v < u) continue;
+				int i = u + 1;
+				int j = v + 1;
+
+				// get the non negative edge weight corresponding to edge (i,j)
+				double w = g.weight(s);
+				double w_abs = Math.abs(w);
+
+				// if edge is negative: \sum_{(i,j) \in E^-} w_{ij} (1 - x_{ij})
+				if (w < 0){
+					lp.addObjectiveTerm(y+1, w_abs);
+					lp.addObjectiveTerm(x[i]+j, -w_abs);
+				}
+				// if edge is positive: \sum_{(i,j) \in E^+} w_{ij} x_{ij} 
+				else {
+					lp.addObjectiveTerm(x[i]+j, w_abs);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Add the relaxed solution x_{ij}, 1 <= i < j <= n as edge weights to the ilpSolGraph
+	 **/
+	private static void addRelaxedSolution(
+			SimpleWeightedGraph<Integer, DefaultWeightedEdge> ilpSolGraph,
+			SignedCsrGraph g, 
+			int[] x, 
+			LpBackend lp
+			) {
+		int n = g.vertexCount();
+		for (int i=1; i<n+1; i++){
+			ilpSolGraph.addVertex(g.vertexId(i-1));
+		}
+		for (int i=1; i<n+1; i++){
+			double[] xi = lp.getValues(x[i], n+1);
+			for (int j=i+1; j<n+1; j++) {
+				//System.out.println(i+","+j+"," + xi[j]);
+
+				// Add edge and weight to ilpSolGraph
+				DefaultWeightedEdge e = ilpSolGraph.addEdge(g.vertexId(i-1), g.vertexId(j-1));
+				ilpSolGraph.setEdgeWeight(e, xi[j]);
+			}
+		}
+	}
+	
 	
 	//Main method 
 	public static void main(String[] args) {
@@ -287,4 +662,4 @@ public class CCEditing {
 		System.out.println(relaxedWeightedGraph.getEdgeWeight(relaxedWeightedGraph.getEdge(1, 3)));
 	}
 	
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,211 @@
+package algorithm;
+
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Configuration of the heuristic correlation clustering pipeline (HeuristicCCEditing)
+ *
+ * A session holds only its configuration; every call of solve creates its own LP backend and
+ * returns its own ClusteringResult. Hence one configured session (or many sessions) can be used
+ * by any number of threads at once, e.g. by the workers of a pool of clustering jobs. Configure
+ * the session before sharing it between threads.
+ *
+ * Example:
+ * 		ClusteringResult r = new CCSolverSession().setThreshold(0.49).setLpBackend("pdhg").solve(g);
+ *
+ **/
+
+public class CCSolverSession {
+
+	private double threshold = HeuristicCCEditing.AUTO_THRESHOLD;
+	private String lpBackend = null;
+	private boolean lazy = true;
+	private boolean sparse = false;
+	private String clustersOutput = null;
+	private boolean decompose = false;
+	private int parallelism = 1;
+	private boolean pivot = false;
+	private long seed = 2016;
+	private boolean refine = false;
+	private long refineMillis = Long.MAX_VALUE;
+
+	/**
+	 * @param threshold - the rounding threshold, or HeuristicCCEditing.AUTO_THRESHOLD (default)
+	 **/
+	public CCSolverSession setThreshold(double threshold) {
+		this.threshold = threshold;
+		return this;
+	}
+
+	/**
+	 * @param name - "cplex", "pdhg", "auto", or null (default) for the system property 'cc.lp.backend'
+	 **/
+	public CCSolverSession setLpBackend(String name) {
+		this.lpBackend = name;
+		return this;
+	}
+
+	/**
+	 * @param lazy - true (default): add the triangle inequalities lazily (cutting-plane loop);
+	 * 				 false: the full relaxed ILP with all 3 * C(n,3) triangle inequalities
+	 **/
+	public CCSolverSession setLazy(boolean lazy) {
+		this.lazy = lazy;
+		return this;
+	}
+
+	/**
+	 * @param sparse - true: variables for the edges only, with lazy cycle inequalities 
+	 * 				   (CCEditing.ILpRelaxedSparse; overrides setLazy); false (default): all vertex pairs
+	 **/
+	public CCSolverSession setSparse(boolean sparse) {
+		this.sparse = sparse;
+		return this;
+	}
+
+	/**
+	 * @param outputFile - csv file the clusters of every solve are written to, or null (default)
+	 * 					   to not write the clusters
+	 **/
+	public CCSolverSession setClustersOutput(String outputFile) {
+		this.clustersOutput = outputFile;
+		return this;
+	}
+
+	/**
+	 * @param decompose - true: solve the connected components independently (ComponentDecomposition);
+	 * 					  false (default): one LP over all vertices
+	 **/
+	public CCSolverSession setDecompose(boolean decompose) {
+		this.decompose = decompose;
+		return this;
+	}
+
+	/**
+	 * @param pivot - true: pivot clustering (PivotClustering) instead of the LP and the ultrametric,
+	 * 				  for graphs too large for the LP; false (default)
+	 **/
+	public CCSolverSession setPivot(boolean pivot) {
+		this.pivot = pivot;
+		return this;
+	}
+
+	/**
+	 * @param seed - the seed of the random vertex order of the pivot clustering (default 2016)
+	 **/
+	public CCSolverSession setSeed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * @param refine - true: improve the clusters by single-vertex moves (LocalSearchRefinement) until
+	 * 				   a local optimum or the time budget; false (default)
+	 **/
+	public CCSolverSession setRefine(boolean refine) {
+		this.refine = refine;
+		return this;
+	}
+
+	/**
+	 * @param millis - time budget of the refinement in milliseconds (default: none)
+	 **/
+	public CCSolverSession setRefineTimeBudget(long millis) {
+		this.refineMillis = millis;
+		return this;
+	}
+
+	/**
+	 * @param parallelism - number of components solved at once with setDecompose(true), or worker
+	 * 						threads of the pivot clustering and of the refinement (default 1)
+	 **/
+	public CCSolverSession setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	public double getThreshold() {
+		return threshold;
+	}
+
+	public String getLpBackend() {
+		return lpBackend;
+	}
+
+	public boolean isLazy() {
+		return lazy;
+	}
+
+	public boolean isSparse() {
+		return sparse;
+	}
+
+	public String getClustersOutput() {
+		return clustersOutput;
+	}
+
+	public boolean isDecompose() {
+		return decompose;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public boolean isPivot() {
+		return pivot;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public boolean isRefine() {
+		return refine;
+	}
+
+	public long getRefineTimeBudget() {
+		return refineMillis;
+	}
+
+	public ClusteringResult solve(SimpleWeightedGraph<Integer, DefaultWeightedEdge> g) {
+		return solve(SignedCsrGraph.fromJGraphT(g));
+	}
+
+	/**
+	 * Solve the correlation clustering problem of g with this configuration
+	 * @throws java.io.UncheckedIOException if the clusters cannot be written to the output file
+	 **/
+	public ClusteringResult solve(SignedCsrGraph g) {
+		int ilpFlag = sparse ? 3 : lazy ? 2 : 0;
+		ClusteringResult result;
+		if (pivot) {
+			result = (parallelism == 1) ? PivotClustering.solve(g, seed) : PivotClustering.solveParallel(g, seed, parallelism);
+		}
+		else if (decompose) {
+			result = ComponentDecomposition.solve(g, threshold, ilpFlag, lpBackend, false, parallelism);
+		}
+		else {
+			LpBackend lp = (lpBackend == null) ? CCEditing.newLpBackend() : CCEditing.newLpBackend(lpBackend);
+			result = HeuristicCCEditing.solveCCEditing(g, threshold, ilpFlag, lp);
+		}
+		if (refine) {
+			result = new LocalSearchRefinement(g).setParallelism(parallelism).setTimeBudget(refineMillis).refine(result);
+		}
+
+		if (clustersOutput != null) {
+			try {
+				result.assignment().write(clustersOutput);
+			} catch (java.io.IOException e) {
+				throw new java.io.UncheckedIOException(e);
+			}
+		}
+		return result;
+	}
+}
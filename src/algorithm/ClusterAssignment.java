@@ -0,0 +1,196 @@
+package algorithm;
+
+/**
+ * Clustering of the vertices of a graph
+ *
+ * Vertex i (0 <= i < n, with the original id vertexId(i)) is in cluster label(i); the labels are
+ * 0..k-1, numbered in order of the first vertex of each cluster. The members of every cluster are
+ * kept in one int array grouped by cluster (counting sort, O(n)), in ascending vertex order.
+ *
+ **/
+
+public class ClusterAssignment {
+
+	private int[] vertexIds;
+	private int[] labels;
+	private int clusterCount;
+	private int[] clusterStart;	// members of cluster c: members[clusterStart[c]..clusterStart[c+1]-1]
+	private int[] members;
+
+	/**
+	 * @param vertexIds - the original id of each vertex 0..n-1
+	 * @param labels - any integer label per vertex; equal labels are the same cluster
+	 **/
+	public ClusterAssignment(int[] vertexIds, int[] labels) {
+		int n = labels.length;
+		this.vertexIds = vertexIds;
+		this.labels = new int[n];
+
+		// compact labels 0..k-1 in order of first appearance
+		IntIntMap compact = new IntIntMap(n);
+		for (int i=0; i<n; i++) {
+			int c = compact.get(labels[i]);
+			if (c == -1) {
+				c = clusterCount;
+				compact.put(labels[i], c);
+				clusterCount += 1;
+			}
+			this.labels[i] = c;
+		}
+
+		// members grouped by cluster
+		clusterStart = new int[clusterCount + 1];
+		for (int i=0; i<n; i++) {
+			clusterStart[this.labels[i] + 1] += 1;
+		}
+		for (int c=0; c<clusterCount; c++) {
+			clusterStart[c+1] += clusterStart[c];
+		}
+		members = new int[n];
+		int[] fill = new int[clusterCount];
+		System.arraycopy(clusterStart, 0, fill, 0, clusterCount);
+		for (int i=0; i<n; i++) {
+			members[fill[this.labels[i]]++] = i;
+		}
+	}
+
+	/**
+	 * The sets of a union-find are the clusters
+	 **/
+	public static ClusterAssignment fromUnionFind(int[] vertexIds, UnionFind uf) {
+		int n = vertexIds.length;
+		int[] labels = new int[n];
+		for (int i=0; i<n; i++) {
+			labels[i] = uf.find(i);
+		}
+		return new ClusterAssignment(vertexIds, labels);
+	}
+
+	/**
+	 * @return the number of vertices
+	 **/
+	public int size() {
+		return labels.length;
+	}
+
+	public int clusterCount() {
+		return clusterCount;
+	}
+
+	public int label(int i) {
+		return labels[i];
+	}
+
+	/**
+	 * @return a copy of the cluster label of every vertex
+	 **/
+	public int[] labels() {
+		return labels.clone();
+	}
+
+	public int vertexId(int i) {
+		return vertexIds[i];
+	}
+
+	public int clusterSize(int c) {
+		return clusterStart[c+1] - clusterStart[c];
+	}
+
+	/**
+	 * @return the t-th member (vertex index) of cluster c
+	 **/
+	public int member(int c, int t) {
+		return members[clusterStart[c] + t];
+	}
+
+	/**
+	 * @return the original vertex ids of cluster c, in ascending vertex order
+	 **/
+	public int[] cluster(int c) {
+		int[] ids = new int[clusterSize(c)];
+		for (int t=0; t<ids.length; t++) {
+			ids[t] = vertexIds[members[clusterStart[c] + t]];
+		}
+		return ids;
+	}
+
+	/**
+	 * Print the clusters, one line of comma separated vertex ids per cluster
+	 **/
+	public void print(java.io.PrintStream out) {
+		StringBuilder line = new StringBuilder();
+		for (int c=0; c<clusterCount; c++) {
+			appendCluster(line, c);
+			out.println(line);
+		}
+	}
+
+	/**
+	 * Write the clusters to a csv file: a line '#Cluster: c' (c = 1..k) followed by the line of
+	 * comma separated vertex ids of the cluster
+	 **/
+	public void write(String outputFile) throws java.io.IOException {
+		java.io.PrintWriter w = new java.io.PrintWriter(
+				new java.io.BufferedWriter(new java.io.FileWriter(outputFile)));
+		try {
+			StringBuilder line = new StringBuilder();
+			for (int c=0; c<clusterCount; c++) {
+				appendCluster(line, c);
+				w.println("#Cluster: " + (c+1));
+				w.println(line);
+			}
+		} finally {
+			w.close();
+		}
+		if (w.checkError()) {
+			throw new java.io.IOException("Error writing " + outputFile);
+		}
+	}
+
+	private void appendCluster(StringBuilder line, int c) {
+		line.setLength(0);
+		for (int t=clusterStart[c]; t<clusterStart[c+1]; t++) {
+			if (t > clusterStart[c]) line.append(',');
+			line.append(vertexIds[members[t]]);
+		}
+	}
+
+	/**
+	 * Open addressing int -> int map, used to compact arbitrary labels without boxing
+	 **/
+	private static final class IntIntMap {
+		private int[] keys;
+		private int[] values;
+		private boolean[] used;
+		private int mask;
+
+		IntIntMap(int expected) {
+			int cap = 16;
+			while (cap < 2 * expected) cap <<= 1;
+			keys = new int[cap];
+			values = new int[cap];
+			used = new boolean[cap];
+			mask = cap - 1;
+		}
+
+		int get(int key) {
+			for (int p=hash(key) & mask; used[p]; p=(p+1) & mask) {
+				if (keys[p] == key) return values[p];
+			}
+			return -1;
+		}
+
+		void put(int key, int value) {
+			int p = hash(key) & mask;
+			while (used[p] && keys[p] != key) p = (p+1) & mask;
+			used[p] = true;
+			keys[p] = key;
+			values[p] = value;
+		}
+
+		private static int hash(int key) {
+			int h = key * 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+	}
+}
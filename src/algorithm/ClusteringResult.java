@@ -0,0 +1,69 @@
+package algorithm;
+
+/**
+ * Result of one solve of HeuristicCCEditing / CCSolverSession
+ *
+ * The clusters of the rounded ultrametric, the ultrametric tree and the rounding threshold; when the
+ * threshold was tuned (HeuristicCCEditing.AUTO_THRESHOLD) also the threshold sweep. A result is
+ * immutable and owned by the caller, so results of concurrent solves never share state.
+ *
+ **/
+
+public class ClusteringResult {
+
+	private ClusterAssignment assignment;
+	private UltrametricTree ultra;
+	private double threshold;
+	private ThresholdSweep sweep;
+
+	ClusteringResult(ClusterAssignment assignment, UltrametricTree ultra, double threshold, ThresholdSweep sweep) {
+		this.assignment = assignment;
+		this.ultra = ultra;
+		this.threshold = threshold;
+		this.sweep = sweep;
+	}
+
+	/**
+	 * @return the clusters; vertex i of the assignment is the leaf i of the ultrametric tree
+	 **/
+	public ClusterAssignment assignment() {
+		return assignment;
+	}
+
+	public UltrametricTree ultrametricTree() {
+		return ultra;
+	}
+
+	/**
+	 * @return the rounding threshold (the tuned one for AUTO_THRESHOLD)
+	 **/
+	public double threshold() {
+		return threshold;
+	}
+
+	/**
+	 * @return the threshold sweep, or null if the threshold was given
+	 **/
+	public ThresholdSweep sweep() {
+		return sweep;
+	}
+
+	public int clusterCount() {
+		return assignment.clusterCount();
+	}
+
+	/**
+	 * @return the cluster label (0..k-1) of the vertex id, or -1 if the graph has no such vertex
+	 **/
+	public int labelOf(int vertexId) {
+		int leaf = ultra.leafOf(vertexId);
+		return (leaf >= 0) ? assignment.label(leaf) : -1;
+	}
+
+	/**
+	 * @return the original vertex ids of cluster c
+	 **/
+	public int[] cluster(int c) {
+		return assignment.cluster(c);
+	}
+}
@@ -0,0 +1,194 @@
+package algorithm;
+
+import randomSignedGraphGenerator.NestedSignedRandomGraphV1;
+
+/**
+ * Agreement of a clustering with the ground-truth groups (e.g. the nests of a planted partition)
+ *
+ * All scores are computed from the contingency table n_ij = |group i and cluster j|. Only its non-zero
+ * cells are built, by two counting sorts of the vertices (by cluster, then stably by group), so a
+ * score takes O(n + k) time and primitive arrays also when the clustering has close to n clusters.
+ * 		imbalance	- number of vertices not in the group of their cluster, where every cluster is
+ * 					  colored with the group of its first vertex (the planted partition benchmark of
+ * 					  HeuristicCCEditing)
+ * 		purity		- sum over the clusters of their largest group, divided by n
+ * 		ARI			- Adjusted Rand Index (Hubert & Arabie, 1985); 1 for identical partitions (and
+ * 					  for fewer than 2 vertices), about 0 for random ones
+ * 		NMI			- Normalized Mutual Information, I(G;C) / ((H(G) + H(C)) / 2); 1 for identical
+ * 					  partitions, 0 for independent ones
+ *
+ **/
+
+public class ClusteringScore {
+
+	private int n;
+	private int groupCount;
+	private int clusterCount;
+	private int imbalance;
+	private double purity;
+	private double ari;
+	private double nmi;
+
+	private ClusteringScore() {
+	}
+
+	/**
+	 * Score the clusters of a nested random graph (NestedSignedRandomGraphV1/V2, vertex ids 1..m*n)
+	 * @param groupSize - the number of vertices n in each group/nest
+	 **/
+	public static ClusteringScore plantedPartition(ClusterAssignment assignment, int groupSize) {
+		int[] groups = new int[assignment.size()];
+		for (int i=0; i<groups.length; i++) {
+			groups[i] = NestedSignedRandomGraphV1.groupOf(assignment.vertexId(i), groupSize);
+		}
+		return compare(groups, assignment.labels());
+	}
+
+	/**
+	 * @param groups - the ground-truth group of each vertex 0..n-1 (any integers)
+	 * @param labels - the cluster of each vertex 0..n-1 (any integers)
+	 **/
+	public static ClusteringScore compare(int[] groups, int[] labels) {
+		if (groups.length != labels.length) {
+			throw new IllegalArgumentException("groups and labels differ in length: "
+					+ groups.length + " != " + labels.length);
+		}
+		int n = groups.length;
+		int[] ids = new int[n];
+		ClusterAssignment g = new ClusterAssignment(ids, groups);
+		ClusterAssignment c = new ClusterAssignment(ids, labels);
+		int kg = g.clusterCount();
+		int kc = c.clusterCount();
+
+		ClusteringScore s = new ClusteringScore();
+		s.n = n;
+		s.groupCount = kg;
+		s.clusterCount = kc;
+
+		// imbalance: the color of a cluster is the group of its first vertex
+		for (int j=0; j<kc; j++) {
+			int color = g.label(c.member(j, 0));
+			for (int t=0; t<c.clusterSize(j); t++) {
+				if (g.label(c.member(j, t)) != color) s.imbalance += 1;
+			}
+		}
+		if (n == 0) {
+			s.purity = s.ari = s.nmi = 1;
+			return s;
+		}
+
+		// vertices sorted by (group, cluster): the members of the clusters in cluster order, then
+		// stably counted into the groups
+		int[] start = new int[kg + 1];
+		for (int i=0; i<n; i++) {
+			start[g.label(i) + 1] += 1;
+		}
+		for (int i=0; i<kg; i++) {
+			start[i+1] += start[i];
+		}
+		int[] order = new int[n];
+		for (int j=0; j<kc; j++) {
+			for (int t=0; t<c.clusterSize(j); t++) {
+				int v = c.member(j, t);
+				order[start[g.label(v)]++] = v;
+			}
+		}
+
+		// non-zero cells of the contingency table
+		double sumCells = 0;	// sum of C(n_ij, 2)
+		double mi = 0;			// mutual information * n
+		int[] largest = new int[kc];
+		int i = 0;
+		while (i < n) {
+			int gi = g.label(order[i]);
+			int cj = c.label(order[i]);
+			int k = i;
+			while (k < n && g.label(order[k]) == gi && c.label(order[k]) == cj) k += 1;
+			long nij = k - i;
+
+			sumCells += pairs(nij);
+			mi += nij * Math.log((double) n * nij / ((double) g.clusterSize(gi) * c.clusterSize(cj)));
+			largest[cj] = (int) Math.max(largest[cj], nij);
+			i = k;
+		}
+
+		double sumGroups = 0;
+		double hg = 0;
+		for (int gi=0; gi<kg; gi++) {
+			long a = g.clusterSize(gi);
+			sumGroups += pairs(a);
+			hg -= a * Math.log((double) a / n);
+		}
+		double sumClusters = 0;
+		double hc = 0;
+		long pure = 0;
+		for (int cj=0; cj<kc; cj++) {
+			long b = c.clusterSize(cj);
+			sumClusters += pairs(b);
+			hc -= b * Math.log((double) b / n);
+			pure += largest[cj];
+		}
+
+		s.purity = (double) pure / n;
+
+		// without a pair of vertices (n < 2) the partitions are identical, as in the NMI
+		double expected = (n < 2) ? 0 : sumGroups * sumClusters / pairs(n);
+		double max = (sumGroups + sumClusters) / 2;
+		s.ari = (max == expected) ? 1 : (sumCells - expected) / (max - expected);
+
+		s.nmi = (hg + hc == 0) ? 1 : Math.max(0, 2 * mi / (hg + hc));
+		return s;
+	}
+
+	private static double pairs(long x) {
+		return x * (x - 1) / 2.0;
+	}
+
+	/**
+	 * @return the number of vertices
+	 **/
+	public int size() {
+		return n;
+	}
+
+	public int groupCount() {
+		return groupCount;
+	}
+
+	public int clusterCount() {
+		return clusterCount;
+	}
+
+	/**
+	 * @return the number of vertices not in the group (color) of their cluster
+	 **/
+	public int imbalance() {
+		return imbalance;
+	}
+
+	/**
+	 * @return the imbalance in percent of the vertices
+	 **/
+	public double imbalancePercent() {
+		return (n == 0) ? 0 : 100.0 * imbalance / n;
+	}
+
+	public double purity() {
+		return purity;
+	}
+
+	public double adjustedRandIndex() {
+		return ari;
+	}
+
+	public double normalizedMutualInformation() {
+		return nmi;
+	}
+
+	@Override
+	public String toString() {
+		return "n = " + n + "; groups = " + groupCount + "; clusters = " + clusterCount
+				+ "; imbalance = " + imbalance + " (" + imbalancePercent() + "%); purity = " + purity
+				+ "; ARI = " + ari + "; NMI = " + nmi;
+	}
+}
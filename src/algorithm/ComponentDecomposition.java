@@ -0,0 +1,286 @@
+package algorithm;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Block-diagonal decomposition of the correlation clustering problem into connected components
+ *
+ * Two vertices without an edge path between them have no edge between their components, so joining
+ * the components can never reduce the disagreement. Hence the relaxed ILP and the ultrametric of
+ * every component are computed independently (each on its own LP backend, by the workers of a
+ * fork-join pool), and the ultrametric trees are stitched into one forest: vertices of different
+ * components are at distance +infinity, i.e. never in the same cluster. As the relaxed ILP has
+ * O(n^2) variables and O(n^3) triangle inequalities, k components of equal size shrink the model
+ * by a factor of about k^2.
+ *
+ * With positiveOnly the components of the positive edges are used. This is also exact for the
+ * correlation clustering optimum: splitting a cluster along its positive components removes only
+ * negative edges from it, which never increases the disagreement. The negative edges between the
+ * components are then satisfied by the decomposition itself and left out of the LPs.
+ *
+ * The threshold is tuned (AUTO_THRESHOLD) and applied on the whole forest, as in solveCCEditing.
+ *
+ **/
+
+public class ComponentDecomposition {
+
+	private SignedCsrGraph g;
+	private boolean positiveOnly;
+	private int count;				// number of components
+	private int[] component;		// component of each vertex index
+	private int[] local;			// index of each vertex inside its component
+	private int[] start;			// the members of component c are order[start[c]..start[c+1]-1]
+	private int[] order;			// vertex indices by component, ascending inside a component
+
+	/**
+	 * Find the connected components of g in O(n + m)
+	 * @param positiveOnly - true: components of the positive edges (weight > 0); false: of all edges
+	 **/
+	public ComponentDecomposition(SignedCsrGraph g, boolean positiveOnly) {
+		this.g = g;
+		this.positiveOnly = positiveOnly;
+		int n = g.vertexCount();
+
+		// breadth first search from every unvisited vertex; the components are numbered in order
+		// of their smallest vertex index
+		component = new int[n];
+		java.util.Arrays.fill(component, -1);
+		int[] queue = new int[n];
+		for (int r=0; r<n; r++) {
+			if (component[r] != -1) continue;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = r;
+			component[r] = count;
+			while (head < tail) {
+				int u = queue[head++];
+				for (int s=g.start(u); s<g.end(u); s++) {
+					int v = g.neighbour(s);
+					if (component[v] == -1 && inComponent(s)) {
+						component[v] = count;
+						queue[tail++] = v;
+					}
+				}
+			}
+			count += 1;
+		}
+
+		// counting sort of the vertices by component
+		start = new int[count + 1];
+		for (int u=0; u<n; u++) {
+			start[component[u] + 1] += 1;
+		}
+		for (int c=0; c<count; c++) {
+			start[c+1] += start[c];
+		}
+		order = new int[n];
+		local = new int[n];
+		int[] next = java.util.Arrays.copyOf(start, count);
+		for (int u=0; u<n; u++) {
+			int c = component[u];
+			local[u] = next[c] - start[c];
+			order[next[c]++] = u;
+		}
+	}
+
+	private boolean inComponent(int slot) {
+		return !positiveOnly || g.weight(slot) > 0;
+	}
+
+	public int componentCount() {
+		return count;
+	}
+
+	/**
+	 * @return the component (0..k-1) of vertex index u
+	 **/
+	public int component(int u) {
+		return component[u];
+	}
+
+	public int componentSize(int c) {
+		return start[c+1] - start[c];
+	}
+
+	/**
+	 * @return the vertex index of the t-th member of component c (ascending)
+	 **/
+	public int member(int c, int t) {
+		return order[start[c] + t];
+	}
+
+	/**
+	 * The subgraph of component c (with positiveOnly without the negative edges to other
+	 * components); vertex index t is member(c, t), the vertex ids are those of g
+	 **/
+	public SignedCsrGraph subgraph(int c) {
+		int size = componentSize(c);
+		int[] vertexIds = new int[size];
+		int[] offsets = new int[size + 1];
+		for (int t=0; t<size; t++) {
+			int u = member(c, t);
+			vertexIds[t] = g.vertexId(u);
+			int d = 0;
+			for (int s=g.start(u); s<g.end(u); s++) {
+				if (component[g.neighbour(s)] == c) d += 1;
+			}
+			offsets[t+1] = offsets[t] + d;
+		}
+
+		// the members are in ascending order, so the neighbours stay sorted
+		int[] neighbours = new int[offsets[size]];
+		double[] weights = new double[offsets[size]];
+		int slot = 0;
+		for (int t=0; t<size; t++) {
+			int u = member(c, t);
+			for (int s=g.start(u); s<g.end(u); s++) {
+				int v = g.neighbour(s);
+				if (component[v] != c) continue;
+				neighbours[slot] = local[v];
+				weights[slot] = g.weight(s);
+				slot += 1;
+			}
+		}
+		return new SignedCsrGraph(vertexIds, offsets, neighbours, weights);
+	}
+
+	/**
+	 * Stitch the ultrametric trees of the components into one forest over all vertices of g
+	 * @param trees - the tree of every component (leaf t is member(c, t)); null for a component
+	 * 				  without merges (e.g. a single vertex)
+	 * @return the forest; leaf u is the vertex index u of g
+	 **/
+	public UltrametricTree forest(UltrametricTree[] trees) {
+		int n = g.vertexCount();
+		int[] vertexIds = new int[n];
+		for (int u=0; u<n; u++) {
+			vertexIds[u] = g.vertexId(u);
+		}
+
+		int mergeCount = 0;
+		for (UltrametricTree tree : trees) {
+			if (tree != null) mergeCount += tree.mergeCount();
+		}
+		int[] left = new int[mergeCount];
+		int[] right = new int[mergeCount];
+		double[] height = new double[mergeCount];
+
+		// merge k of component c becomes merge base+k; the merges of a tree keep their order, so
+		// every merge node is still created after its children
+		int base = 0;
+		for (int c=0; c<count; c++) {
+			UltrametricTree tree = trees[c];
+			if (tree == null) continue;
+			for (int k=0; k<tree.mergeCount(); k++) {
+				left[base + k] = node(c, tree, tree.mergeLeft(k), n, base);
+				right[base + k] = node(c, tree, tree.mergeRight(k), n, base);
+				height[base + k] = tree.mergeHeight(k);
+			}
+			base += tree.mergeCount();
+		}
+		return new UltrametricTree(vertexIds, left, right, height, mergeCount);
+	}
+
+	// node of the forest for the node v of the tree of component c
+	private int node(int c, UltrametricTree tree, int v, int n, int base) {
+		return (v < tree.size()) ? member(c, v) : n + base + (v - tree.size());
+	}
+
+	/**
+	 * Solve the correlation clustering problem of g component by component (see solveCCEditing)
+	 * @param threshold - the rounding threshold, or HeuristicCCEditing.AUTO_THRESHOLD
+	 * @param ilpFlag - 0-> relaxed ILP, 2-> relaxed ILP with lazy triangle constraints, 3-> sparse
+	 * 				  relaxed ILP over the edges
+	 * @param lpBackend - LP backend name of every component (see CCEditing.newLpBackend(name)), or
+	 * 					  null for the default backend
+	 * @param positiveOnly - decompose into the components of the positive edges
+	 * @param parallelism - number of components solved at once; 1 to solve in the calling thread
+	 * @return the clusters; the ultrametric tree is the forest of the components
+	 **/
+	public static ClusteringResult solve(
+			SignedCsrGraph g,
+			double threshold,
+			int ilpFlag,
+			String lpBackend,
+			boolean positiveOnly,
+			int parallelism
+			) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		ComponentDecomposition d = new ComponentDecomposition(g, positiveOnly);
+		UltrametricTree[] trees = new UltrametricTree[d.componentCount()];
+
+		// the components with more than one vertex, largest first for an even load of the workers
+		int k = 0;
+		double[] size = new double[d.componentCount()];
+		int[] solveOrder = new int[d.componentCount()];
+		for (int c=0; c<d.componentCount(); c++) {
+			if (d.componentSize(c) < 2) continue;
+			size[k] = -d.componentSize(c);
+			solveOrder[k] = c;
+			k += 1;
+		}
+		Ultrametric.sortByWeight(size, solveOrder, new int[k], 0, k-1);
+
+		ComponentTask[] tasks = new ComponentTask[k];
+		for (int i=0; i<k; i++) {
+			tasks[i] = new ComponentTask(d, solveOrder[i], ilpFlag, lpBackend, trees);
+		}
+		if (parallelism == 1 || k < 2) {
+			for (ComponentTask task : tasks) {
+				task.compute();
+			}
+		}
+		else {
+			ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, k));
+			try {
+				for (ComponentTask task : tasks) {
+					pool.execute(task);
+				}
+				for (ComponentTask task : tasks) {
+					task.join();
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+		}
+
+		return HeuristicCCEditing.round(d.forest(trees), g, threshold);
+	}
+
+	/**
+	 * Relaxed ILP and ultrametric tree of one component on its own LP backend
+	 **/
+	private static class ComponentTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private ComponentDecomposition d;
+		private int c;
+		private int ilpFlag;
+		private String lpBackend;
+		private UltrametricTree[] trees;
+
+		ComponentTask(ComponentDecomposition d, int c, int ilpFlag, String lpBackend, UltrametricTree[] trees) {
+			this.d = d;
+			this.c = c;
+			this.ilpFlag = ilpFlag;
+			this.lpBackend = lpBackend;
+			this.trees = trees;
+		}
+
+		@Override
+		protected void compute() {
+			LpBackend lp = (lpBackend == null) ? CCEditing.newLpBackend() : CCEditing.newLpBackend(lpBackend);
+			SimpleWeightedGraph<Integer, DefaultWeightedEdge> inducedWeightedGraph =
+					CCEditing.ILpRelaxed(d.subgraph(c), ilpFlag, lp);
+			trees[c] = Ultrametric.getUltrametricTree(inducedWeightedGraph);
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package algorithm;
+
+import ilog.concert.IloException;
+import ilog.concert.IloLinearNumExpr;
+import ilog.concert.IloNumVar;
+import ilog.concert.IloObjective;
+import ilog.cplex.IloCplex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LpBackend adapter for IBM ILOG Cplex
+ *
+ * Every IloException is rethrown as a LpBackendException.
+ *
+ * Using library: IBM ILOG Cplex V.12.1 (academic edition)
+ *
+ **/
+
+public class CplexLpBackend implements LpBackend {
+
+	private IloCplex cplex;
+	private List<IloNumVar> vars = new ArrayList<IloNumVar>();
+
+	// objective coefficients, collected until the objective is created in solve()
+	private double[] objCoef = new double[16];
+	private IloObjective objective = null;
+
+	public CplexLpBackend() {
+		try {
+			cplex = new IloCplex();
+			cplex.setOut(null);
+		} catch (IloException e) {
+			throw new LpBackendException("Cplex could not be created", e);
+		}
+	}
+
+	public int addVariables(int count, double lb, double ub) {
+		try {
+			return register(cplex.numVarArray(count, lb, ub));
+		} catch (IloException e) {
+			throw new LpBackendException("Cplex could not add variables", e);
+		}
+	}
+
+	public int addBoolVariables(int count) {
+		try {
+			return register(cplex.boolVarArray(count));
+		} catch (IloException e) {
+			throw new LpBackendException("Cplex could not add variables", e);
+		}
+	}
+
+	public boolean supportsBoolVariables() {
+		return true;
+	}
+
+	private int register(IloNumVar[] newVars) {
+		int first = vars.size();
+		for (IloNumVar v : newVars) {
+			vars.add(v);
+		}
+		if (objCoef.length < vars.size()) {
+			double[] grown = new double[Math.max(vars.size(), 2*objCoef.length)];
+			System.arraycopy(objCoef, 0, grown, 0, objCoef.length);
+			objCoef = grown;
+		}
+		return first;
+	}
+
+	public void addObjectiveTerm(int var, double coef) {
+		setObjectiveCoefficient(var, objCoef[var] + coef);
+	}
+
+	/**
+	 * After the first solve the coefficient is changed in the objective of the model, so the next
+	 * solve starts from the previous basis
+	 **/
+	public void setObjectiveCoefficient(int var, double coef) {
+		objCoef[var] = coef;
+		if (objective != null) {
+			try {
+				cplex.setLinearCoef(objective, objCoef[var], vars.get(var));
+			} catch (IloException e) {
+				throw new LpBackendException("Cplex could not change the objective", e);
+			}
+		}
+	}
+
+	public void addGe(int[] vars, double[] coefs, double rhs) {
+		try {
+			cplex.addGe(rowExpr(vars, coefs), rhs);
+		} catch (IloException e) {
+			throw new LpBackendException("Cplex could not add a constraint", e);
+		}
+	}
+
+	public void addEq(int[] vars, double[] coefs, double rhs) {
+		try {
+			cplex.addEq(rowExpr(vars, coefs), rhs);
+		} catch (IloException e) {
+			throw new LpBackendException("Cplex could not add a constraint", e);
+		}
+	}
+
+	private IloLinearNumExpr rowExpr(int[] rowVars, double[] coefs) throws IloException {
+		IloLinearNumExpr expr = cplex.linearNumExpr();
+		for (int t=0; t<rowVars.length; t++) {
+			expr.addTerm(coefs[t], vars.get(rowVars[t]));
+		}
+		return expr;
+	}
+
+	public boolean solve() {
+		try {
+			if (objective == null) {
+				IloLinearNumExpr obj = cplex.linearNumExpr();
+				for (int v=0; v<vars.size(); v++) {
+					if (objCoef[v] != 0) {
+						obj.addTerm(objCoef[v], vars.get(v));
+					}
+				}
+				objective = cplex.addMinimize(obj);
+			}
+			return cplex.solve();
+		} catch (IloException e) {
+			throw new LpBackendException("Cplex could not solve the model", e);
+		}
+	}
+
+	public double getValue(int var) {
+		try {
+			return cplex.getValue(vars.get(var));
+		} catch (IloException e) {
+			throw new LpBackendException("Cplex could not read a value", e);
+		}
+	}
+
+	public double[] getValues(int first, int count) {
+		try {
+			IloNumVar[] v = new IloNumVar[count];
+			for (int t=0; t<count; t++) {
+				v[t] = vars.get(first + t);
+			}
+			return cplex.getValues(v);
+		} catch (IloException e) {
+			throw new LpBackendException("Cplex could not read values", e);
+		}
+	}
+
+	public double getObjValue() {
+		try {
+			return cplex.getObjValue();
+		} catch (IloException e) {
+			throw new LpBackendException("Cplex could not read the objective value", e);
+		}
+	}
+
+	public void end() {
+		cplex.end();
+	}
+}
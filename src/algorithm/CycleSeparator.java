@@ -0,0 +1,304 @@
+package algorithm;
+
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Separation routine for the cycle inequalities of the sparse Correlation Clustering LP
+ *
+ * The sparse LP has one variable x_e per edge of the graph. The distances of the vertex pairs
+ * without an edge are implied by the metric closure (shortest paths, capped at 1), which is a metric
+ * iff every edge (u,v) is no longer than any other path between u and v, i.e. iff the cycle
+ * inequalities
+ * 		x_{uv} <= \sum_{f \in P} x_f		for every path P from u to v
+ * hold. Hence for every vertex u one Dijkstra search with the lengths x finds the shortest path to
+ * each neighbour v > u; if it is shorter than x_{uv} by more than the tolerance, the cycle (u,v)+P
+ * is a violated inequality. A search stops as soon as the distance exceeds the longest incident
+ * edge of u, so on sparse graphs it visits only a small neighbourhood.
+ *
+ * As in TriangleSeparator only the k most violated cuts are kept, in a bounded min-heap. A cut c
+ * stands for:
+ * 		\sum_{f \in path[c]} x_f - x_{edge[c]} >= 0
+ *
+ **/
+
+class CycleSeparator {
+
+	int size;				// number of cuts kept
+	double[] violation;		// violation of each kept cut
+	int[] edge;				// the edge id of the chord of each kept cut
+	int[][] path;			// the edge ids of the path of each kept cut
+
+	private CycleSeparator(int maxCuts) {
+		violation = new double[maxCuts];
+		edge = new int[maxCuts];
+		path = new int[maxCuts][];
+	}
+
+	/**
+	 * Find the (at most) maxCuts most violated cycle inequalities
+	 * @param g - the graph
+	 * @param x - the value of each edge id
+	 * @param tolerance - only inequalities violated by more than tolerance are reported
+	 * @param maxCuts - the maximum number of cuts to return
+	 *
+	 * @return the kept cuts, the most violated first
+	 **/
+	static CycleSeparator separate(SignedCsrGraph g, double[] x, double tolerance, int maxCuts) {
+		CycleSeparator cuts = new CycleSeparator(maxCuts);
+		int n = g.vertexCount();
+
+		double[] dist = new double[n];
+		int[] predEdge = new int[n];		// edge id to the predecessor on the shortest path
+		int[] pred = new int[n];
+		int[] heapPos = new int[n];			// position in the heap, -1 outside, -2 settled
+		int[] heap = new int[n];
+		int[] touched = new int[n];
+		java.util.Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		java.util.Arrays.fill(heapPos, -1);
+
+		for (int u=0; u<n; u++) {
+			// the search can stop beyond the longest edge (u,v), v > u
+			double bound = -1;
+			for (int s=g.start(u); s<g.end(u); s++) {
+				if (g.neighbour(s) > u) bound = Math.max(bound, x[g.edgeId(s)] - tolerance);
+			}
+			if (bound <= 0) continue;
+
+			int touchedCount = 0;
+			int heapSize = 0;
+			dist[u] = 0;
+			pred[u] = -1;
+			heap[heapSize] = u;
+			heapPos[u] = heapSize++;
+			touched[touchedCount++] = u;
+
+			while (heapSize > 0) {
+				int a = heap[0];
+				heapSize -= 1;
+				if (heapSize > 0) {
+					heap[0] = heap[heapSize];
+					heapPos[heap[0]] = 0;
+					siftDown(heap, heapPos, dist, 0, heapSize);
+				}
+				heapPos[a] = -2;
+				if (dist[a] >= bound) break;
+
+				for (int s=g.start(a); s<g.end(a); s++) {
+					int b = g.neighbour(s);
+					if (heapPos[b] == -2) continue;
+					double d = dist[a] + x[g.edgeId(s)];
+					if (d < dist[b]) {
+						if (heapPos[b] == -1) {
+							touched[touchedCount++] = b;
+							heap[heapSize] = b;
+							heapPos[b] = heapSize++;
+						}
+						dist[b] = d;
+						pred[b] = a;
+						predEdge[b] = g.edgeId(s);
+						siftUp(heap, heapPos, dist, heapPos[b]);
+					}
+				}
+			}
+
+			// violated cycles: an edge (u,v) longer than the shortest path from u to v
+			for (int s=g.start(u); s<g.end(u); s++) {
+				int v = g.neighbour(s);
+				if (v < u) continue;
+				double xuv = x[g.edgeId(s)];
+				double violation = xuv - dist[v];
+				if (violation > tolerance && cuts.accepts(violation)) {
+					int length = 0;
+					for (int b=v; pred[b] != -1; b=pred[b]) length += 1;
+					int[] p = new int[length];
+					int t = 0;
+					for (int b=v; pred[b] != -1; b=pred[b]) p[t++] = predEdge[b];
+					cuts.offer(violation, g.edgeId(s), p);
+				}
+			}
+
+			// reset only the vertices of this search
+			for (int t=0; t<touchedCount; t++) {
+				int b = touched[t];
+				dist[b] = Double.POSITIVE_INFINITY;
+				heapPos[b] = -1;
+			}
+		}
+		cuts.sortDescending();
+		return cuts;
+	}
+
+	private static void siftUp(int[] heap, int[] heapPos, double[] dist, int pos) {
+		int a = heap[pos];
+		while (pos > 0) {
+			int parent = (pos - 1) / 2;
+			if (dist[heap[parent]] <= dist[a]) break;
+			heap[pos] = heap[parent];
+			heapPos[heap[pos]] = pos;
+			pos = parent;
+		}
+		heap[pos] = a;
+		heapPos[a] = pos;
+	}
+
+	private static void siftDown(int[] heap, int[] heapPos, double[] dist, int pos, int heapSize) {
+		int a = heap[pos];
+		while (true) {
+			int child = 2*pos + 1;
+			if (child >= heapSize) break;
+			if (child + 1 < heapSize && dist[heap[child+1]] < dist[heap[child]]) child += 1;
+			if (dist[a] <= dist[heap[child]]) break;
+			heap[pos] = heap[child];
+			heapPos[heap[pos]] = pos;
+			pos = child;
+		}
+		heap[pos] = a;
+		heapPos[a] = pos;
+	}
+
+	/**
+	 * @return true if a cut with the violation v would be kept
+	 **/
+	private boolean accepts(double v) {
+		return size < violation.length || (violation.length > 0 && v > violation[0]);
+	}
+
+	/**
+	 * Keep the cut if the heap is not full or it is more violated than the least violated kept cut
+	 **/
+	private void offer(double v, int e, int[] p) {
+		int capacity = violation.length;
+		if (capacity == 0) return;
+
+		if (size < capacity) {
+			set(size, v, e, p);
+			siftUp(size);
+			size += 1;
+		}
+		else if (v > violation[0]) {
+			set(0, v, e, p);
+			siftDown(0, size);
+		}
+	}
+
+	/**
+	 * Heap-sort the kept cuts so that the most violated cut comes first
+	 **/
+	private void sortDescending() {
+		for (int last=size-1; last>0; last--) {
+			swap(0, last);
+			siftDown(0, last);
+		}
+	}
+
+	private void siftUp(int pos) {
+		while (pos > 0) {
+			int parent = (pos - 1) / 2;
+			if (violation[parent] <= violation[pos]) break;
+			swap(parent, pos);
+			pos = parent;
+		}
+	}
+
+	private void siftDown(int pos, int heapSize) {
+		while (true) {
+			int left = 2*pos + 1;
+			if (left >= heapSize) break;
+			int smallest = left;
+			int right = left + 1;
+			if (right < heapSize && violation[right] < violation[left]) smallest = right;
+			if (violation[pos] <= violation[smallest]) break;
+			swap(pos, smallest);
+			pos = smallest;
+		}
+	}
+
+	private void set(int pos, double v, int e, int[] p) {
+		violation[pos] = v;
+		edge[pos] = e;
+		path[pos] = p;
+	}
+
+	private void swap(int a, int b) {
+		double v = violation[a]; violation[a] = violation[b]; violation[b] = v;
+		int t = edge[a]; edge[a] = edge[b]; edge[b] = t;
+		int[] p = path[a]; path[a] = path[b]; path[b] = p;
+	}
+
+
+	/**
+	 * Set of the cycle inequalities added to a model. The key of a cut is its chord followed by its 
+	 * sorted path edges; the keys are stored one after the other in one int pool and found by open 
+	 * addressing with an exact comparison, so adding a cut allocates nothing (amortized).
+	 **/
+	static class CutSet {
+		private int[] pool = new int[1024];		// key c: its length at pool[start[c]], then the key
+		private int poolSize = 0;
+		private int[] start = new int[64];
+		private int count = 0;
+		private int[] table = new int[128];		// cut index + 1 of each slot, 0 if empty
+		private int[] key = new int[16];
+
+		/**
+		 * @param e - the chord (edge id) of the cut
+		 * @param p - the path (edge ids) of the cut
+		 * @return true if the cut was not in the set before
+		 **/
+		boolean add(int e, int[] p) {
+			int len = p.length + 1;
+			if (key.length < len) key = new int[2 * len];
+			key[0] = e;
+			System.arraycopy(p, 0, key, 1, p.length);
+			java.util.Arrays.sort(key, 1, len);
+
+			int mask = table.length - 1;
+			int pos = hash(key, 0, len) & mask;
+			while (table[pos] != 0) {
+				if (matches(table[pos] - 1, len)) return false;
+				pos = (pos + 1) & mask;
+			}
+
+			if (poolSize + len + 1 > pool.length) {
+				pool = java.util.Arrays.copyOf(pool, Math.max(2 * pool.length, poolSize + len + 1));
+			}
+			if (count == start.length) {
+				start = java.util.Arrays.copyOf(start, 2 * count);
+			}
+			start[count] = poolSize;
+			pool[poolSize++] = len;
+			System.arraycopy(key, 0, pool, poolSize, len);
+			poolSize += len;
+			table[pos] = count + 1;
+			count += 1;
+			if (2 * count > table.length) rehash();
+			return true;
+		}
+
+		private boolean matches(int c, int len) {
+			int s = start[c];
+			if (pool[s] != len) return false;
+			for (int t=0; t<len; t++) {
+				if (pool[s + 1 + t] != key[t]) return false;
+			}
+			return true;
+		}
+
+		private void rehash() {
+			table = new int[2 * table.length];
+			int mask = table.length - 1;
+			for (int c=0; c<count; c++) {
+				int pos = hash(pool, start[c] + 1, pool[start[c]]) & mask;
+				while (table[pos] != 0) pos = (pos + 1) & mask;
+				table[pos] = c + 1;
+			}
+		}
+
+		private static int hash(int[] a, int from, int len) {
+			int h = len;
+			for (int t=from; t<from+len; t++) {
+				h = 31 * h + a[t];
+			}
+			return h ^ (h >>> 16);
+		}
+	}
+}
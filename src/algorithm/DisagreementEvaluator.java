@@ -0,0 +1,228 @@
+package algorithm;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Disagreement of a clustering, with its breakdown by cluster and by vertex
+ *
+ * A negative edge inside a cluster and a positive edge between two clusters disagree with the
+ * clustering, by |w|. Only the m signed edges are visited, from both ends: every vertex sums its
+ * negative weight inside its cluster and its positive weight to other clusters, in double
+ * precision. The vertices are split into chunks of a fixed size, evaluated in parallel on a
+ * fork-join pool, and the partial sums are added in chunk order, so the result does not depend on
+ * the parallelism. The cluster breakdown is summed from the vertices in O(n).
+ * 		internalNegative(c)	- weight of the negative edges inside cluster c
+ * 		cutPositive(c)		- weight of the positive edges with exactly one end in c
+ * 		disagreement		- sum of internalNegative(c) + cutPositive(c) / 2 over the clusters
+ *
+ **/
+
+public class DisagreementEvaluator {
+
+	// vertices per chunk
+	private static final int GRAIN = 4096;
+
+	private ClusterAssignment assignment;
+	private double disagreement;
+	private double[] vertexNegative;	// negative weight from each vertex inside its cluster
+	private double[] vertexPositive;	// positive weight from each vertex to other clusters
+	private double[] internalNegative;
+	private double[] cutPositive;
+
+	private DisagreementEvaluator() {
+	}
+
+	/**
+	 * @param a - clusters of the vertex ids of g
+	 * @throws IllegalArgumentException if a does not cover the vertices of g
+	 **/
+	public static DisagreementEvaluator evaluate(SignedCsrGraph g, ClusterAssignment a, int parallelism) {
+		int n = g.vertexCount();
+		if (a.size() != n) {
+			throw new IllegalArgumentException("the assignment has " + a.size() + " vertices, the graph " + n);
+		}
+		int[] labels = new int[n];
+		for (int i=0; i<n; i++) {
+			int u = g.indexOf(a.vertexId(i));
+			if (u < 0) {
+				throw new IllegalArgumentException("vertex " + a.vertexId(i) + " is not in the graph");
+			}
+			labels[u] = a.label(i);
+		}
+		return evaluate(g, labels, parallelism);
+	}
+
+	/**
+	 * @param labels - the cluster of each vertex index of g (any integers; equal labels are the same
+	 * 				   cluster)
+	 * @param parallelism - number of worker threads; 1 to run in the calling thread
+	 **/
+	public static DisagreementEvaluator evaluate(final SignedCsrGraph g, int[] labels, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		final int n = g.vertexCount();
+		if (labels.length != n) {
+			throw new IllegalArgumentException("labels has " + labels.length + " entries, the graph " + n + " vertices");
+		}
+		int[] vertexIds = new int[n];
+		for (int u=0; u<n; u++) {
+			vertexIds[u] = g.vertexId(u);
+		}
+
+		final DisagreementEvaluator e = new DisagreementEvaluator();
+		e.assignment = new ClusterAssignment(vertexIds, labels);
+		e.vertexNegative = new double[n];
+		e.vertexPositive = new double[n];
+		final int[] label = e.assignment.labels();
+
+		int chunks = (n + GRAIN - 1) / GRAIN;
+		final double[] partial = new double[chunks];
+		ChunkTask[] tasks = new ChunkTask[chunks];
+		for (int c=0; c<chunks; c++) {
+			tasks[c] = new ChunkTask(g, label, e, partial, c, c * GRAIN, Math.min(n, (c+1) * GRAIN));
+		}
+		if (parallelism == 1 || chunks < 2) {
+			for (ChunkTask task : tasks) {
+				task.compute();
+			}
+		}
+		else {
+			ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, chunks));
+			try {
+				for (ChunkTask task : tasks) {
+					pool.execute(task);
+				}
+				for (ChunkTask task : tasks) {
+					task.join();
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+		}
+
+		// every disagreeing edge was counted from both ends
+		double total = 0;
+		for (int c=0; c<chunks; c++) {
+			total += partial[c];
+		}
+		e.disagreement = total / 2;
+
+		int k = e.assignment.clusterCount();
+		e.internalNegative = new double[k];
+		e.cutPositive = new double[k];
+		for (int u=0; u<n; u++) {
+			e.internalNegative[label[u]] += e.vertexNegative[u] / 2;
+			e.cutPositive[label[u]] += e.vertexPositive[u];
+		}
+		return e;
+	}
+
+	/**
+	 * Disagreement of the vertices from..to-1; the sum goes to partial[chunk]
+	 **/
+	private static class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private SignedCsrGraph g;
+		private int[] label;
+		private DisagreementEvaluator e;
+		private double[] partial;
+		private int chunk;
+		private int from;
+		private int to;
+
+		ChunkTask(SignedCsrGraph g, int[] label, DisagreementEvaluator e, double[] partial, int chunk, int from, int to) {
+			this.g = g;
+			this.label = label;
+			this.e = e;
+			this.partial = partial;
+			this.chunk = chunk;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			double sum = 0;
+			for (int u=from; u<to; u++) {
+				double negative = 0;
+				double positive = 0;
+				for (int s=g.start(u); s<g.end(u); s++) {
+					double w = g.weight(s);
+					boolean same = label[g.neighbour(s)] == label[u];
+					if (w < 0 && same) negative -= w;
+					else if (w > 0 && !same) positive += w;
+				}
+				e.vertexNegative[u] = negative;
+				e.vertexPositive[u] = positive;
+				sum += negative + positive;
+			}
+			partial[chunk] = sum;
+		}
+	}
+
+	/**
+	 * @return the total disagreement
+	 **/
+	public double disagreement() {
+		return disagreement;
+	}
+
+	/**
+	 * @return the clusters; cluster c of the breakdown is cluster c of the assignment, vertex i is
+	 * 		   the vertex index i of the graph
+	 **/
+	public ClusterAssignment assignment() {
+		return assignment;
+	}
+
+	public int clusterCount() {
+		return assignment.clusterCount();
+	}
+
+	/**
+	 * @return the weight of the negative edges inside cluster c
+	 **/
+	public double internalNegative(int c) {
+		return internalNegative[c];
+	}
+
+	/**
+	 * @return the weight of the positive edges between cluster c and the other clusters
+	 **/
+	public double cutPositive(int c) {
+		return cutPositive[c];
+	}
+
+	/**
+	 * @return the weight of the disagreeing edges with at least one end in cluster c
+	 **/
+	public double clusterDisagreement(int c) {
+		return internalNegative[c] + cutPositive[c];
+	}
+
+	/**
+	 * @return the weight of the disagreeing edges of vertex index u
+	 **/
+	public double vertexDisagreement(int u) {
+		return vertexNegative[u] + vertexPositive[u];
+	}
+
+	/**
+	 * @return the negative weight from vertex index u inside its cluster
+	 **/
+	public double vertexNegative(int u) {
+		return vertexNegative[u];
+	}
+
+	/**
+	 * @return the positive weight from vertex index u to other clusters
+	 **/
+	public double vertexPositive(int u) {
+		return vertexPositive[u];
+	}
+}
@@ -0,0 +1,628 @@
+package algorithm;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Cluster maintenance for a stream of signed edge updates, without re-solving the LP
+ *
+ * The clustering is seeded from a full solve (e.g. HeuristicCCEditing.solveCCEditing) and kept
+ * up to date by bounded local repairs after every edge insertion, deletion or weight/sign change:
+ * 		move	- a vertex moves to the neighbouring cluster (or a new singleton cluster, i.e. it
+ * 				  is split off its cluster) that reduces the disagreement most; the endpoints of the
+ * 				  updated edge are evaluated first, and the neighbours of a moved vertex are queued,
+ * 				  up to repairBudget vertex evaluations per update
+ * 		merge	- after a positive update between two clusters, the clusters are merged if the
+ * 				  signed weight between them is positive; evaluated only if the smaller cluster has
+ * 				  at most mergeBudget adjacency entries
+ * Every repair is evaluated by its exact disagreement delta, so the disagreement of the clustering
+ * is maintained as well. A vertex evaluation costs O(deg), hence an update costs O(repairBudget *
+ * deg) in the worst case, independent of the size of the graph.
+ *
+ * Local repairs cannot recover from large changes. drift() is the updated edge weight since the seed
+ * (sum of |w_new - w_old|) relative to the total weight of the seed graph; needsResolve() flags when
+ * it exceeds the drift limit. Then solve graph() again and reseed.
+ *
+ * Updates are serialized (one writer at a time). Label lookups (labelOf, label) are lock-free reads
+ * of an AtomicIntegerArray, so any number of reader threads can look up labels while updates
+ * arrive; a reader may see a merge half done, but every single label is a valid cluster id. The
+ * cluster ids are 0..n-1 and are reused after a cluster becomes empty. The vertex set is fixed by
+ * the seed graph (isolated vertices may get edges later).
+ *
+ **/
+
+public class DynamicClustering {
+
+	// a move or merge is made only if it reduces the disagreement by more than EPSILON
+	private static final double EPSILON = 1e-9;
+
+	private int n;
+	private int[] vertexIds;
+	private NeighbourMap[] adjacency;
+
+	// clusters: label of each vertex, members in doubly linked lists, free cluster ids
+	private int[] label;
+	private AtomicIntegerArray published;
+	private int[] head;
+	private int[] next;
+	private int[] prev;
+	private int[] size;
+	private long[] volume;		// number of adjacency entries of the members of each cluster
+	private int[] freeIds;
+	private int freeCount = 0;
+	private volatile int clusterCount = 0;
+
+	// repair budgets and drift
+	private int repairBudget = 16;
+	private long mergeBudget = 4096;
+	private double driftLimit = 0.1;
+	private double seedWeight = 0;
+	private double changedWeight = 0;
+	private double disagreement = 0;
+	private long updates = 0;
+	private long moves = 0;
+	private long merges = 0;
+
+	// scratch space of the repairs
+	private double[] acc;
+	private int[] stamp;
+	private int currentStamp = 0;
+	private int[] touched;
+	private int[] queue;
+	private int[] queuedStamp;
+
+	/**
+	 * @param g - the graph that was solved
+	 * @param seed - the clusters of g (e.g. of HeuristicCCEditing.solveCCEditing(g, ...)); vertices
+	 * 				 of g without a label start as singleton clusters
+	 **/
+	public DynamicClustering(SignedCsrGraph g, ClusteringResult seed) {
+		this(g);
+		seed(seedLabels(seed.assignment()));
+	}
+
+	/**
+	 * @param g - the graph
+	 * @param seed - clusters of (some of) the vertex ids of g, e.g. an assignment() snapshot;
+	 * 				 vertices of g without a label start as singleton clusters
+	 **/
+	public DynamicClustering(SignedCsrGraph g, ClusterAssignment seed) {
+		this(g);
+		seed(seedLabels(seed));
+	}
+
+	private DynamicClustering(SignedCsrGraph g) {
+		n = g.vertexCount();
+		vertexIds = new int[n];
+		adjacency = new NeighbourMap[n];
+		for (int u=0; u<n; u++) {
+			vertexIds[u] = g.vertexId(u);
+			adjacency[u] = new NeighbourMap(g.degree(u));
+			for (int s=g.start(u); s<g.end(u); s++) {
+				adjacency[u].put(g.neighbour(s), g.weight(s));
+				if (g.neighbour(s) > u) seedWeight += Math.abs(g.weight(s));
+			}
+		}
+
+		label = new int[n];
+		published = new AtomicIntegerArray(n);
+		head = new int[n];
+		next = new int[n];
+		prev = new int[n];
+		size = new int[n];
+		volume = new long[n];
+		freeIds = new int[n];
+		acc = new double[n];
+		stamp = new int[n];
+		touched = new int[n];
+		queue = new int[repairBudget];
+		queuedStamp = new int[n];
+	}
+
+	// label of each vertex index in the seed (renumbered 0..k-1 in order of appearance), -1 if none
+	private int[] seedLabels(ClusterAssignment seed) {
+		int[] labels = new int[n];
+		java.util.Arrays.fill(labels, -1);
+		int[] renumber = new int[seed.clusterCount()];
+		java.util.Arrays.fill(renumber, -1);
+		int k = 0;
+		for (int i=0; i<seed.size(); i++) {
+			int u = java.util.Arrays.binarySearch(vertexIds, seed.vertexId(i));
+			if (u < 0) continue;
+			int c = seed.label(i);
+			if (renumber[c] == -1) renumber[c] = k++;
+			labels[u] = renumber[c];
+		}
+		return labels;
+	}
+
+	// set the clusters of the seed labels and recompute the disagreement
+	private void seed(int[] seedLabels) {
+		java.util.Arrays.fill(head, -1);
+		java.util.Arrays.fill(size, 0);
+		java.util.Arrays.fill(volume, 0);
+		clusterCount = 0;
+
+		// the labels of the seed first (0..k-1), then a new cluster for every unlabelled vertex
+		int k = 0;
+		for (int u=0; u<n; u++) {
+			int c = seedLabels[u];
+			label[u] = c;
+			k = Math.max(k, c + 1);
+		}
+		for (int u=0; u<n; u++) {
+			if (label[u] < 0) label[u] = k++;
+		}
+		for (int u=n-1; u>=0; u--) {
+			link(u, label[u]);
+		}
+		freeCount = 0;
+		for (int c=n-1; c>=0; c--) {
+			if (size[c] == 0) freeIds[freeCount++] = c;
+		}
+
+		disagreement = 0;
+		for (int u=0; u<n; u++) {
+			NeighbourMap a = adjacency[u];
+			for (int s=0; s<a.capacity(); s++) {
+				int v = a.key(s);
+				if (v > u) disagreement += cost(a.value(s), label[u] == label[v]);
+			}
+		}
+	}
+
+	/**
+	 * Replace the clusters by a new full solve of graph() and reset the drift
+	 * @param seed - the clusters of graph()
+	 **/
+	public synchronized void reseed(ClusteringResult seed) {
+		seed(seedLabels(seed.assignment()));
+		seedWeight = 0;
+		for (int u=0; u<n; u++) {
+			NeighbourMap a = adjacency[u];
+			for (int s=0; s<a.capacity(); s++) {
+				if (a.key(s) > u) seedWeight += Math.abs(a.value(s));
+			}
+		}
+		changedWeight = 0;
+	}
+
+	/**
+	 * @param repairBudget - vertex evaluations per update (default 16)
+	 **/
+	public synchronized DynamicClustering setRepairBudget(int repairBudget) {
+		if (repairBudget < 2) {
+			throw new IllegalArgumentException("repairBudget must be at least 2: " + repairBudget);
+		}
+		this.repairBudget = repairBudget;
+		this.queue = new int[repairBudget];
+		return this;
+	}
+
+	/**
+	 * @param mergeBudget - the largest adjacency volume of the smaller cluster of a merge evaluation
+	 * 						(default 4096)
+	 **/
+	public synchronized DynamicClustering setMergeBudget(long mergeBudget) {
+		this.mergeBudget = mergeBudget;
+		return this;
+	}
+
+	/**
+	 * @param driftLimit - needsResolve() is true above this drift (default 0.1)
+	 **/
+	public synchronized DynamicClustering setDriftLimit(double driftLimit) {
+		this.driftLimit = driftLimit;
+		return this;
+	}
+
+
+	/**
+	 * Insert the edge (u,v) or change its weight, w = 0 deletes the edge; then repair locally
+	 * @param u - vertex id
+	 * @param v - vertex id
+	 * @throws IllegalArgumentException if u or v is not a vertex, or u = v
+	 **/
+	public synchronized void setEdge(int u, int v, double w) {
+		if (Double.isNaN(w) || Double.isInfinite(w)) {
+			throw new IllegalArgumentException("edge weight must be finite: " + w);
+		}
+		int i = indexOf(u);
+		int j = indexOf(v);
+		if (i == j) {
+			throw new IllegalArgumentException("loop (" + u + ", " + v + ")");
+		}
+		double old = adjacency[i].get(j);
+		if (old == w) return;
+
+		boolean same = label[i] == label[j];
+		disagreement += cost(w, same) - cost(old, same);
+		if (w == 0) {
+			adjacency[i].remove(j);
+			adjacency[j].remove(i);
+			volume[label[i]] -= 1;
+			volume[label[j]] -= 1;
+		}
+		else {
+			if (old == 0) {
+				volume[label[i]] += 1;
+				volume[label[j]] += 1;
+			}
+			adjacency[i].put(j, w);
+			adjacency[j].put(i, w);
+		}
+		changedWeight += Math.abs(w - old);
+		updates += 1;
+
+		repair(i, j);
+		if (w > 0 && label[i] != label[j]) {
+			tryMerge(label[i], label[j]);
+		}
+	}
+
+	public void removeEdge(int u, int v) {
+		setEdge(u, v, 0);
+	}
+
+	/**
+	 * Flip the sign of the edge (u,v); nothing changes if (u,v) is not an edge
+	 **/
+	public synchronized void flipSign(int u, int v) {
+		setEdge(u, v, -weight(u, v));
+	}
+
+	/**
+	 * @return the current signed weight of (u,v), 0 if it is not an edge
+	 **/
+	public synchronized double weight(int u, int v) {
+		return adjacency[indexOf(u)].get(indexOf(v));
+	}
+
+	private int indexOf(int vertexId) {
+		int u = java.util.Arrays.binarySearch(vertexIds, vertexId);
+		if (u < 0) {
+			throw new IllegalArgumentException("vertex " + vertexId + " is not in the graph");
+		}
+		return u;
+	}
+
+	// disagreement of an edge of weight w whose ends are (not) in the same cluster
+	private static double cost(double w, boolean same) {
+		if (w > 0) return same ? 0 : w;
+		return same ? -w : 0;
+	}
+
+
+	/**
+	 * Evaluate i and j, then the neighbours of moved vertices, up to repairBudget evaluations
+	 **/
+	private void repair(int i, int j) {
+		int queueStamp = nextStamp();
+		int tail = 0;
+		queue[tail++] = i;
+		queue[tail++] = j;
+		queuedStamp[i] = queueStamp;
+		queuedStamp[j] = queueStamp;
+
+		for (int q=0; q<tail; q++) {
+			int x = queue[q];
+			if (!improveVertex(x)) continue;
+
+			NeighbourMap a = adjacency[x];
+			for (int s=0; s<a.capacity() && tail<queue.length; s++) {
+				int y = a.key(s);
+				if (y >= 0 && queuedStamp[y] != queueStamp) {
+					queuedStamp[y] = queueStamp;
+					queue[tail++] = y;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Move x to the neighbouring cluster or a new singleton cluster with the largest decrease of
+	 * the disagreement, if any
+	 * @return true if x was moved
+	 **/
+	private boolean improveVertex(int x) {
+		int a = label[x];
+		int st = nextStamp();
+		int touchedCount = 0;
+		double own = 0;		// signed weight from x to the rest of its cluster
+
+		NeighbourMap adj = adjacency[x];
+		for (int s=0; s<adj.capacity(); s++) {
+			int y = adj.key(s);
+			if (y < 0) continue;
+			int c = label[y];
+			double w = adj.value(s);
+			if (c == a) {
+				own += w;
+				continue;
+			}
+			if (stamp[c] != st) {
+				stamp[c] = st;
+				acc[c] = 0;
+				touched[touchedCount++] = c;
+			}
+			acc[c] += w;
+		}
+
+		// moving x from a to b changes the disagreement by own - acc[b]; to a new cluster by own
+		int best = -1;
+		double bestDelta = (size[a] > 1) ? own : 0;
+		for (int t=0; t<touchedCount; t++) {
+			int c = touched[t];
+			double delta = own - acc[c];
+			if (delta < bestDelta) {
+				bestDelta = delta;
+				best = c;
+			}
+		}
+		if (bestDelta >= -EPSILON) return false;
+
+		if (best == -1) {
+			best = freeIds[--freeCount];
+		}
+		unlink(x);
+		link(x, best);
+		disagreement += bestDelta;
+		moves += 1;
+		return true;
+	}
+
+	/**
+	 * Merge clusters a and b if the signed weight between them is positive
+	 **/
+	private void tryMerge(int a, int b) {
+		int small = (volume[a] <= volume[b]) ? a : b;
+		int large = (small == a) ? b : a;
+		if (volume[small] > mergeBudget) return;
+
+		double between = 0;
+		for (int x=head[small]; x!=-1; x=next[x]) {
+			NeighbourMap adj = adjacency[x];
+			for (int s=0; s<adj.capacity(); s++) {
+				int y = adj.key(s);
+				if (y >= 0 && label[y] == large) between += adj.value(s);
+			}
+		}
+		if (between <= EPSILON) return;
+
+		while (head[small] != -1) {
+			int x = head[small];
+			unlink(x);
+			link(x, large);
+		}
+		disagreement -= between;
+		merges += 1;
+	}
+
+	// add x to the front of cluster c
+	private void link(int x, int c) {
+		if (size[c] == 0) clusterCount += 1;
+		label[x] = c;
+		prev[x] = -1;
+		next[x] = head[c];
+		if (head[c] != -1) prev[head[c]] = x;
+		head[c] = x;
+		size[c] += 1;
+		volume[c] += adjacency[x].size();
+		published.set(x, c);
+	}
+
+	// remove x from its cluster; an empty cluster id is freed
+	private void unlink(int x) {
+		int c = label[x];
+		if (prev[x] != -1) next[prev[x]] = next[x];
+		else head[c] = next[x];
+		if (next[x] != -1) prev[next[x]] = prev[x];
+		size[c] -= 1;
+		volume[c] -= adjacency[x].size();
+		if (size[c] == 0) {
+			clusterCount -= 1;
+			freeIds[freeCount++] = c;
+		}
+	}
+
+	private int nextStamp() {
+		currentStamp += 1;
+		if (currentStamp == 0) {
+			java.util.Arrays.fill(stamp, 0);
+			java.util.Arrays.fill(queuedStamp, 0);
+			currentStamp = 1;
+		}
+		return currentStamp;
+	}
+
+
+	/**
+	 * Lock-free label lookup
+	 * @return the cluster id (0..n-1) of the vertex id, or -1 if the graph has no such vertex
+	 **/
+	public int labelOf(int vertexId) {
+		int u = java.util.Arrays.binarySearch(vertexIds, vertexId);
+		return (u >= 0) ? published.get(u) : -1;
+	}
+
+	/**
+	 * Lock-free label lookup of vertex index u (vertex ids in ascending order, as in graph())
+	 **/
+	public int label(int u) {
+		return published.get(u);
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public int clusterCount() {
+		return clusterCount;
+	}
+
+	/**
+	 * @return a snapshot of the clusters (labels compacted to 0..k-1)
+	 **/
+	public synchronized ClusterAssignment assignment() {
+		return new ClusterAssignment(vertexIds.clone(), label.clone());
+	}
+
+	/**
+	 * @return the disagreement of the current clusters on the current graph
+	 **/
+	public synchronized double disagreement() {
+		return disagreement;
+	}
+
+	/**
+	 * @return the updated edge weight since the (re)seed, relative to the weight of the seed graph
+	 **/
+	public synchronized double drift() {
+		return changedWeight / Math.max(seedWeight, EPSILON);
+	}
+
+	/**
+	 * @return true if the drift exceeds the drift limit, i.e. a full solve of graph() is due
+	 **/
+	public synchronized boolean needsResolve() {
+		return drift() > driftLimit;
+	}
+
+	public synchronized long updateCount() {
+		return updates;
+	}
+
+	public synchronized long moveCount() {
+		return moves;
+	}
+
+	public synchronized long mergeCount() {
+		return merges;
+	}
+
+	/**
+	 * @return the current graph in CSR format, e.g. for a full re-solve
+	 **/
+	public synchronized SignedCsrGraph graph() {
+		int[] offsets = new int[n+1];
+		for (int u=0; u<n; u++) {
+			offsets[u+1] = offsets[u] + adjacency[u].size();
+		}
+		int[] neighbours = new int[offsets[n]];
+		double[] weights = new double[offsets[n]];
+		for (int u=0; u<n; u++) {
+			NeighbourMap a = adjacency[u];
+			int t = offsets[u];
+			for (int s=0; s<a.capacity(); s++) {
+				if (a.key(s) >= 0) neighbours[t++] = a.key(s);
+			}
+			java.util.Arrays.sort(neighbours, offsets[u], offsets[u+1]);
+			for (t=offsets[u]; t<offsets[u+1]; t++) {
+				weights[t] = a.get(neighbours[t]);
+			}
+		}
+		return new SignedCsrGraph(vertexIds.clone(), offsets, neighbours, weights);
+	}
+
+
+	/**
+	 * Weighted adjacency of one vertex: open addressing (linear probing) on primitive arrays, with
+	 * backward-shift deletion; empty slots have the key -1
+	 **/
+	private static final class NeighbourMap {
+		private int[] keys;
+		private double[] values;
+		private int size = 0;
+		private int mask;
+
+		NeighbourMap(int expected) {
+			int cap = 4;
+			while (cap < 2 * expected) cap <<= 1;
+			allocate(cap);
+		}
+
+		private void allocate(int cap) {
+			keys = new int[cap];
+			values = new double[cap];
+			java.util.Arrays.fill(keys, -1);
+			mask = cap - 1;
+		}
+
+		int size() {
+			return size;
+		}
+
+		int capacity() {
+			return keys.length;
+		}
+
+		int key(int slot) {
+			return keys[slot];
+		}
+
+		double value(int slot) {
+			return values[slot];
+		}
+
+		private static int hash(int key) {
+			int h = key * 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+
+		double get(int key) {
+			for (int p=hash(key) & mask; keys[p] != -1; p=(p+1) & mask) {
+				if (keys[p] == key) return values[p];
+			}
+			return 0;
+		}
+
+		void put(int key, double value) {
+			int p = hash(key) & mask;
+			for (; keys[p] != -1; p=(p+1) & mask) {
+				if (keys[p] == key) {
+					values[p] = value;
+					return;
+				}
+			}
+			keys[p] = key;
+			values[p] = value;
+			size += 1;
+			if (2 * size > keys.length) rehash(2 * keys.length);
+		}
+
+		void remove(int key) {
+			int p = hash(key) & mask;
+			while (keys[p] != key) {
+				if (keys[p] == -1) return;
+				p = (p+1) & mask;
+			}
+			// shift back the following entries of the probe sequence
+			int q = p;
+			while (true) {
+				q = (q+1) & mask;
+				if (keys[q] == -1) break;
+				int home = hash(keys[q]) & mask;
+				// keys[q] may fill the gap at p unless its home lies cyclically in (p, q]
+				if ((q > p) ? (home <= p || home > q) : (home <= p && home > q)) {
+					keys[p] = keys[q];
+					values[p] = values[q];
+					p = q;
+				}
+			}
+			keys[p] = -1;
+			size -= 1;
+			if (keys.length > 16 && 8 * size < keys.length) rehash(keys.length / 2);
+		}
+
+		private void rehash(int cap) {
+			int[] oldKeys = keys;
+			double[] oldValues = values;
+			allocate(cap);
+			size = 0;
+			for (int s=0; s<oldKeys.length; s++) {
+				if (oldKeys[s] != -1) put(oldKeys[s], oldValues[s]);
+			}
+		}
+	}
+}
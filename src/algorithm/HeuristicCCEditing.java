@@ -1,18 +1,12 @@
 package algorithm;
 
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 
 import graphImporter.ReadGraph_w_edgeList;
 import randomSignedGraphGenerator.NestedSignedRandomGraphV1;
 import randomSignedGraphGenerator.RandomSignedGraph;
+import signedGraph.SignedCsrGraph;
 
 /**
  * 
@@ -25,9 +19,11 @@ import randomSignedGraphGenerator.RandomSignedGraph;
 
 public class HeuristicCCEditing {
 	
-	public static List<ArrayList<Integer>> clusters = new ArrayList<ArrayList<Integer>>();
-	public static double imbP;
-	public static String clustersOutput = "data/clustersOutput.csv";
+	// Default csv file for the clusters written by main
+	public static final String CLUSTERS_OUTPUT = "data/clustersOutput.csv";
+	
+	// Pass as threshold to solveCCEditing to choose the threshold with the smallest disagreement
+	public static final double AUTO_THRESHOLD = -1;
 
 	/**
 	 * Main method
@@ -36,7 +32,7 @@ public class HeuristicCCEditing {
 	 **/
 	public static void main(String[] args) {
 
-		// Given threshold
+		// Given threshold (AUTO_THRESHOLD: tuned by sweepThresholds)
 		double threshold = 0.49;
 
 		// Read graph data
@@ -47,7 +43,15 @@ public class HeuristicCCEditing {
 		//ImportTradeData.readAverageTradeGrowth("data/AverageGrowth.v.1.2.clean.csv");
 
 		// Solve heuristic CCEditing algorithm
-		solveCCEditing(g, threshold);
+		ClusteringResult result = solveCCEditing(g, threshold);
+
+		// Active this step only you want to print and write the final clusters
+		//result.assignment().print(System.out);
+		//try {
+		//	result.assignment().write(CLUSTERS_OUTPUT);
+		//} catch (java.io.IOException e) {
+		//	e.printStackTrace();
+		//}
 	}
 
 	/**
@@ -55,16 +59,41 @@ public class HeuristicCCEditing {
 	 * 
 	 * @param g - undirected, signed weighted graph
 	 * @param k - the number of spanning tree calculated from the relaxed solution process
-	 * @param threshold - the rounding threshold 
-	 * @return finalUltrametric - a clustered graph
+	 * @param threshold - the rounding threshold, or AUTO_THRESHOLD for the threshold in {0, 0.01, ..., 1} 
+	 * 					  with the smallest disagreement
+	 * @return the clusters, the ultrametric tree and the (tuned) threshold
 	 * 
 	 * Using library: jGrapht; available at:  www.jGrapht.org
 	 * 
 	 **/
-	public static void solveCCEditing(
+	public static ClusteringResult solveCCEditing(
 			SimpleWeightedGraph<Integer, DefaultWeightedEdge> g, 
 			double threshold
 			) {
+		int ilpFlag = 2; // flag for solving Relaxed-ILP problem with lazy triangle constraints
+		return solveCCEditing(SignedCsrGraph.fromJGraphT(g), threshold, ilpFlag, CCEditing.newLpBackend());
+	}
+
+	/**
+	 * Solving Correlation Clustering Edition Problems on the given LP backend
+	 * 
+	 * Every call owns all of its state (the LP backend, the ultrametric and the result), so concurrent 
+	 * calls from many threads are safe as long as each call gets its own LP backend.
+	 * 
+	 * @param g - undirected, signed weighted graph in CSR format
+	 * @param threshold - the rounding threshold, or AUTO_THRESHOLD
+	 * @param ilpFlag - 0-> relaxed ILP, 2-> relaxed ILP with lazy triangle constraints, 3-> sparse relaxed 
+	 * 				  ILP over the edges (see CCEditing.ILpRelaxed)
+	 * @param lp - an empty LP backend; it is ended before returning
+	 * @return the clusters, the ultrametric tree and the (tuned) threshold
+	 * 
+	 **/
+	public static ClusteringResult solveCCEditing(
+			SignedCsrGraph g, 
+			double threshold,
+			int ilpFlag,
+			LpBackend lp
+			) {
 
 		//	public static void solveClusteringEditing(UndirectedGraph<Integer, org.jgraph.graph.DefaultEdge> g,
 		//				int groupNum, int nodesNum, double threshold, double p, double r) {
@@ -83,187 +112,257 @@ public class HeuristicCCEditing {
 		 * STEP 1: (a) Solve the ILP Relaxed formulation of the CORRELATON CLUSTERING EDITING problem
 		 * 		   (b) Save the solution as a distance matrix, i.e. as a induced weighted graph G(V,E, w) 
 		 * 			   'inducedWeightedGraph'.
-		 * Here we use 'IBM Cplex V.12.1'  solver package to solve the linear programming problem
+		 * Here we use the given LP backend, by default the one selected by CCEditing.newLpBackend(): 
+		 * 'IBM Cplex V.12.1' solver package when it is installed, otherwise the pure Java PDHG solver
+		 * With ilpFlag = 2 the triangle constraints are added lazily, see CCEditing.ILpRelaxedLazy
+		 * With ilpFlag = 3 only the edges have variables, see CCEditing.ILpRelaxedSparse
 		 **/	
-		int ilpFlag = 0; // flag for solving Relaxed-ILP problem
-
 		// Solving ILP-Relaxed and getting the induced weighted graph induced by the relaxed solution matrix (X_R)
-		SimpleWeightedGraph<Integer, DefaultWeightedEdge> inducedWeightedGraph = CCEditing.ILpRelaxed(g, ilpFlag);
+		SimpleWeightedGraph<Integer, DefaultWeightedEdge> inducedWeightedGraph = CCEditing.ILpRelaxed(g, ilpFlag, lp);
 
 		/**
 		 * STEP 2: Find the Utrametrix distance matrix for inducedWeightedGraph
+		 * The ultrametric is kept as a single-linkage dendrogram (O(n) memory); use
+		 * Ultrametric.getUltrametricDistanceMatrixGraph for the complete ultrametric graph
 		 **/
-		// Finding ultrametric graph 
-		SimpleWeightedGraph<Integer, DefaultWeightedEdge> ultraGraph = 
-				Ultrametric.getUltrametricDistanceMatrixGraph(inducedWeightedGraph);
-
-
-		/**
-		 * Active this step only you want to print and write the final clusters
-		 * The clusters output at "data/
-		 * STEP 3: 	(a) Rounding ultrametric based on the given threshold
-		 * 			(b) Return cluster graph 'finalUltametric' and clusters list
-		 **/
-		//getAndPrintClusters(ultraGraph, threshold);
+		// Finding ultrametric tree 
+		UltrametricTree ultra = Ultrametric.getUltrametricTree(inducedWeightedGraph);
 
 		/**
 		 * Print the clustering disarrement 
 		 **/
-		//System.out.println("Disagreements : "+ getClusteringDisaggrements(ultraGraph, g, threshold));
+		//System.out.println("Disagreements : "+ getClusteringDisaggrements(
+		//		Ultrametric.getUltrametricDistanceMatrixGraph(inducedWeightedGraph), g.toJGraphT(), threshold));
 
 
 		/**
-		 * Active this part only when running AlgorithmBenchMarking.java
-		 * 
-		 * STEP 3: (a) Rounding ultrametric based on the given threshold 
-		 * 		   (b) Return clustered graph 'finalUltrametric' and clusters list
+		 * STEP 3: (a) Rounding ultrametric based on the given (or tuned) threshold 
+		 * 		   (b) Return the clusters (cutting the ultrametric tree, O(n))
 		 **/	
-		getClusteredGraph(ultraGraph, threshold);
+		ClusteringResult result = round(ultra, g, threshold);
 
 
 
 		/**
-		 * Benchmarking: Cluster coloring
-		 * 
+		 * Benchmarking: for a planted partition (e.g. NestedSignedRandomGraphV1/V2 with n vertices per 
+		 * group) the recovered clusters are scored with 
+		 * 		ClusteringScore.plantedPartition(result.assignment(), n)
+		 * (imbalance, purity, ARI and NMI); see BenchmarkRunner.addPlantedPartition
 		 **/
-		/*
-		int m = 2;
-		int n = 50;
-		 //Coloring the planted groups nodes
-		HashMap<Integer, Integer> color = new HashMap<Integer, Integer>();
-		for (int cl=1; cl<=m+1; cl++){
-			for (int v=(cl-1)*n + 1; v<=(m*n); v++){
-				color.put(v, cl);
-			}
-		}
-		System.out.println("color: " + color);
-
-		// List all non empty cluster and then sorting according their size 
-		int cSize = clusters.size();
-		HashMap<Integer, ArrayList<Integer>> clusterList = new HashMap<Integer, ArrayList<Integer>>();
-		ArrayList<Integer> clusterSizeList = new ArrayList<Integer>();
-
-		int c_flag = 1; // # of nonempty clusters
-		for (int l=1; l<=cSize-1; l++) {
-			int c = clusters.get(l).size(); // cluster size
-
-			// if nonempty cluster
-			if (c > 0) {
-				clusterList.put(c_flag, clusters.get(l));
-				c_flag += 1;
-				clusterSizeList.add(c);
-			}
-		}
+		return result;
+	}
+
 
-		// Shoring
-		Collections.sort(clusterSizeList);
-		Collections.reverse(clusterSizeList);
-		System.out.println(clusterList);
-		System.out.println(clusterList.size());
-
-		// Assign color of each nodes in individual cluster
-		double p = 0.5; double r = 0.1;
-		HashMap<Integer, Integer> colorLater = new HashMap<Integer, Integer>();
-		int cListSize = clusterList.size();
-		System.out.print(p + " \t\t " + r + " \t\t ");
-		for (int c=1; c<=cListSize ; c++){
-			System.out.print(clusterList.get(c).size() + " \t\t ");
-			// Select the cluster for checking 
-			ArrayList<Integer> cluster = clusterList.get(c);
-			int s = cluster.size();
-			//System.out.println("c: " + c + "; " + cluster );
-
-			// Get the color of an element of the cluster
-			int v = cluster.get(0);  // select a node fror the selected cluster
-			//System.out.println("gr: " + c + "; v: " + v); 
-			int col = color.get(v);  // get the original color of this node
-
-			// Color all nodes in this selected cluster with 'col'
-			for (int i=0; i<s; i++){
-				int u = cluster.get(i);
-				colorLater.put(u, col);
+	/**
+	 * STEP 3 of solveCCEditing: tune the threshold (AUTO_THRESHOLD) and cut the ultrametric tree
+	 * @param ultra - the ultrametric tree (or forest) whose leaves are the vertices of g
+	 **/
+	static ClusteringResult round(UltrametricTree ultra, SignedCsrGraph g, double threshold) {
+
+		// Tuning the threshold: all thresholds are evaluated in one pass over the merges
+		ThresholdSweep sweep = null;
+		if (threshold == AUTO_THRESHOLD) {
+			double[] thresholds = new double[101];
+			for (int t=0; t<=100; t++) {
+				thresholds[t] = t / 100.0;
 			}
+			sweep = sweepThresholds(ultra, g, thresholds);
+			threshold = sweep.bestThreshold();
 		}
-		System.out.println();
-		System.out.println(colorLater);
-
-		// Calculating imbalance
-				int imb = 0;
-				for (int i=1; i<=(m*n); i++){
-					if (color.containsKey(i) && colorLater.containsKey(i)) {
-						//System.out.println("i: " + i + "; c: " + color.get(i) + "; cL: " + colorLater.get(i));
-					if (color.get(i)!=colorLater.get(i)){
-							imb+=1;
-						}
-					}
-					else if (color.containsKey(i) && !colorLater.containsKey(i)){
-						//System.out.println("i: " + i + "; c: " + color.get(i));
-						imb+=1;
-					}
-				}
-		System.out.println("Imb: " + imb);
-
-		// Imbalance in percentage
-				double p1 = m*n;
-				double imbPer = (imb / p1) * 100;
-				System.out.println(p + " \t\t " + r + " \t\t " + imbPer);
-				//System.out.println(threshold + " \t\t " + imbPer);
-				
-*/
+		return new ClusteringResult(getClusters(ultra, threshold), ultra, threshold, sweep);
 	}
 
 
+	/**
+	 * Method for getting the clustering disagreement of the ultrametric graph cut at the threshold
+	 * The clusters are read from the ultrametric graph (getClusters) and only the m signed edges of g
+	 * are evaluated, in double precision (DisagreementEvaluator); vertices of g that are not in the
+	 * ultrametric graph are singleton clusters
+	 **/
 	public static double getClusteringDisaggrements(
 			SimpleWeightedGraph<Integer, DefaultWeightedEdge> ultraGraph,
 			SimpleWeightedGraph<Integer, DefaultWeightedEdge> g,
 			double threshold
 			) {
 
-		int n = g.vertexSet().size();
-		SimpleWeightedGraph<Integer, DefaultWeightedEdge> clusteredGraph = 
-				getClusteredGraph(ultraGraph, threshold);
+		ClusterAssignment clusters = getClusters(ultraGraph, threshold);
+		SignedCsrGraph csr = SignedCsrGraph.fromJGraphT(g);
 
-		int disAgree = 0;
+		// the vertex ids of the clusters are in ascending order
+		int[] clusterIds = new int[clusters.size()];
+		for (int i=0; i<clusters.size(); i++) {
+			clusterIds[i] = clusters.vertexId(i);
+		}
+		int[] labels = new int[csr.vertexCount()];
+		for (int u=0; u<csr.vertexCount(); u++) {
+			int i = java.util.Arrays.binarySearch(clusterIds, csr.vertexId(u));
+			labels[u] = (i >= 0) ? clusters.label(i) : -1 - u;
+		}
+		return DisagreementEvaluator.evaluate(csr, labels, 1).disagreement();
+	}
 
-		for (int i=1; i<=n; i++){
-			for (int j=i+1; j<=n; j++){
-				double w = 0;
-				if (g.containsEdge(i, j)){
-					w = g.getEdgeWeight(g.getEdge(i, j));
-				}
-				else if (g.containsEdge(j, i)){
-					w = g.getEdgeWeight(g.getEdge(j, i));
-				}
-				else continue;
 
-				double x = 1;
-				if (clusteredGraph.containsEdge(i, j)){
-					x = clusteredGraph.getEdgeWeight(clusteredGraph.getEdge(i, j));
-				}
-				else if (clusteredGraph.containsEdge(j, i)){
-					x = clusteredGraph.getEdgeWeight(clusteredGraph.getEdge(j, i));
+	/**
+	 * Clustering disagreement and number of clusters for many thresholds in one pass
+	 * 
+	 * The ultrametric is hierarchical: raising the threshold over the height of merge k joins its two 
+	 * clusters A and B, which changes the disagreement only by the edges between A and B 
+	 * (positive edges stop disagreeing, negative edges start disagreeing). The merges are processed in 
+	 * ascending height with a union-find whose member lists are scanned from the smaller side, so the 
+	 * whole sweep costs O(m log n + n log n + T log T) instead of O(T * n^2) for T thresholds.
+	 * 
+	 * The disagreement is accumulated in double precision; it equals 
+	 * getClusteringDisaggrements(ultraGraph, g, threshold): the vertices of g that are not in the tree 
+	 * are singletons, so their positive edges always disagree.
+	 * 
+	 * @param ultra - the ultrametric tree
+	 * @param g - the input signed graph
+	 * @param thresholds - the rounding thresholds
+	 * @return disagreement and cluster count for every threshold, and the best threshold
+	 * @throws IllegalArgumentException if thresholds is empty
+	 **/
+	public static ThresholdSweep sweepThresholds(
+			UltrametricTree ultra,
+			SimpleWeightedGraph<Integer, DefaultWeightedEdge> g,
+			double[] thresholds
+			) {
+		return sweepThresholds(ultra, SignedCsrGraph.fromJGraphT(g), thresholds);
+	}
+
+	/**
+	 * Same as sweepThresholds(ultra, g, thresholds) for a graph in CSR format
+	 **/
+	public static ThresholdSweep sweepThresholds(
+			UltrametricTree ultra,
+			SignedCsrGraph g,
+			double[] thresholds
+			) {
+
+		if (thresholds.length == 0) {
+			throw new IllegalArgumentException("no threshold to sweep");
+		}
+		int n = ultra.size();
+		int mergeCount = ultra.mergeCount();
+
+		// leaf of each vertex index of g (-1 if the vertex is not in the tree)
+		int[] leafOf = new int[g.vertexCount()];
+		int[] vertexOfLeaf = new int[n];
+		java.util.Arrays.fill(vertexOfLeaf, -1);
+		for (int u=0; u<g.vertexCount(); u++) {
+			int leaf = ultra.leafOf(g.vertexId(u));
+			leafOf[u] = (leaf >= 0) ? leaf : -1;
+			if (leaf >= 0) vertexOfLeaf[leaf] = u;
+		}
+
+		// Disagreement of the all-singleton clustering: every positive edge disagrees (also the edges 
+		// of the vertices that are not in the tree, which stay singletons)
+		double disagreement = 0;
+		for (int u=0; u<g.vertexCount(); u++) {
+			for (int s=g.start(u); s<g.end(u); s++) {
+				int v = g.neighbour(s);
+				if (v > u && g.weight(s) >= 0) {
+					disagreement += g.weight(s);
 				}
-				else continue;
-				//System.out.println(i + "," +j + ": " + x );
+			}
+		}
+
+		// Merges in ascending height
+		double[] mergeHeight = new double[mergeCount];
+		int[] mergeOrder = new int[mergeCount];
+		int[] unused = new int[mergeCount];
+		for (int k=0; k<mergeCount; k++) {
+			mergeHeight[k] = ultra.mergeHeight(k);
+			mergeOrder[k] = k;
+		}
+		Ultrametric.sortByWeight(mergeHeight, mergeOrder, unused, 0, mergeCount-1);
+
+		// Thresholds in ascending order
+		int T = thresholds.length;
+		double[] sortedThresholds = thresholds.clone();
+		int[] thresholdOrder = new int[T];
+		for (int t=0; t<T; t++) {
+			thresholdOrder[t] = t;
+		}
+		Ultrametric.sortByWeight(sortedThresholds, thresholdOrder, new int[T], 0, T-1);
+
+		// Union-find with member lists: head/tail of each root, next member of each leaf
+		int[] uf = new int[n];
+		int[] size = new int[n];
+		int[] head = new int[n];
+		int[] tail = new int[n];
+		int[] nextMember = new int[n];
+		for (int v=0; v<n; v++) {
+			uf[v] = v;
+			size[v] = 1;
+			head[v] = v;
+			tail[v] = v;
+			nextMember[v] = -1;
+		}
+
+		// a leaf below each node, to find the clusters joined by a merge
+		int[] leafBelow = new int[n + mergeCount];
+		for (int v=0; v<n; v++) {
+			leafBelow[v] = v;
+		}
+		for (int k=0; k<mergeCount; k++) {
+			leafBelow[n+k] = leafBelow[ultra.mergeLeft(k)];
+		}
+
+		double[] disagreements = new double[T];
+		int[] clusterCounts = new int[T];
+		int applied = 0;
 
-				if (w < 0) {
-					disAgree += (Math.abs(w) * (1-x));
+		for (int t=0; t<T; t++) {
+			double threshold = sortedThresholds[t];
+
+			while (applied < mergeCount && mergeHeight[applied] <= threshold) {
+				int k = mergeOrder[applied];
+				int a = find(uf, leafBelow[ultra.mergeLeft(k)]);
+				int b = find(uf, leafBelow[ultra.mergeRight(k)]);
+				if (size[a] > size[b]) {
+					int tmp = a; a = b; b = tmp;
 				}
-				else {
-					disAgree += (Math.abs(w) * x);
+
+				// edges between the smaller cluster a and the cluster b
+				for (int x=head[a]; x!=-1; x=nextMember[x]) {
+					int u = vertexOfLeaf[x];
+					if (u == -1) continue;
+					for (int s=g.start(u); s<g.end(u); s++) {
+						int y = leafOf[g.neighbour(s)];
+						if (y == -1 || find(uf, y) != b) continue;
+						double w = g.weight(s);
+						if (w < 0) disagreement += Math.abs(w);
+						else disagreement -= w;
+					}
 				}
+
+				// union: a joins b
+				uf[a] = b;
+				size[b] += size[a];
+				nextMember[tail[b]] = head[a];
+				tail[b] = tail[a];
+				applied += 1;
 			}
+
+			disagreements[thresholdOrder[t]] = disagreement;
+			clusterCounts[thresholdOrder[t]] = n - applied;
 		}
+		return new ThresholdSweep(thresholds.clone(), disagreements, clusterCounts);
+	}
 
-		return disAgree;
+	private static int find(int[] uf, int v) {
+		while (uf[v] != v) {
+			uf[v] = uf[uf[v]];
+			v = uf[v];
+		}
+		return v;
 	}
 
 
 	/**
 	 * Method for geting cluster graph
 	 **/
-	@SuppressWarnings("unused")
-	private static SimpleWeightedGraph<Integer, DefaultWeightedEdge> getClusteredGraph(
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> getClusteredGraph(
 			SimpleWeightedGraph<Integer, DefaultWeightedEdge> ultraGraph,
 			double threshold
 			) {
@@ -292,108 +391,84 @@ public class HeuristicCCEditing {
 
 
 	/**
-	 * Method for get, print, and write clusters from the ultrametric graph
+	 * Method for geting cluster graph from the ultrametric tree
+	 * The clusters are found by cutting the tree at the threshold in O(n); the returned graph is 
+	 * complete, with edge weight 0 inside a cluster and 1 between clusters
 	 **/
-	private static void getAndPrintClusters(
-			SimpleWeightedGraph<Integer, DefaultWeightedEdge> ultrametricGraph, 
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> getClusteredGraph(
+			UltrametricTree ultra,
 			double threshold
 			) {
-
-		int n = ultrametricGraph.vertexSet().size();
-		
-		// Create clusteredGraph object to return final graph
+		//Create final ultrametric graph object
 		SimpleWeightedGraph<Integer, DefaultWeightedEdge> clusteredGraph = 
 				new SimpleWeightedGraph<Integer, DefaultWeightedEdge> (DefaultWeightedEdge.class);
 
-		// Remove all clusters list from previous calculation
-		clusters.clear();
+		int n = ultra.size();
+		int[] labels = ultra.cut(threshold);
 
-		// Put each vertex to a different cluster
-		// Then add these clusters to the clusters list
-		for (int i=0; i<=n; i++){
-			ArrayList<Integer> c = new ArrayList<Integer>();
-			c.add(i);
-			clusters.add(i, c);
+		for (int i=0; i<n; i++) {
+			clusteredGraph.addVertex(ultra.vertexId(i));
 		}
+		for (int i=0; i<n; i++) {
+			for (int j=i+1; j<n; j++) {
+				DefaultWeightedEdge e = clusteredGraph.addEdge(ultra.vertexId(i), ultra.vertexId(j));
+				clusteredGraph.setEdgeWeight(e, (labels[i] == labels[j]) ? 0 : 1);
+			}
+		}
+		return clusteredGraph;
+	}
 
 
-		// Rounding each edge from the ultrametricGraph
-		// Add edge to the clusteredGraph based on the edge rounding
-		for (int i=1; i<=n; i++) {
-			for (int j=i+1; j<=n; j++) {
-				double edgeWeight = 0;
-
-				// If edge exist in the ultrametricGraph then get the edge weight
-				if (ultrametricGraph.containsEdge(i, j)) {
-					edgeWeight = ultrametricGraph.getEdgeWeight(ultrametricGraph.getEdge(i, j));
-					//System.out.println("("+i+","+j+"): "+ edgeWeight);
-				}
-				else if (ultrametricGraph.containsEdge(j, i)) {
-					edgeWeight = ultrametricGraph.getEdgeWeight(ultrametricGraph.getEdge(j, i));
-					//System.out.println("("+j+","+i+"): "+ edgeWeight);
-				}
-				else continue;
-
-				// If edgeWeight less than threshold then: 
-				// 		(a) add edge (i,j) to the clusteredGraph,
-				// 		(b) get the clusters that contains the edge vertices i & j
-				
-				clusteredGraph.addVertex(i);
-				clusteredGraph.addVertex(j);
-				
-				if (edgeWeight <= threshold) {
-					// Add vertices i & j and edge (i,j) to the clusteredGraph
-					clusteredGraph.setEdgeWeight(clusteredGraph.addEdge(i, j), 0);
-
-					// Get the cluster that contains i & j
-					ArrayList<Integer> ci = clusters.get(i);	// cluster that contains vertices i
-					ArrayList<Integer> cj = clusters.get(j);	// cluster that contains vertices i
-
-					if (!cj.isEmpty()){
+	/**
+	 * Method for getting the clusters from the ultrametric tree
+	 * The clusters are found by cutting the tree at the threshold in O(n); vertex i of the returned 
+	 * assignment is the leaf i of the tree
+	 **/
+	public static ClusterAssignment getClusters(
+			UltrametricTree ultra, 
+			double threshold
+			) {
 
-						// Put all elements from cj cluster to ci clusters
-						for (int l : cj){
-							ci.add(l);
-						}
-						cj.clear(); //clear all elements from cj cluster
-					}
-				}
-			}
+		int n = ultra.size();
+		int[] vertexIds = new int[n];
+		for (int i=0; i<n; i++) {
+			vertexIds[i] = ultra.vertexId(i);
 		}
 
-		try {
-			PrintWriter w = new PrintWriter (clustersOutput);
-			int clId = 1;
-
+		return new ClusterAssignment(vertexIds, ultra.cut(threshold));
+	}
 
-			// Print and write the clusters from the clusters list if size > 0
-			for (int i=1; i<=n; i++) {
-				ArrayList<Integer> ci = clusters.get(i);
-				if (ci.size() > 0) {	
 
-					int ciN =ci.size();					
-					w.println("#Cluster: " + clId);
-					clId+=1;
-					int temp = 0;
+	/**
+	 * Method for getting the clusters from the ultrametric graph
+	 * Every edge (i,j) with u*(i,j) <= threshold joins the clusters of i and j in a union-find, 
+	 * i.e. O(m alpha(n)) for the m edges of the ultrametric graph; the vertices of the returned 
+	 * assignment are in ascending id order
+	 **/
+	public static ClusterAssignment getClusters(
+			SimpleWeightedGraph<Integer, DefaultWeightedEdge> ultrametricGraph, 
+			double threshold
+			) {
 
-					for (int j : ci){					
-						System.out.print(j);
-						w.print(j);
+		// Vertex ids in ascending order; the union-find works on their indices
+		int n = ultrametricGraph.vertexSet().size();
+		int[] vertexIds = new int[n];
+		int i = 0;
+		for (int v : ultrametricGraph.vertexSet()) {
+			vertexIds[i++] = v;
+		}
+		java.util.Arrays.sort(vertexIds);
 
-						if (temp < ciN-1) {
-							System.out.print(",");
-							w.print(",");						
-						}
-						temp+=1;						
-					}
-					System.out.println(); 
-					w.println();
-				}
-			} 
-			w.flush();
-			w.close();			
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
+		// Rounding each edge from the ultrametricGraph
+		UnionFind uf = new UnionFind(n);
+		for (DefaultWeightedEdge e : ultrametricGraph.edgeSet()) {
+			if (ultrametricGraph.getEdgeWeight(e) <= threshold) {
+				uf.union(
+						java.util.Arrays.binarySearch(vertexIds, ultrametricGraph.getEdgeSource(e)),
+						java.util.Arrays.binarySearch(vertexIds, ultrametricGraph.getEdgeTarget(e)));
+			}
 		}
+
+		return ClusterAssignment.fromUnionFind(vertexIds, uf);
 	}
 }
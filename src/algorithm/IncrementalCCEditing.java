@@ -0,0 +1,265 @@
+package algorithm;
+
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Heuristic correlation clustering of a graph that changes by small batches of edge updates
+ *
+ * The relaxed ILP of CCEditing.ILpRelaxedLazy has a variable x_{ij} for every vertex pair, and the
+ * objective
+ * 		\sum_{(i,j) \in E^-} |w_{ij}| (1 - x_{ij}) + \sum_{(i,j) \in E^+} w_{ij} x_{ij}
+ * 		= \sum_{(i,j)} w_{ij} x_{ij} + \sum_{(i,j) \in E^-} |w_{ij}|
+ * is the only part of the model that depends on the edges. Hence an edge insertion, deletion or
+ * sign flip only changes the coefficient of x_{ij} (and the constant, kept on the dummy variable
+ * y_{01} = 1). The model is kept between the solves: the changed coefficients are patched, the
+ * triangle inequalities found so far stay valid, and the cutting-plane loop continues from the
+ * previous solution (the Cplex basis, or the PDHG primal/dual point). Then the ultrametric and the
+ * clusters are refreshed as in HeuristicCCEditing.solveCCEditing.
+ *
+ * The vertex set is fixed by the initial graph (an isolated vertex may get edges later).
+ *
+ * Example:
+ * 		IncrementalCCEditing cc = new IncrementalCCEditing(g, 0.49, CCEditing.newLpBackend());
+ * 		ClusteringResult r = cc.solve();			// cold solve
+ * 		cc.setEdge(3, 7, -1).removeEdge(2, 5).flipSign(1, 4);
+ * 		r = cc.solve();								// warm re-solve
+ * 		cc.end();
+ *
+ **/
+
+public class IncrementalCCEditing {
+
+	private int n;
+	private int[] vertexIds;
+	private double threshold;
+	private LpBackend lp;
+	private int maxCutsPerRound = CCEditing.LAZY_MAX_CUTS_PER_ROUND;
+	private double tolerance = CCEditing.LAZY_TOLERANCE;
+
+	// x[i] + j is the variable x_{ij}, 1 <= i < j <= n; y, y+1 are the dummy variables y_{00}, y_{01}
+	private int[] x;
+	private int y;
+
+	private double[][] weight;			// current signed weight w_{ij} of row i (0 if no edge)
+	private double negativeWeight = 0;	// \sum_{(i,j) \in E^-} |w_{ij}|
+	private int[] changed = new int[16];	// pending pairs (i, j), patched by the next solve
+	private int changedCount = 0;
+
+	private SignedCsrGraph graph;		// the current graph, rebuilt after changes (null until then)
+	private ClusteringResult result;
+
+	/**
+	 * Build the model of g; the first solve is a cold solve
+	 * @param threshold - the rounding threshold, or HeuristicCCEditing.AUTO_THRESHOLD
+	 * @param lp - an empty LP backend; it is kept until end()
+	 **/
+	public IncrementalCCEditing(SignedCsrGraph g, double threshold, LpBackend lp) {
+		this.n = g.vertexCount();
+		this.threshold = threshold;
+		this.lp = lp;
+		this.graph = g;
+
+		vertexIds = new int[n];
+		for (int u=0; u<n; u++) {
+			vertexIds[u] = g.vertexId(u);
+		}
+
+		x = CCEditing.addUpperTriangleVariables(lp, n);
+		weight = new double[n+1][];
+		for (int i=1; i<n+1; i++) {
+			weight[i] = new double[n+1];
+		}
+		y = lp.addVariables(2, 0, 1);
+		lp.addEq(new int[] {y}, new double[] {1}, 0);
+		lp.addEq(new int[] {y+1}, new double[] {1}, 1);
+
+		for (int u=0; u<n; u++) {
+			for (int s=g.start(u); s<g.end(u); s++) {
+				int v = g.neighbour(s);
+				if (v < u) continue;
+				double w = g.weight(s);
+				weight[u+1][v+1] = w;
+				lp.setObjectiveCoefficient(x[u+1] + v+1, w);
+				if (w < 0) negativeWeight -= w;
+			}
+		}
+		lp.setObjectiveCoefficient(y+1, negativeWeight);
+	}
+
+	public IncrementalCCEditing setThreshold(double threshold) {
+		this.threshold = threshold;
+		return this;
+	}
+
+	/**
+	 * @param maxCutsPerRound - the maximum number of triangle inequalities added per round
+	 * @param tolerance - the violation tolerance of a triangle inequality
+	 **/
+	public IncrementalCCEditing setCuttingPlanes(int maxCutsPerRound, double tolerance) {
+		this.maxCutsPerRound = maxCutsPerRound;
+		this.tolerance = tolerance;
+		return this;
+	}
+
+	/**
+	 * Insert the edge (u,v) or change its weight; w = 0 deletes the edge
+	 * @param u - vertex id
+	 * @param v - vertex id
+	 * @throws IllegalArgumentException if u or v is not a vertex of the model, or u = v
+	 **/
+	public IncrementalCCEditing setEdge(int u, int v, double w) {
+		if (Double.isNaN(w) || Double.isInfinite(w)) {
+			throw new IllegalArgumentException("edge weight must be finite: " + w);
+		}
+		int i = row(u);
+		int j = row(v);
+		if (i == j) {
+			throw new IllegalArgumentException("loop (" + u + ", " + v + ")");
+		}
+		if (i > j) {
+			int t = i; i = j; j = t;
+		}
+		double old = weight[i][j];
+		if (old == w) return this;
+
+		if (old < 0) negativeWeight += old;
+		if (w < 0) negativeWeight -= w;
+		weight[i][j] = w;
+		graph = null;
+
+		if (changedCount + 2 > changed.length) {
+			changed = java.util.Arrays.copyOf(changed, 2 * changed.length);
+		}
+		changed[changedCount++] = i;
+		changed[changedCount++] = j;
+		return this;
+	}
+
+	public IncrementalCCEditing removeEdge(int u, int v) {
+		return setEdge(u, v, 0);
+	}
+
+	/**
+	 * Flip the sign of the edge (u,v); nothing changes if (u,v) is not an edge
+	 **/
+	public IncrementalCCEditing flipSign(int u, int v) {
+		return setEdge(u, v, -weight(u, v));
+	}
+
+	/**
+	 * @return the current signed weight of (u,v), 0 if it is not an edge
+	 **/
+	public double weight(int u, int v) {
+		int i = row(u);
+		int j = row(v);
+		return (i < j) ? weight[i][j] : weight[j][i];
+	}
+
+	/**
+	 * @return the number of edge updates since the last solve
+	 **/
+	public int pendingChanges() {
+		return changedCount / 2;
+	}
+
+	// row 1..n of the vertex id
+	private int row(int vertexId) {
+		int u = java.util.Arrays.binarySearch(vertexIds, vertexId);
+		if (u < 0) {
+			throw new IllegalArgumentException("vertex " + vertexId + " is not in the model");
+		}
+		return u + 1;
+	}
+
+	/**
+	 * Patch the changed objective coefficients, re-solve (warm-started after the first solve) and
+	 * refresh the ultrametric tree and the clusters
+	 * @throws LpBackendException if the LP backend could not solve the model
+	 **/
+	public ClusteringResult solve() {
+		if (changedCount > 0) {
+			for (int c=0; c<changedCount; c+=2) {
+				int i = changed[c];
+				int j = changed[c+1];
+				lp.setObjectiveCoefficient(x[i] + j, weight[i][j]);
+			}
+			lp.setObjectiveCoefficient(y+1, negativeWeight);
+			changedCount = 0;
+		}
+
+		double[][] xValue = CCEditing.triangleCuttingPlanes(lp, x, n, maxCutsPerRound, tolerance);
+		if (xValue == null) {
+			throw new LpBackendException("IncrementalCCEditing: the model is not solved");
+		}
+
+		// ultrametric tree of the complete solution matrix, leaf i-1 is row i
+		int m = n * (n-1) / 2;
+		int[] src = new int[m];
+		int[] trg = new int[m];
+		double[] w = new double[m];
+		int e = 0;
+		for (int i=1; i<n+1; i++) {
+			for (int j=i+1; j<n+1; j++) {
+				src[e] = i-1;
+				trg[e] = j-1;
+				w[e] = xValue[i][j-i-1];
+				e += 1;
+			}
+		}
+		UltrametricTree ultra = Ultrametric.getUltrametricTree(vertexIds, src, trg, w, m);
+
+		result = HeuristicCCEditing.round(ultra, graph(), threshold);
+		return result;
+	}
+
+	/**
+	 * @return the result of the last solve, or null before the first solve
+	 **/
+	public ClusteringResult result() {
+		return result;
+	}
+
+	/**
+	 * @return the current graph (with all updates)
+	 **/
+	public SignedCsrGraph graph() {
+		if (graph != null) return graph;
+
+		int[] offsets = new int[n+1];
+		for (int i=1; i<n+1; i++) {
+			for (int j=i+1; j<n+1; j++) {
+				if (weight[i][j] != 0) {
+					offsets[i] += 1;
+					offsets[j] += 1;
+				}
+			}
+		}
+		for (int u=0; u<n; u++) {
+			offsets[u+1] += offsets[u];
+		}
+		int[] neighbours = new int[offsets[n]];
+		double[] weights = new double[offsets[n]];
+		int[] next = java.util.Arrays.copyOf(offsets, n);
+
+		// rows in ascending order, so every adjacency list is filled in ascending neighbour order
+		for (int i=1; i<n+1; i++) {
+			for (int j=i+1; j<n+1; j++) {
+				double wij = weight[i][j];
+				if (wij == 0) continue;
+				neighbours[next[i-1]] = j-1;
+				weights[next[i-1]++] = wij;
+				neighbours[next[j-1]] = i-1;
+				weights[next[j-1]++] = wij;
+			}
+		}
+		graph = new SignedCsrGraph(vertexIds.clone(), offsets, neighbours, weights);
+		return graph;
+	}
+
+	/**
+	 * Release the LP backend
+	 **/
+	public void end() {
+		lp.end();
+	}
+}
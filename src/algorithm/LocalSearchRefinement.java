@@ -0,0 +1,356 @@
+package algorithm;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Local search refinement of a clustering by single-vertex moves
+ *
+ * The clusters of the threshold cut (or of the pivot clustering) are improved by moving single
+ * vertices: moving u from its cluster A to the cluster B changes the disagreement by
+ * 		W(u, A \ u) - W(u, B)
+ * where W(u, C) is the signed weight (positive minus negative) from u to the members of C; B may
+ * also be a new cluster (W = 0). One scan of the adjacency of u sums W(u, C) for all neighbouring
+ * clusters, so the best move of u is found in O(deg(u)).
+ *
+ * The vertices are colored greedily once (adjacent vertices get different colors). A sweep visits
+ * the color classes one after the other; the gain of a vertex depends only on the clusters of its
+ * neighbours, which are in other classes, so all vertices of a class move at once, in parallel
+ * chunks, and their gains add up exactly. The disagreement decreases with every sweep; the
+ * refinement stops at a local optimum (a sweep without moves), after maxSweeps sweeps or when the
+ * time budget is used up (checked between the color classes). Ties are broken in adjacency order,
+ * so the clusters do not depend on the parallelism.
+ *
+ * Example:
+ * 		ClusteringResult r = HeuristicCCEditing.solveCCEditing(g, 0.5, 2, lp);
+ * 		r = new LocalSearchRefinement(g).setParallelism(4).setTimeBudget(100).refine(r);
+ *
+ **/
+
+public class LocalSearchRefinement {
+
+	// a move is made only if it reduces the disagreement by more than EPSILON
+	private static final double EPSILON = 1e-9;
+
+	// vertices per parallel chunk
+	private static final int GRAIN = 1024;
+
+	private SignedCsrGraph g;
+	private int n;
+	private int colorCount;
+	private int[] colorStart;		// the vertices of color c are byColor[colorStart[c]..colorStart[c+1]-1]
+	private int[] byColor;
+	private int maxDegree = 0;
+
+	private int parallelism = 1;
+	private long timeBudgetNanos = Long.MAX_VALUE;
+	private int maxSweeps = Integer.MAX_VALUE;
+
+	// statistics of the last refine
+	private int sweeps;
+	private long moves;
+	private double gain;
+
+	/**
+	 * Color the vertices of g greedily, in O(n + m)
+	 **/
+	public LocalSearchRefinement(SignedCsrGraph g) {
+		this.g = g;
+		this.n = g.vertexCount();
+		for (int u=0; u<n; u++) {
+			maxDegree = Math.max(maxDegree, g.degree(u));
+		}
+
+		// smallest color not used by an earlier neighbour
+		int[] color = new int[n];
+		int[] usedBy = new int[maxDegree + 2];
+		java.util.Arrays.fill(usedBy, -1);
+		for (int u=0; u<n; u++) {
+			for (int s=g.start(u); s<g.end(u); s++) {
+				int v = g.neighbour(s);
+				if (v < u) usedBy[color[v]] = u;
+			}
+			int c = 0;
+			while (usedBy[c] == u) c += 1;
+			color[u] = c;
+			colorCount = Math.max(colorCount, c + 1);
+		}
+
+		colorStart = new int[colorCount + 1];
+		for (int u=0; u<n; u++) {
+			colorStart[color[u] + 1] += 1;
+		}
+		for (int c=0; c<colorCount; c++) {
+			colorStart[c+1] += colorStart[c];
+		}
+		byColor = new int[n];
+		int[] next = java.util.Arrays.copyOf(colorStart, colorCount);
+		for (int u=0; u<n; u++) {
+			byColor[next[color[u]]++] = u;
+		}
+	}
+
+	/**
+	 * @param parallelism - number of worker threads; 1 (default) to run in the calling thread
+	 **/
+	public LocalSearchRefinement setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * @param millis - time budget of one refine in milliseconds (default: none)
+	 **/
+	public LocalSearchRefinement setTimeBudget(long millis) {
+		this.timeBudgetNanos = (millis >= Long.MAX_VALUE / 1000000) ? Long.MAX_VALUE : millis * 1000000;
+		return this;
+	}
+
+	/**
+	 * @param maxSweeps - the maximum number of sweeps over all vertices (default: none)
+	 **/
+	public LocalSearchRefinement setMaxSweeps(int maxSweeps) {
+		this.maxSweeps = maxSweeps;
+		return this;
+	}
+
+	public int colorCount() {
+		return colorCount;
+	}
+
+	/**
+	 * @return the number of sweeps of the last refine (the last one possibly cut by the time budget)
+	 **/
+	public int sweepCount() {
+		return sweeps;
+	}
+
+	/**
+	 * @return the number of moves of the last refine
+	 **/
+	public long moveCount() {
+		return moves;
+	}
+
+	/**
+	 * @return the decrease of the disagreement by the last refine
+	 **/
+	public double gain() {
+		return gain;
+	}
+
+	/**
+	 * Refine the clusters of a solve of g; the ultrametric tree and the threshold are kept (the
+	 * clusters are no longer a cut of the tree)
+	 **/
+	public ClusteringResult refine(ClusteringResult r) {
+		return new ClusteringResult(refine(r.assignment()), r.ultrametricTree(), r.threshold(), r.sweep());
+	}
+
+	/**
+	 * @param start - clusters of the vertex ids of g
+	 * @return the refined clusters; vertex i is the vertex index i of g
+	 * @throws IllegalArgumentException if start does not cover the vertices of g
+	 **/
+	public ClusterAssignment refine(ClusterAssignment start) {
+		if (start.size() != n) {
+			throw new IllegalArgumentException("the assignment has " + start.size() + " vertices, the graph " + n);
+		}
+		int[] vertexIds = new int[n];
+		for (int u=0; u<n; u++) {
+			vertexIds[u] = g.vertexId(u);
+		}
+		final int[] label = new int[n];
+		for (int i=0; i<start.size(); i++) {
+			int u = g.indexOf(start.vertexId(i));
+			if (u < 0) {
+				throw new IllegalArgumentException("vertex " + start.vertexId(i) + " is not in the graph");
+			}
+			label[u] = start.label(i);
+		}
+
+		sweeps = 0;
+		moves = 0;
+		gain = 0;
+		long deadline = (timeBudgetNanos == Long.MAX_VALUE) ? Long.MAX_VALUE : System.nanoTime() + timeBudgetNanos;
+		int chunks = Math.max(1, 4 * parallelism);
+		final Scratch[] scratch = new Scratch[chunks];
+		for (int c=0; c<chunks; c++) {
+			scratch[c] = new Scratch(maxDegree);
+		}
+		// labels of new clusters; the labels are compacted to 0..k-1 before every sweep
+		final AtomicInteger nextLabel = new AtomicInteger();
+
+		ForkJoinPool pool = (parallelism == 1) ? null : new ForkJoinPool(parallelism);
+		try {
+			boolean improved = true;
+			while (improved && sweeps < maxSweeps && System.nanoTime() < deadline) {
+				nextLabel.set(compact(vertexIds, label));
+				improved = false;
+				sweeps += 1;
+
+				for (int c=0; c<colorCount && System.nanoTime() < deadline; c++) {
+					final int lo = colorStart[c];
+					int count = colorStart[c+1] - lo;
+					int used = forChunks(pool, chunks, count, (from, to, chunk) -> {
+						Scratch sc = scratch[chunk];
+						for (int t=lo+from; t<lo+to; t++) {
+							sc.move(g, label, byColor[t], nextLabel);
+						}
+					});
+					for (int k=0; k<used; k++) {
+						if (scratch[k].moves > 0) improved = true;
+						moves += scratch[k].moves;
+						gain += scratch[k].gain;
+						scratch[k].moves = 0;
+						scratch[k].gain = 0;
+					}
+				}
+			}
+		} finally {
+			if (pool != null) pool.shutdownNow();
+		}
+		return new ClusterAssignment(vertexIds, label);
+	}
+
+	/**
+	 * Relabel the clusters 0..k-1 in order of first appearance
+	 * @return k
+	 **/
+	private static int compact(int[] vertexIds, int[] label) {
+		ClusterAssignment a = new ClusterAssignment(vertexIds, label);
+		System.arraycopy(a.labels(), 0, label, 0, label.length);
+		return a.clusterCount();
+	}
+
+
+	/**
+	 * Working space of one chunk: the signed weights from a vertex to its neighbouring clusters in
+	 * an open addressing map of at least twice the maximum degree, and the moves and gain of the chunk
+	 **/
+	private static class Scratch {
+		private int[] keys;
+		private double[] values;
+		private int[] used;		// the occupied slots
+		private int mask;
+		long moves = 0;
+		double gain = 0;
+
+		Scratch(int maxDegree) {
+			int cap = 4;
+			while (cap < 2 * (maxDegree + 1)) cap <<= 1;
+			keys = new int[cap];
+			values = new double[cap];
+			used = new int[cap];
+			java.util.Arrays.fill(keys, -1);
+			mask = cap - 1;
+		}
+
+		private int slot(int key) {
+			int h = key * 0x9E3779B9;
+			int p = (h ^ (h >>> 16)) & mask;
+			while (keys[p] != -1 && keys[p] != key) p = (p+1) & mask;
+			return p;
+		}
+
+		/**
+		 * Move u to the neighbouring cluster (or a new cluster) with the largest decrease of the
+		 * disagreement, if any
+		 **/
+		void move(SignedCsrGraph g, int[] label, int u, AtomicInteger nextLabel) {
+			int a = label[u];
+			int usedCount = 0;
+			double own = 0;
+			for (int s=g.start(u); s<g.end(u); s++) {
+				int c = label[g.neighbour(s)];
+				if (c == a) {
+					own += g.weight(s);
+					continue;
+				}
+				int p = slot(c);
+				if (keys[p] == -1) {
+					keys[p] = c;
+					values[p] = 0;
+					used[usedCount++] = p;
+				}
+				values[p] += g.weight(s);
+			}
+
+			// the first best cluster in adjacency order; a new cluster if u has a negative affinity
+			// to its own cluster and none to another one
+			int best = -1;
+			double bestDelta = own;
+			for (int s=g.start(u); s<g.end(u); s++) {
+				int c = label[g.neighbour(s)];
+				if (c == a) continue;
+				double delta = own - values[slot(c)];
+				if (delta < bestDelta) {
+					bestDelta = delta;
+					best = c;
+				}
+			}
+			for (int t=0; t<usedCount; t++) {
+				keys[used[t]] = -1;
+			}
+
+			if (bestDelta < -EPSILON) {
+				label[u] = (best == -1) ? nextLabel.getAndIncrement() : best;
+				moves += 1;
+				gain -= bestDelta;
+			}
+		}
+	}
+
+	private interface ChunkBody {
+		void run(int from, int to, int chunk);
+	}
+
+	/**
+	 * Run body on (at most maxChunks) chunks of 0..count-1 on the pool, or in the calling thread if
+	 * the pool is null or there is only one chunk
+	 * @return the number of chunks
+	 **/
+	private static int forChunks(ForkJoinPool pool, int maxChunks, int count, ChunkBody body) {
+		int chunks = Math.min(maxChunks, (count + GRAIN - 1) / GRAIN);
+		if (pool == null || chunks < 2) {
+			body.run(0, count, 0);
+			return 1;
+		}
+		ChunkTask[] tasks = new ChunkTask[chunks];
+		for (int c=0; c<chunks; c++) {
+			tasks[c] = new ChunkTask(body, (int) ((long) count * c / chunks), (int) ((long) count * (c+1) / chunks), c);
+			pool.execute(tasks[c]);
+		}
+		for (ChunkTask task : tasks) {
+			task.join();
+		}
+		return chunks;
+	}
+
+	private static class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private ChunkBody body;
+		private int from;
+		private int to;
+		private int chunk;
+
+		ChunkTask(ChunkBody body, int from, int to, int chunk) {
+			this.body = body;
+			this.from = from;
+			this.to = to;
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected void compute() {
+			body.run(from, to, chunk);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package algorithm;
+
+/**
+ * Linear programming backend used by CCEditing
+ *
+ * A backend holds one minimization model. Variables are referred by the index returned when they
+ * are added, and constraints are given as sparse rows (variable indices and coefficients).
+ * Constraints may be added and objective coefficients changed after a solve; the next solve
+ * continues from the current model and is warm-started from the previous solution where the
+ * backend supports it (the Cplex basis, the PDHG primal/dual point).
+ *
+ * Implementations:
+ * 		(1) CplexLpBackend - IBM ILOG Cplex V.12.1 (academic edition)
+ * 		(2) PdhgLpBackend  - pure Java first-order solver, no external library needed
+ *
+ **/
+
+public interface LpBackend {
+
+	/**
+	 * Add count continuous variables with the same bounds
+	 * @return the index of the first added variable; the others follow consecutively
+	 **/
+	int addVariables(int count, double lb, double ub);
+
+	/**
+	 * Add count binary variables
+	 * @return the index of the first added variable; the others follow consecutively
+	 * @throws LpBackendException if the backend has no binary variables (see supportsBoolVariables)
+	 **/
+	int addBoolVariables(int count);
+
+	/**
+	 * @return true if the backend can add binary variables, i.e. solve the ILP (ilpFlag 1)
+	 **/
+	boolean supportsBoolVariables();
+
+	/**
+	 * Add coef * x_{var} to the (minimized) linear objective
+	 **/
+	void addObjectiveTerm(int var, double coef);
+
+	/**
+	 * Replace the objective coefficient of x_{var} by coef (also after a solve)
+	 **/
+	void setObjectiveCoefficient(int var, double coef);
+
+	/**
+	 * Add the constraint \sum coefs[t] * x_{vars[t]} >= rhs
+	 **/
+	void addGe(int[] vars, double[] coefs, double rhs);
+
+	/**
+	 * Add the constraint \sum coefs[t] * x_{vars[t]} = rhs
+	 **/
+	void addEq(int[] vars, double[] coefs, double rhs);
+
+	/**
+	 * Solve the current model
+	 * @return true if an (optimal) solution is available
+	 **/
+	boolean solve();
+
+	double getValue(int var);
+
+	/**
+	 * Values of the count consecutive variables starting from first
+	 **/
+	double[] getValues(int first, int count);
+
+	double getObjValue();
+
+	/**
+	 * Release the model
+	 **/
+	void end();
+}
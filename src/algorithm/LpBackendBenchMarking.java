@@ -0,0 +1,84 @@
+package algorithm;
+
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+
+import randomSignedGraphGenerator.RandomSignedGraph;
+
+public class LpBackendBenchMarking {
+
+	/**
+	 * Compares the LP backends (Cplex and the pure Java PDHG solver) on the relaxed ILP of the
+	 * signed random networks G(n,e,p). Every backend solves the same graph; a backend that is not
+	 * installed (e.g. no Cplex licence) is skipped, and a failed solve is reported instead of its
+	 * (empty) solution.
+	 *
+	 **/
+
+	public static void main (String[] args) {
+
+		int nStart = 10;	// staring nodes number
+		int nStop = 100;	// stoping number of nodes
+		double e = 0.5;		// edge probability
+		double p = 0.5; 	// positive edge probability
+		int ilpFlag = 2;	// relaxed ILP with lazy triangle constraints
+
+		String[] backends = {"cplex", "pdhg"};
+
+		System.out.println("|V|\t\t" + "Backend\t\t" + "Time (sec)\t\t" + "Objective");
+		for (int n=nStart; n<=nStop; n+=nStart) {
+			SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = RandomSignedGraph.getGnpGraph_jGrapht(n, e, p);
+
+			for (String backend : backends) {
+				LpBackend lp;
+				try {
+					lp = CCEditing.newLpBackend(backend);
+				} catch (LinkageError | LpBackendException err) {
+					System.out.println(n + "\t\t" + backend + "\t\t" + "not available");
+					continue;
+				}
+
+				double startTime = System.nanoTime();
+				SimpleWeightedGraph<Integer, DefaultWeightedEdge> inducedWeightedGraph = CCEditing.ILpRelaxed(g, ilpFlag, lp);
+				double endTime = System.nanoTime();
+
+				double duration = (endTime - startTime) / 1000000000 ;
+				// ILpRelaxed returns the empty graph if the model is not solved
+				if (inducedWeightedGraph.vertexSet().isEmpty() && !g.vertexSet().isEmpty()) {
+					System.out.println(n + "\t\t" + backend + "\t\t" + duration + "\t\t" + "not solved");
+					continue;
+				}
+				System.out.println(n + "\t\t" + backend + "\t\t" + duration + "\t\t" + getObjective(g, inducedWeightedGraph));
+			}
+		}
+	}
+
+	/**
+	 * Objective value \sum_{(i,j) \in E^-} w_{ij} (1 - x_{ij}) + \sum_{(i,j) \in E^+} w_{ij} x_{ij}
+	 * of the relaxed solution stored in the inducedWeightedGraph
+	 **/
+	private static double getObjective(
+			SimpleWeightedGraph<Integer, DefaultWeightedEdge> g,
+			SimpleWeightedGraph<Integer, DefaultWeightedEdge> inducedWeightedGraph
+			) {
+
+		double obj = 0;
+		for (DefaultWeightedEdge edge : g.edgeSet()) {
+			int src = g.getEdgeSource(edge);
+			int trg = g.getEdgeTarget(edge);
+			double w = g.getEdgeWeight(edge);
+
+			DefaultWeightedEdge xEdge = inducedWeightedGraph.getEdge(src, trg);
+			if (xEdge == null) continue;
+			double x = inducedWeightedGraph.getEdgeWeight(xEdge);
+
+			if (w < 0) {
+				obj += Math.abs(w) * (1 - x);
+			}
+			else {
+				obj += Math.abs(w) * x;
+			}
+		}
+		return obj;
+	}
+}
@@ -0,0 +1,19 @@
+package algorithm;
+
+/**
+ * Unchecked exception thrown by a LpBackend when the underlying solver fails
+ *
+ **/
+
+public class LpBackendException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public LpBackendException(String message) {
+		super(message);
+	}
+
+	public LpBackendException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,428 @@
+package algorithm;
+
+/**
+ * Pure Java LpBackend: restarted Primal-Dual Hybrid Gradient (PDHG) method
+ *
+ * Solves   min c^T x   s.t.   A_ge x >= b_ge,   A_eq x = b_eq,   lb <= x <= ub
+ * with the iteration (Chambolle & Pock 2011, restarts as in Applegate et al. 2021 "PDLP"):
+ * 		x' = proj_[lb,ub] ( x - tau * (c - A^T y) )
+ * 		y' = proj_Y ( y + sigma * (b - A (2x' - x)) ),  Y = { y_ge >= 0 }
+ *
+ * The constraint matrix is only touched through two sparse matrix-vector products per iteration.
+ * This suits the triangle inequalities of the Correlation Clustering LP (3 non-zeros of +-1 per row)
+ * much better than a dense simplex tableau. Rows are kept in a growable CSR store, so constraints can
+ * be added between solves; the next solve is warm-started from the previous primal/dual point.
+ *
+ * The solution is accurate up to the relative tolerance on primal feasibility, dual feasibility and
+ * duality gap (default 1e-6). Integer variables are not supported.
+ *
+ **/
+
+public class PdhgLpBackend implements LpBackend {
+
+	// variables
+	private int nVar = 0;
+	private double[] lb = new double[16];
+	private double[] ub = new double[16];
+	private double[] c = new double[16];
+
+	// constraints in CSR format
+	private int nRow = 0;
+	private int nnz = 0;
+	private int[] rowStart = new int[17];
+	private int[] col = new int[64];
+	private double[] val = new double[64];
+	private double[] rhs = new double[16];
+	private boolean[] isEq = new boolean[16];
+
+	// current primal/dual point (kept between solves for warm starts)
+	private double[] x = new double[0];
+	private double[] y = new double[0];
+	private double primalWeight = 1.0;
+
+	// parameters
+	private double tolerance = 1e-6;
+	private int maxIterations = 500000;
+	private static final int CHECK_EVERY = 64;
+	private static final double STEP_FACTOR = 0.95;
+
+	// results
+	private boolean solved = false;
+	private int iterations = 0;
+
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * @return the number of PDHG iterations of the last solve
+	 **/
+	public int getIterations() {
+		return iterations;
+	}
+
+	public int addVariables(int count, double lower, double upper) {
+		int first = nVar;
+		ensureVarCapacity(nVar + count);
+		for (int v=first; v<first+count; v++) {
+			lb[v] = lower;
+			ub[v] = upper;
+			c[v] = 0;
+		}
+		nVar += count;
+		return first;
+	}
+
+	public int addBoolVariables(int count) {
+		throw new LpBackendException("PdhgLpBackend solves continuous models only");
+	}
+
+	public boolean supportsBoolVariables() {
+		return false;
+	}
+
+	public void addObjectiveTerm(int var, double coef) {
+		c[var] += coef;
+	}
+
+	public void setObjectiveCoefficient(int var, double coef) {
+		c[var] = coef;
+	}
+
+	public void addGe(int[] vars, double[] coefs, double b) {
+		addRow(vars, coefs, b, false);
+	}
+
+	public void addEq(int[] vars, double[] coefs, double b) {
+		addRow(vars, coefs, b, true);
+	}
+
+	private void addRow(int[] vars, double[] coefs, double b, boolean eq) {
+		if (nRow + 1 >= rhs.length) {
+			int cap = 2 * rhs.length;
+			rhs = grow(rhs, cap);
+			isEq = grow(isEq, cap);
+			rowStart = grow(rowStart, cap + 1);
+		}
+		if (nnz + vars.length > col.length) {
+			int cap = Math.max(nnz + vars.length, 2 * col.length);
+			col = grow(col, cap);
+			val = grow(val, cap);
+		}
+		for (int t=0; t<vars.length; t++) {
+			col[nnz] = vars[t];
+			val[nnz] = coefs[t];
+			nnz += 1;
+		}
+		rhs[nRow] = b;
+		isEq[nRow] = eq;
+		nRow += 1;
+		rowStart[nRow] = nnz;
+	}
+
+	public boolean solve() {
+		solved = false;
+		iterations = 0;
+
+		// warm start: keep the previous point, new variables start at the bound closest to 0
+		// and new rows start with a zero multiplier
+		double[] newX = new double[nVar];
+		for (int v=0; v<nVar; v++) {
+			newX[v] = (v < x.length) ? x[v] : clamp(0, lb[v], ub[v]);
+		}
+		x = newX;
+		y = grow(y, nRow);
+
+		if (nRow == 0) {
+			return solveWithoutRows();
+		}
+
+		// ||A||_2 <= sqrt(||A||_1 * ||A||_inf)
+		double normA = operatorNormBound();
+		double normB = norm(rhs, nRow);
+		double normC = norm(c, nVar);
+
+		double[] xNew = new double[nVar];
+		double[] aty = new double[nVar];
+		double[] ax = new double[nRow];
+		double[] xSum = new double[nVar];
+		double[] ySum = new double[nRow];
+		double[] xAvg = new double[nVar];
+		double[] yAvg = new double[nRow];
+		double[] xRestart = x.clone();
+		double[] yRestart = y.clone();
+		int sinceRestart = 0;
+
+		double[] kkt = new double[4];
+		kktError(x, y, normB, normC, aty, ax, kkt);
+		if (kkt[3] == 1) {
+			solved = true;
+			return true;
+		}
+		double errRestart = kkt[0];
+		double errLastCandidate = Double.POSITIVE_INFINITY;
+
+		for (int it=1; it<=maxIterations; it++) {
+			double tau = STEP_FACTOR / (primalWeight * normA);
+			double sigma = STEP_FACTOR * primalWeight / normA;
+
+			// primal step
+			multiplyTransposed(y, aty);
+			for (int v=0; v<nVar; v++) {
+				xNew[v] = clamp(x[v] - tau * (c[v] - aty[v]), lb[v], ub[v]);
+			}
+
+			// dual step at the extrapolated point 2x' - x
+			for (int v=0; v<nVar; v++) {
+				x[v] = 2 * xNew[v] - x[v];
+			}
+			multiply(x, ax);
+			for (int r=0; r<nRow; r++) {
+				double yr = y[r] + sigma * (rhs[r] - ax[r]);
+				y[r] = (isEq[r] || yr > 0) ? yr : 0;
+			}
+			System.arraycopy(xNew, 0, x, 0, nVar);
+
+			for (int v=0; v<nVar; v++) xSum[v] += x[v];
+			for (int r=0; r<nRow; r++) ySum[r] += y[r];
+			sinceRestart += 1;
+			iterations = it;
+
+			if (it % CHECK_EVERY != 0) continue;
+
+			// choose the better of the current and the average iterate
+			for (int v=0; v<nVar; v++) xAvg[v] = xSum[v] / sinceRestart;
+			for (int r=0; r<nRow; r++) yAvg[r] = ySum[r] / sinceRestart;
+
+			double[] kktAvg = new double[4];
+			kktError(x, y, normB, normC, aty, ax, kkt);
+			kktError(xAvg, yAvg, normB, normC, aty, ax, kktAvg);
+
+			boolean useAvg = kktAvg[0] < kkt[0];
+			double[] cx = useAvg ? xAvg : x;
+			double[] cy = useAvg ? yAvg : y;
+			double[] ck = useAvg ? kktAvg : kkt;
+
+			if (ck[3] == 1) {
+				if (useAvg) {
+					System.arraycopy(xAvg, 0, x, 0, nVar);
+					System.arraycopy(yAvg, 0, y, 0, nRow);
+				}
+				solved = true;
+				return true;
+			}
+
+			// restart criteria: sufficient decay, necessary decay without progress, or long cycle
+			double err = ck[0];
+			boolean restart = err <= 0.2 * errRestart
+					|| (err <= 0.8 * errRestart && err > errLastCandidate)
+					|| sinceRestart >= 0.36 * it;
+			errLastCandidate = err;
+			if (!restart) continue;
+
+			// primal weight update from the movement since the last restart
+			double dx = distance(cx, xRestart, nVar);
+			double dy = distance(cy, yRestart, nRow);
+			if (dx > 1e-10 && dy > 1e-10) {
+				primalWeight = Math.exp(0.5 * Math.log(dy / dx) + 0.5 * Math.log(primalWeight));
+			}
+
+			if (useAvg) {
+				System.arraycopy(xAvg, 0, x, 0, nVar);
+				System.arraycopy(yAvg, 0, y, 0, nRow);
+			}
+			System.arraycopy(x, 0, xRestart, 0, nVar);
+			System.arraycopy(y, 0, yRestart, 0, nRow);
+			java.util.Arrays.fill(xSum, 0);
+			java.util.Arrays.fill(ySum, 0);
+			sinceRestart = 0;
+			errRestart = err;
+			errLastCandidate = Double.POSITIVE_INFINITY;
+		}
+		return false;
+	}
+
+	/**
+	 * Without rows each variable sits at the bound favoured by its objective coefficient
+	 **/
+	private boolean solveWithoutRows() {
+		for (int v=0; v<nVar; v++) {
+			if (c[v] > 0) x[v] = lb[v];
+			else if (c[v] < 0) x[v] = ub[v];
+			if (Double.isInfinite(x[v])) return false;	// unbounded
+		}
+		solved = true;
+		return true;
+	}
+
+	/**
+	 * KKT error of the point (px, py)
+	 * out[0] - combined error; out[1] - primal residual; out[2] - gap;
+	 * out[3] - 1 if the relative tolerances are met, 0 otherwise
+	 **/
+	private void kktError(double[] px, double[] py, double normB, double normC,
+			double[] aty, double[] ax, double[] out) {
+
+		multiply(px, ax);
+		double primalRes = 0;
+		double dualObj = 0;
+		for (int r=0; r<nRow; r++) {
+			double res = rhs[r] - ax[r];
+			if (isEq[r] || res > 0) primalRes += res * res;
+			dualObj += rhs[r] * py[r];
+		}
+
+		multiplyTransposed(py, aty);
+		double dualRes = 0;
+		double primalObj = 0;
+		for (int v=0; v<nVar; v++) {
+			primalObj += c[v] * px[v];
+			double reduced = c[v] - aty[v];
+			if (reduced > 0) {
+				if (Double.isInfinite(lb[v])) dualRes += reduced * reduced;
+				else dualObj += lb[v] * reduced;
+			}
+			else if (reduced < 0) {
+				if (Double.isInfinite(ub[v])) dualRes += reduced * reduced;
+				else dualObj += ub[v] * reduced;
+			}
+		}
+		primalRes = Math.sqrt(primalRes);
+		dualRes = Math.sqrt(dualRes);
+		double gap = Math.abs(primalObj - dualObj);
+
+		out[0] = Math.sqrt(primalRes * primalRes + dualRes * dualRes + gap * gap);
+		out[1] = primalRes;
+		out[2] = gap;
+		out[3] = (primalRes <= tolerance * (1 + normB)
+				&& dualRes <= tolerance * (1 + normC)
+				&& gap <= tolerance * (1 + Math.abs(primalObj) + Math.abs(dualObj))) ? 1 : 0;
+	}
+
+	// out = A * v
+	private void multiply(double[] v, double[] out) {
+		for (int r=0; r<nRow; r++) {
+			double s = 0;
+			for (int t=rowStart[r]; t<rowStart[r+1]; t++) {
+				s += val[t] * v[col[t]];
+			}
+			out[r] = s;
+		}
+	}
+
+	// out = A^T * w
+	private void multiplyTransposed(double[] w, double[] out) {
+		java.util.Arrays.fill(out, 0, nVar, 0);
+		for (int r=0; r<nRow; r++) {
+			double wr = w[r];
+			if (wr == 0) continue;
+			for (int t=rowStart[r]; t<rowStart[r+1]; t++) {
+				out[col[t]] += val[t] * wr;
+			}
+		}
+	}
+
+	private double operatorNormBound() {
+		double maxRow = 0;
+		double[] colSum = new double[nVar];
+		for (int r=0; r<nRow; r++) {
+			double s = 0;
+			for (int t=rowStart[r]; t<rowStart[r+1]; t++) {
+				s += Math.abs(val[t]);
+				colSum[col[t]] += Math.abs(val[t]);
+			}
+			maxRow = Math.max(maxRow, s);
+		}
+		double maxCol = 0;
+		for (int v=0; v<nVar; v++) {
+			maxCol = Math.max(maxCol, colSum[v]);
+		}
+		double bound = Math.sqrt(maxRow * maxCol);
+		return (bound > 0) ? bound : 1;
+	}
+
+	public double getValue(int var) {
+		checkSolved();
+		return x[var];
+	}
+
+	public double[] getValues(int first, int count) {
+		checkSolved();
+		double[] values = new double[count];
+		System.arraycopy(x, first, values, 0, count);
+		return values;
+	}
+
+	public double getObjValue() {
+		checkSolved();
+		double obj = 0;
+		for (int v=0; v<nVar; v++) {
+			obj += c[v] * x[v];
+		}
+		return obj;
+	}
+
+	public void end() {
+		x = new double[0];
+		y = new double[0];
+		solved = false;
+	}
+
+	private void checkSolved() {
+		if (!solved) {
+			throw new LpBackendException("PdhgLpBackend: no solution available");
+		}
+	}
+
+	private void ensureVarCapacity(int cap) {
+		if (cap <= lb.length) return;
+		cap = Math.max(cap, 2 * lb.length);
+		lb = grow(lb, cap);
+		ub = grow(ub, cap);
+		c = grow(c, cap);
+	}
+
+	private static double clamp(double v, double lower, double upper) {
+		return (v < lower) ? lower : ((v > upper) ? upper : v);
+	}
+
+	private static double norm(double[] v, int len) {
+		double s = 0;
+		for (int t=0; t<len; t++) s += v[t] * v[t];
+		return Math.sqrt(s);
+	}
+
+	private static double distance(double[] a, double[] b, int len) {
+		double s = 0;
+		for (int t=0; t<len; t++) {
+			double d = a[t] - b[t];
+			s += d * d;
+		}
+		return Math.sqrt(s);
+	}
+
+	private static double[] grow(double[] a, int len) {
+		if (a.length >= len) return a;
+		double[] b = new double[len];
+		System.arraycopy(a, 0, b, 0, a.length);
+		return b;
+	}
+
+	private static int[] grow(int[] a, int len) {
+		if (a.length >= len) return a;
+		int[] b = new int[len];
+		System.arraycopy(a, 0, b, 0, a.length);
+		return b;
+	}
+
+	private static boolean[] grow(boolean[] a, int len) {
+		if (a.length >= len) return a;
+		boolean[] b = new boolean[len];
+		System.arraycopy(a, 0, b, 0, a.length);
+		return b;
+	}
+}
@@ -0,0 +1,260 @@
+package algorithm;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Randomized pivot clustering (KwikCluster, Ailon, Charikar & Newman, 2008) of a signed graph
+ *
+ * A combinatorial alternative to the relaxed ILP of HeuristicCCEditing for graphs far beyond the
+ * size of the LP: the vertices are visited in a random order; an unclustered vertex becomes a pivot
+ * and its cluster is the pivot with all its unclustered positive neighbours. O(n + m) time; for
+ * complete +1/-1 graphs the expected disagreement is at most 3 times the optimum. Negative edges
+ * and missing edges are treated alike.
+ *
+ * The pivots are exactly the lexicographically first maximal independent set (in the random order)
+ * of the positive edges, and every other vertex is in the cluster of its first pivot neighbour.
+ * solveParallel computes the same clustering in rounds (ParallelPivot / C4, Pan et al., 2015):
+ * every undecided vertex counts its undecided positive neighbours that come earlier in the order;
+ * the vertices with count 0 are the pivots of a round, they remove their undecided neighbours, and
+ * every decided vertex decrements the counts of its later neighbours. Every edge is handled a
+ * constant number of times, so the work stays O(n + m), and the rounds are short in practice
+ * (O(log n) with high probability, Fischer & Noever, 2018). Finally every removed vertex joins its
+ * first pivot neighbour, in parallel. Hence solve and solveParallel agree for the same seed.
+ *
+ * The result has the ultrametric tree of the clusters: the members of a cluster are merged at height
+ * 0 and the clusters are never merged (a forest), with the threshold 0.
+ *
+ **/
+
+public class PivotClustering {
+
+	private static final int UNDECIDED = 0;
+	private static final int PIVOT = 1;
+	private static final int REMOVED = 2;
+
+	// vertices (or frontier entries) per parallel chunk
+	private static final int GRAIN = 1024;
+
+	/**
+	 * Sequential pivot clustering
+	 * @param seed - the seed of the random order of the vertices
+	 **/
+	public static ClusteringResult solve(SignedCsrGraph g, long seed) {
+		int n = g.vertexCount();
+		int[] order = randomOrder(n, seed);
+		int[] pivot = new int[n];
+		java.util.Arrays.fill(pivot, -1);
+
+		for (int i=0; i<n; i++) {
+			int p = order[i];
+			if (pivot[p] != -1) continue;
+			pivot[p] = p;
+			for (int s=g.start(p); s<g.end(p); s++) {
+				int v = g.neighbour(s);
+				if (g.weight(s) > 0 && pivot[v] == -1) pivot[v] = p;
+			}
+		}
+		return result(g, pivot);
+	}
+
+	/**
+	 * Parallel pivot clustering; the same clusters as solve(g, seed)
+	 * @param seed - the seed of the random order of the vertices
+	 * @param parallelism - number of worker threads; 1 to run in the calling thread
+	 **/
+	public static ClusteringResult solveParallel(final SignedCsrGraph g, long seed, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		final int n = g.vertexCount();
+		final int[] rank = new int[n];
+		int[] order = randomOrder(n, seed);
+		for (int i=0; i<n; i++) {
+			rank[order[i]] = i;
+		}
+
+		final AtomicIntegerArray status = new AtomicIntegerArray(n);
+		final AtomicIntegerArray count = new AtomicIntegerArray(n);
+		final int[][] frontier = {new int[n]};
+		final int[][] next = {new int[n]};
+		final int[] removed = new int[n];
+		final AtomicInteger frontierSize = new AtomicInteger();
+		final AtomicInteger nextSize = new AtomicInteger();
+		final AtomicInteger removedSize = new AtomicInteger();
+		final int[] pivot = new int[n];
+
+		ForkJoinPool pool = (parallelism == 1) ? null : new ForkJoinPool(parallelism);
+		try {
+			// earlier positive neighbours of every vertex; the vertices without any are the first pivots
+			forChunks(pool, parallelism, n, (lo, hi) -> {
+				for (int u=lo; u<hi; u++) {
+					int c = 0;
+					for (int s=g.start(u); s<g.end(u); s++) {
+						if (g.weight(s) > 0 && rank[g.neighbour(s)] < rank[u]) c += 1;
+					}
+					count.set(u, c);
+					if (c == 0) frontier[0][frontierSize.getAndIncrement()] = u;
+				}
+			});
+
+			while (frontierSize.get() > 0) {
+				final int size = frontierSize.get();
+				removedSize.set(0);
+				nextSize.set(0);
+
+				// the pivots of the round are not adjacent, so they remove their neighbours at once
+				forChunks(pool, parallelism, size, (lo, hi) -> {
+					for (int t=lo; t<hi; t++) {
+						int p = frontier[0][t];
+						status.set(p, PIVOT);
+						for (int s=g.start(p); s<g.end(p); s++) {
+							int v = g.neighbour(s);
+							if (g.weight(s) > 0 && status.get(v) == UNDECIDED
+									&& status.compareAndSet(v, UNDECIDED, REMOVED)) {
+								removed[removedSize.getAndIncrement()] = v;
+							}
+						}
+					}
+				});
+
+				// every vertex decided in this round releases its later undecided neighbours (the
+				// status is fixed until the next round)
+				final int decided = size + removedSize.get();
+				forChunks(pool, parallelism, decided, (lo, hi) -> {
+					for (int t=lo; t<hi; t++) {
+						int x = (t < size) ? frontier[0][t] : removed[t - size];
+						for (int s=g.start(x); s<g.end(x); s++) {
+							int y = g.neighbour(s);
+							if (g.weight(s) > 0 && rank[y] > rank[x] && status.get(y) == UNDECIDED
+									&& count.decrementAndGet(y) == 0) {
+								next[0][nextSize.getAndIncrement()] = y;
+							}
+						}
+					}
+				});
+
+				int[] swap = frontier[0];
+				frontier[0] = next[0];
+				next[0] = swap;
+				frontierSize.set(nextSize.get());
+			}
+
+			// every removed vertex joins its first pivot neighbour
+			forChunks(pool, parallelism, n, (lo, hi) -> {
+				for (int u=lo; u<hi; u++) {
+					if (status.get(u) == PIVOT) {
+						pivot[u] = u;
+						continue;
+					}
+					int first = -1;
+					for (int s=g.start(u); s<g.end(u); s++) {
+						int v = g.neighbour(s);
+						if (g.weight(s) > 0 && status.get(v) == PIVOT && (first == -1 || rank[v] < rank[first])) {
+							first = v;
+						}
+					}
+					pivot[u] = first;
+				}
+			});
+		} finally {
+			if (pool != null) pool.shutdownNow();
+		}
+		return result(g, pivot);
+	}
+
+	/**
+	 * Random order of the vertices 0..n-1 (Fisher-Yates shuffle)
+	 **/
+	private static int[] randomOrder(int n, long seed) {
+		Random random = new Random(seed);
+		int[] order = new int[n];
+		for (int i=0; i<n; i++) {
+			order[i] = i;
+		}
+		for (int i=n-1; i>0; i--) {
+			int j = random.nextInt(i + 1);
+			int t = order[i]; order[i] = order[j]; order[j] = t;
+		}
+		return order;
+	}
+
+	/**
+	 * The clusters of the pivots, with the forest of the clusters (merges at height 0)
+	 * @param pivot - the pivot (vertex index) of the cluster of each vertex index
+	 **/
+	private static ClusteringResult result(SignedCsrGraph g, int[] pivot) {
+		int n = g.vertexCount();
+		int[] vertexIds = new int[n];
+		for (int u=0; u<n; u++) {
+			vertexIds[u] = g.vertexId(u);
+		}
+		ClusterAssignment assignment = new ClusterAssignment(vertexIds, pivot);
+
+		int mergeCount = n - assignment.clusterCount();
+		int[] left = new int[mergeCount];
+		int[] right = new int[mergeCount];
+		double[] height = new double[mergeCount];
+		int k = 0;
+		for (int c=0; c<assignment.clusterCount(); c++) {
+			int node = assignment.member(c, 0);
+			for (int t=1; t<assignment.clusterSize(c); t++) {
+				left[k] = node;
+				right[k] = assignment.member(c, t);
+				node = n + k;
+				k += 1;
+			}
+		}
+		UltrametricTree ultra = new UltrametricTree(vertexIds, left, right, height, mergeCount);
+		return new ClusteringResult(assignment, ultra, 0, null);
+	}
+
+
+	private interface ChunkBody {
+		void run(int lo, int hi);
+	}
+
+	/**
+	 * Run body on the chunks of 0..count-1 on the pool, or in the calling thread if the pool is null
+	 * or there is only one chunk
+	 **/
+	private static void forChunks(ForkJoinPool pool, int parallelism, int count, ChunkBody body) {
+		int chunks = Math.min(4 * parallelism, (count + GRAIN - 1) / GRAIN);
+		if (pool == null || chunks < 2) {
+			body.run(0, count);
+			return;
+		}
+		ChunkTask[] tasks = new ChunkTask[chunks];
+		for (int c=0; c<chunks; c++) {
+			tasks[c] = new ChunkTask(body, (int) ((long) count * c / chunks), (int) ((long) count * (c+1) / chunks));
+			pool.execute(tasks[c]);
+		}
+		for (ChunkTask task : tasks) {
+			task.join();
+		}
+	}
+
+	private static class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private ChunkBody body;
+		private int lo;
+		private int hi;
+
+		ChunkTask(ChunkBody body, int lo, int hi) {
+			this.body = body;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute() {
+			body.run(lo, hi);
+		}
+	}
+}
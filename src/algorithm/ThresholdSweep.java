@@ -0,0 +1,63 @@
+package algorithm;
+
+/**
+ * Result of HeuristicCCEditing.sweepThresholds
+ *
+ * For every threshold t[i] (in the order given by the caller): the clustering disagreement and the
+ * number of clusters obtained by cutting the ultrametric tree at t[i], and the threshold with the
+ * smallest disagreement.
+ *
+ **/
+
+public class ThresholdSweep {
+
+	private double[] thresholds;
+	private double[] disagreements;
+	private int[] clusterCounts;
+	private int best;
+
+	ThresholdSweep(double[] thresholds, double[] disagreements, int[] clusterCounts) {
+		this.thresholds = thresholds;
+		this.disagreements = disagreements;
+		this.clusterCounts = clusterCounts;
+
+		// argmin; the first (in the caller's order) of equally good thresholds
+		best = -1;
+		for (int i=0; i<thresholds.length; i++) {
+			if (best == -1 || disagreements[i] < disagreements[best]) {
+				best = i;
+			}
+		}
+	}
+
+	public int size() {
+		return thresholds.length;
+	}
+
+	public double threshold(int i) {
+		return thresholds[i];
+	}
+
+	public double disagreement(int i) {
+		return disagreements[i];
+	}
+
+	public int clusterCount(int i) {
+		return clusterCounts[i];
+	}
+
+	/**
+	 * @return the index of the threshold with the smallest disagreement
+	 **/
+	public int argmin() {
+		return best;
+	}
+
+	public double bestThreshold() {
+		return thresholds[best];
+	}
+
+	public double bestDisagreement() {
+		return disagreements[best];
+	}
+}
@@ -0,0 +1,94 @@
+package algorithm;
+
+/**
+ * Path queries on a spanning tree T with vertices 1..n
+ *
+ * Paths in a tree are unique, so one depth first search from a source x gives the path T(x,y) to
+ * every other vertex y at once. pathMaxFrom(x, ...) returns max { value(e); e in T(x,y) } for all y in
+ * O(n) time, i.e. O(n^2) time for all pairs, with primitive arrays only (no shortest path objects).
+ *
+ **/
+
+public class TreePathEngine {
+
+	private int n;
+
+	// adjacency lists of the tree: for vertex v, the arcs head[v], next[head[v]], ...
+	private int[] head;
+	private int[] next;
+	private int[] to;
+	private int[] edgeOf;	// tree edge id of each arc
+
+	// work arrays of the depth first search
+	private int[] stack;
+	private int[] parent;
+
+	/**
+	 * @param n - number of vertices; the vertices are 1..n
+	 * @param src - source vertex of each tree edge
+	 * @param trg - target vertex of each tree edge; the tree edge ids are 0..src.length-1
+	 **/
+	public TreePathEngine(int n, int[] src, int[] trg) {
+		this.n = n;
+		int m = src.length;
+
+		head = new int[n+1];
+		next = new int[2*m];
+		to = new int[2*m];
+		edgeOf = new int[2*m];
+		java.util.Arrays.fill(head, -1);
+
+		for (int e=0; e<m; e++) {
+			addArc(2*e, src[e], trg[e], e);
+			addArc(2*e + 1, trg[e], src[e], e);
+		}
+
+		stack = new int[n+1];
+		parent = new int[n+1];
+	}
+
+	private void addArc(int arc, int u, int v, int e) {
+		to[arc] = v;
+		edgeOf[arc] = e;
+		next[arc] = head[u];
+		head[u] = arc;
+	}
+
+	/**
+	 * For every vertex y, out[y] = max { edgeValue[e]; e in T(source,y) }, where the maximum starts at 0.
+	 * out[source] = 0, and out[y] = 0 for vertices not reachable from source.
+	 *
+	 * @param source - the source vertex x
+	 * @param edgeValue - value of each tree edge (indexed by tree edge id)
+	 * @param out - array of length at least n+1
+	 **/
+	public void pathMaxFrom(int source, double[] edgeValue, double[] out) {
+		java.util.Arrays.fill(out, 0, n+1, 0.0);
+
+		int top = 0;
+		stack[top++] = source;
+		parent[source] = 0;
+
+		while (top > 0) {
+			int u = stack[--top];
+			for (int arc=head[u]; arc!=-1; arc=next[arc]) {
+				int v = to[arc];
+				if (v == parent[u]) continue;
+
+				parent[v] = u;
+				double value = edgeValue[edgeOf[arc]];
+				out[v] = (out[u] < value) ? value : out[u];
+				stack[top++] = v;
+			}
+		}
+	}
+
+	/**
+	 * Mark the tree neighbours of vertex v in mark (mark[u] = stamp)
+	 **/
+	public void markNeighbours(int v, int[] mark, int stamp) {
+		for (int arc=head[v]; arc!=-1; arc=next[arc]) {
+			mark[to[arc]] = stamp;
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package algorithm;
+
+/**
+ * Separation routine for the triangle inequalities of the Correlation Clustering LP
+ *
+ * Scans the upper triangle of a solution matrix for violated triangle inequalities and keeps only
+ * the k most violated ones in a bounded min-heap, so the memory for the cuts stays O(k) no matter
+ * how many triangles are violated.
+ *
+ * A violated inequality x_{uw} > x_{ua} + x_{aw} + tolerance has two short sides at its apex a:
+ * both are below max(x) - min(x, 0) - tolerance (about 1 - tolerance). So instead of all C(n,3)
+ * triples only the pairs of short sides at every vertex are checked, in O(n^2 + sum_a d_a^2) time
+ * for d_a short sides at a. In a clustered solution the long pairs (x near 1, different clusters)
+ * dominate and d_a is about the size of the cluster of a. Every violated inequality has exactly one
+ * apex, so it is found once.
+ *
+ * A cut (i, j, k, type) with i < j < k stands for:
+ * 		type 0:  x_{ij} + x_{jk} - x_{ik} >= 0
+ * 		type 1:  x_{ij} + x_{ik} - x_{jk} >= 0
+ * 		type 2:  x_{jk} + x_{ik} - x_{ij} >= 0
+ *
+ **/
+
+class TriangleSeparator {
+
+	int size;				// number of cuts kept
+	double[] violation;		// violation of each kept cut
+	int[] ci;
+	int[] cj;
+	int[] ck;
+	int[] type;
+
+	private TriangleSeparator(int maxCuts) {
+		violation = new double[maxCuts];
+		ci = new int[maxCuts];
+		cj = new int[maxCuts];
+		ck = new int[maxCuts];
+		type = new int[maxCuts];
+	}
+
+	/**
+	 * Find the (at most) maxCuts most violated triangle inequalities
+	 * @param x - upper triangle of the solution matrix: x[i][j-i-1] is x_{ij}, 1 <= i < j <= n
+	 * @param n - number of vertices
+	 * @param tolerance - only inequalities violated by more than tolerance are reported
+	 * @param maxCuts - the maximum number of cuts to return
+	 *
+	 * @return the kept cuts, the most violated first
+	 **/
+	static TriangleSeparator separate(double[][] x, int n, double tolerance, int maxCuts) {
+		TriangleSeparator cuts = new TriangleSeparator(maxCuts);
+
+		// a side of a violated triangle is shorter than max - min(min, 0) - tolerance
+		double max = 0;
+		double min = 0;
+		for (int i=1; i<n; i++) {
+			for (double v : x[i]) {
+				if (v > max) max = v;
+				if (v < min) min = v;
+			}
+		}
+		double limit = max - min - tolerance;
+
+		// short sides of every vertex in CSR format; the neighbours of a vertex are ascending
+		int[] start = new int[n+2];
+		for (int i=1; i<n; i++) {
+			double[] xi = x[i];
+			for (int t=0; t<xi.length; t++) {
+				if (xi[t] < limit) {
+					start[i+1] += 1;
+					start[i+t+2] += 1;
+				}
+			}
+		}
+		for (int i=1; i<n+1; i++) {
+			start[i+1] += start[i];
+		}
+		int[] neighbour = new int[start[n+1]];
+		double[] side = new double[start[n+1]];
+		int[] next = java.util.Arrays.copyOf(start, n+1);
+		for (int i=1; i<n; i++) {
+			double[] xi = x[i];
+			for (int t=0; t<xi.length; t++) {
+				if (xi[t] < limit) {
+					int j = i+t+1;
+					neighbour[next[i]] = j;
+					side[next[i]++] = xi[t];
+					neighbour[next[j]] = i;
+					side[next[j]++] = xi[t];
+				}
+			}
+		}
+
+		// x_{uw} - x_{ua} - x_{aw} for the apex a and its short sides (a,u), (a,w), u < w
+		for (int a=1; a<n+1; a++) {
+			for (int p=start[a]; p<start[a+1]; p++) {
+				int u = neighbour[p];
+				double xau = side[p];
+				double[] xu = x[u];
+				for (int q=p+1; q<start[a+1]; q++) {
+					double s = xau + side[q];
+					if (s >= limit) continue;
+					int w = neighbour[q];
+					double v = xu[w-u-1] - s;
+					if (v <= tolerance) continue;
+
+					// the apex is the smallest, the middle or the largest vertex of the triangle
+					if (a < u) {
+						cuts.offer(v, a, u, w, 1);
+					}
+					else if (a < w) {
+						cuts.offer(v, u, a, w, 0);
+					}
+					else {
+						cuts.offer(v, u, w, a, 2);
+					}
+				}
+			}
+		}
+		cuts.sortDescending();
+		return cuts;
+	}
+
+	/**
+	 * Keep the cut if the heap is not full or it is more violated than the least violated kept cut
+	 **/
+	private void offer(double v, int i, int j, int k, int t) {
+		int capacity = violation.length;
+		if (capacity == 0) return;
+
+		if (size < capacity) {
+			set(size, v, i, j, k, t);
+			siftUp(size);
+			size += 1;
+		}
+		else if (v > violation[0]) {
+			set(0, v, i, j, k, t);
+			siftDown(0, size);
+		}
+	}
+
+	/**
+	 * Heap-sort the kept cuts so that the most violated cut comes first
+	 **/
+	private void sortDescending() {
+		for (int last=size-1; last>0; last--) {
+			swap(0, last);
+			siftDown(0, last);
+		}
+	}
+
+	private void siftUp(int pos) {
+		while (pos > 0) {
+			int parent = (pos - 1) / 2;
+			if (violation[parent] <= violation[pos]) break;
+			swap(parent, pos);
+			pos = parent;
+		}
+	}
+
+	private void siftDown(int pos, int heapSize) {
+		while (true) {
+			int left = 2*pos + 1;
+			if (left >= heapSize) break;
+			int smallest = left;
+			int right = left + 1;
+			if (right < heapSize && violation[right] < violation[left]) smallest = right;
+			if (violation[pos] <= violation[smallest]) break;
+			swap(pos, smallest);
+			pos = smallest;
+		}
+	}
+
+	private void set(int pos, double v, int i, int j, int k, int t) {
+		violation[pos] = v;
+		ci[pos] = i;
+		cj[pos] = j;
+		ck[pos] = k;
+		type[pos] = t;
+	}
+
+	private void swap(int a, int b) {
+		double v = violation[a]; violation[a] = violation[b]; violation[b] = v;
+		int t;
+		t = ci[a]; ci[a] = ci[b]; ci[b] = t;
+		t = cj[a]; cj[a] = cj[b]; cj[b] = t;
+		t = ck[a]; ck[a] = ck[b]; ck[b] = t;
+		t = type[a]; type[a] = type[b]; type[b] = t;
+	}
+}
@@ -1,9 +1,5 @@
 package algorithm;
 
-import java.util.HashMap;
-import java.util.List;
-
-import org.jgrapht.alg.DijkstraShortestPath;
 import org.jgrapht.alg.KruskalMinimumSpanningTree;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
@@ -17,7 +13,7 @@ public class Ultrametric {
 	 * 
 	 * This method implements the Closest Ultrametric Distance matrix algorithm proposed in Krivanek (1988). And finally
 	 * returns rounding distance matrix by using given threshold.
-	 * Time complexity: O(n^3) + O(n^2)
+	 * Time complexity: O(n^2 log n) for the spanning tree + O(n^2) for the path queries (TreePathEngine)
 	 * 
 	 * @param inducedWeightedGraph - the weighted graph induced by the solution matrix obtained from relaxed ILP.
 	 * @return rounding distance matrix (rounded to 0/1).
@@ -46,63 +42,50 @@ public class Ultrametric {
 				new KruskalMinimumSpanningTree<Integer, DefaultWeightedEdge>(inducedWeightedGraph);
 		//System.out.println("EdgeSet MST: " + spanningTree.getMinimumSpanningTreeEdgeSet());
 
-		// Create a weighted version of minimmum spanning tree:
-		SimpleWeightedGraph<Integer, DefaultWeightedEdge> weightedMST = 
-				new SimpleWeightedGraph<Integer, DefaultWeightedEdge> (DefaultWeightedEdge.class);
+		// Create a weighted version of minimmum spanning tree (negative weights are set to 0),
+		// kept as primitive arrays for the path queries
+		int treeSize = spanningTree.getMinimumSpanningTreeEdgeSet().size();
+		int[] treeSrc = new int[treeSize];
+		int[] treeTrg = new int[treeSize];
+		double[] treeW = new double[treeSize];
+		int t = 0;
 
-		// Add vertices and edge to the weighted minimum spanning tree 
 		for (DefaultWeightedEdge e : spanningTree.getMinimumSpanningTreeEdgeSet()) {	//for-loop-1
 			int src = inducedWeightedGraph.getEdgeSource(e);
 			int trg = inducedWeightedGraph.getEdgeTarget(e);
 			double weight = inducedWeightedGraph.getEdgeWeight(e);
 			//System.out.println("src: " + src + "; trg: " + trg + "; w("+src+","+ trg+"): " + weight);
 
-			//add vertices and weighted edge
-			weightedMST.addVertex(src);
-			weightedMST.addVertex(trg);
-			if (weight >= 0) {
-				weightedMST.setEdgeWeight(weightedMST.addEdge(src, trg), weight);
-			}
-			else {
-				weightedMST.setEdgeWeight(weightedMST.addEdge(src, trg), 0);
-			}
-
+			//add weighted edge
+			treeSrc[t] = src;
+			treeTrg[t] = trg;
+			treeW[t] = (weight >= 0) ? weight : 0;
+			t += 1;
 		}	//end-for-loop-1
-		// Print the weightedMST
-		//System.out.println("Weighted Spanning Tree: " + weightedMST);
+
+		// Root the tree once; T(x,y) of all pairs are answered by one depth first search per x
+		TreePathEngine tree = new TreePathEngine(n, treeSrc, treeTrg);
+		double[] pathMax = new double[n+1];
+		int[] treeNeighbour = new int[n+1];
 
 		/**
 		 * STEP 2: Compute valuation w': E(T)--> R0+ such that 
 		 * 		   w'(e) = max { w(x,y); w(e) = max { w(f); f in T(x,y)}}.
 		 * Here E(T) is the edge set of the weightedMinSpanning tree T. 
+		 * 
+		 * wPr_f is the maximum of max { w(f); f in T(x,y) } over all pairs (x,y) that are not edges of T,
+		 * and w'(e) = max { w(e), wPr_f } for every edge e of T.
 		 **/
-		//Create an two dimension array for storing w'(e) as HashMap<Edge, w'(e)>
-		HashMap<DefaultWeightedEdge, Double> wPr = new HashMap<DefaultWeightedEdge, Double>();
 		double wPr_f = 0;
 		
 		for (int x=1; x<=n; x++){
+			tree.pathMaxFrom(x, treeW, pathMax);
+			tree.markNeighbours(x, treeNeighbour, x);
+
 			for (int y=x+1; y<=n; y++){
 				// Check the edge (x,y) does not exist in E(T)
-				if (!weightedMST.containsEdge(x, y)|| !weightedMST.containsEdge(y, x)) {
-					
-					//T(x,y): the path edges between the nodes (x,y) using DijkstraShoteshPath algorithm (jGrapht)
-					List<DefaultWeightedEdge> path_T_xy = 
-							new DijkstraShortestPath<Integer, DefaultWeightedEdge>
-					(weightedMST, x, y).getPathEdgeList();
-					
-					double wPr_xy = 0;
-					
-					for (DefaultWeightedEdge e : path_T_xy){
-						// Get edge weight of e in weithedMST
-						double w_e  = weightedMST.getEdgeWeight(e);
-						
-						// Get wPr_xy = max {w_e; e \in path_T_xy}
-						if (wPr_xy < w_e){
-							wPr_xy = w_e;
-						}
-					}
-					// Store the value of wPr_xy in wPr
-					wPr.put(inducedWeightedGraph.getEdge(x, y), wPr_xy);
+				if (treeNeighbour[y] != x) {
+					double wPr_xy = pathMax[y];
 					
 					// If wPr_f < wPr_xy then 
 					if (wPr_f < wPr_xy) {
@@ -113,54 +96,24 @@ public class Ultrametric {
 		}
 		//System.out.println("wPr_f: " + wPr_f);
 		
-		for (DefaultWeightedEdge e : weightedMST.edgeSet()){
-			double wPr_e = weightedMST.getEdgeWeight(e);
-			//wPr.put(e, wPr_e);
-			if (wPr_e < wPr_f){
-				wPr.put(e, wPr_f);
-				//System.out.println(e + ": "+ wPr_f);
-			}
-			else {
-				wPr.put(e, wPr_e);
-				//System.out.println(e + ": "+ wPr_e);
-			}
-		}
-		
 		/**
 		 * STEP 3: Finding Ultrametric
 		 * u*(x,y) = 0.5 * max {w'(e) + w(e) ; e in T(x,y)} 
 		 **/
+		// u(e) = 0.5 * (w(e) + w'(e)) for every edge e of T
+		double[] u = new double[treeSize];
+		for (int e=0; e<treeSize; e++) {
+			double w_e = treeW[e];
+			double wPr_e = (w_e < wPr_f) ? wPr_f : w_e;
+			u[e] = 0.500 * (w_e + wPr_e);
+		}
 
 		for (int x = 1; x <= n; x++) { 				//for-loop-6
-			for (int y = x+1; y <= n; y++) {			//for-loop-7
-				double u_star_xy = 0.0;
-
-				// T(x,y): the path edges between the nodes (x,y) using DijkstraShoteshPath algorithm (jGrapht)
-				List<DefaultWeightedEdge> path_T_xy = 
-						new DijkstraShortestPath<Integer, DefaultWeightedEdge>
-				(weightedMST, x, y).getPathEdgeList();
+			// u*(x,y) = max {u(e); e in T(x,y)} for all y
+			tree.pathMaxFrom(x, u, pathMax);
 
-				//Iterating for each edge in T(x,y)
-				for (DefaultWeightedEdge e : path_T_xy) {		//for-loop-8
-
-					//Getting edge weight w(e)
-					double w_e = inducedWeightedGraph.getEdgeWeight(e);
-					//System.out.println("e = " + e + "; w_e("+ e + ") = " + w_e);
-					
-					//Getting valuation for edge e, i.e. w'(e)
-					double wPr_e = wPr.get(e);
-	
-					//Calculating u(x,y) = 0.5 * (w_e + wPr_e)
-					double u_xy = 0.500 * (w_e + wPr_e);
-					//System.out.println("wPr_e ("+ e + ")= " + wPr_e + "; u_xy(" + e + ") = " + u_xy);
-
-					//Checking max for u*(x,y) = max {u(x,y)}
-					if (u_star_xy < u_xy) {
-						u_star_xy = u_xy;
-					}
-					else continue;
-
-				} //end-for-loop-8
+			for (int y = x+1; y <= n; y++) {			//for-loop-7
+				double u_star_xy = pathMax[y];
 				//System.out.println("u*_xy = " + u_star_xy +"; w_xy = " + u_star_xy );
 
 				//add vertices and edge to ultrametricRoundGraph
@@ -176,6 +129,167 @@ public class Ultrametric {
 	} 
 	
 
+	/**
+	 * Closest Ultrametric (Krivanek 1988) as a single-linkage dendrogram
+	 * 
+	 * Same ultrametric as getUltrametricDistanceMatrixGraph, in O(n) memory. The path maximum 
+	 * max { w(f); f in T(x,y) } is the height of the Kruskal merge that first joins x and y, and 
+	 * u(e) = 0.5 * (w(e) + w'(e)) is non-decreasing in w(e), hence u*(x,y) = u(merge of x and y).
+	 * The merge of two clusters of sizes a and b covers a*b pairs of which exactly one is an edge of T, 
+	 * so wPr_f is the largest merge height with a*b > 1.
+	 * 
+	 * @param inducedWeightedGraph - the weighted graph induced by the solution matrix obtained from relaxed ILP.
+	 * @return the ultrametric tree; leaf i is the i-th smallest vertex id
+	 **/
+	public static UltrametricTree getUltrametricTree(SimpleWeightedGraph<Integer, DefaultWeightedEdge> inducedWeightedGraph) {
+
+		// vertex ids in ascending order; leaf i is vertexIds[i]
+		int n = inducedWeightedGraph.vertexSet().size();
+		int[] vertexIds = new int[n];
+		int i = 0;
+		for (int v : inducedWeightedGraph.vertexSet()) {
+			vertexIds[i++] = v;
+		}
+		java.util.Arrays.sort(vertexIds);
+
+		// edge list in primitive arrays
+		int m = inducedWeightedGraph.edgeSet().size();
+		int[] src = new int[m];
+		int[] trg = new int[m];
+		double[] w = new double[m];
+		int t = 0;
+		for (DefaultWeightedEdge e : inducedWeightedGraph.edgeSet()) {
+			src[t] = java.util.Arrays.binarySearch(vertexIds, inducedWeightedGraph.getEdgeSource(e));
+			trg[t] = java.util.Arrays.binarySearch(vertexIds, inducedWeightedGraph.getEdgeTarget(e));
+			w[t] = inducedWeightedGraph.getEdgeWeight(e);
+			t += 1;
+		}
+		return getUltrametricTree(vertexIds, src, trg, w, m);
+	}
+
+	/**
+	 * Closest Ultrametric as a single-linkage dendrogram from an edge list
+	 * 
+	 * @param vertexIds - vertex id of each leaf 0..n-1
+	 * @param src - source leaf of each edge
+	 * @param trg - target leaf of each edge
+	 * @param w - weight of each edge (the relaxed solution x_{ij}); the arrays are reordered
+	 * @param m - number of edges
+	 * @return the ultrametric tree
+	 **/
+	public static UltrametricTree getUltrametricTree(int[] vertexIds, int[] src, int[] trg, double[] w, int m) {
+
+		int n = vertexIds.length;
+
+		/**
+		 * STEP 1: Kruskal's algorithm; every tree edge is a merge of two clusters
+		 **/
+		sortByWeight(w, src, trg, 0, m-1);
+
+		int[] uf = new int[n];			// union-find parent
+		int[] clusterNode = new int[n];	// dendrogram node of each union-find root
+		int[] clusterSize = new int[n];
+		for (int v=0; v<n; v++) {
+			uf[v] = v;
+			clusterNode[v] = v;
+			clusterSize[v] = 1;
+		}
+
+		int[] left = new int[Math.max(n-1, 0)];
+		int[] right = new int[Math.max(n-1, 0)];
+		double[] h = new double[Math.max(n-1, 0)];	// path maximum (weights < 0 set to 0)
+		int k = 0;
+
+		/**
+		 * STEP 2: wPr_f = max { h_k; merge k covers more than one vertex pair }
+		 **/
+		double wPr_f = 0;
+
+		for (int e=0; e<m && k<n-1; e++) {
+			int a = find(uf, src[e]);
+			int b = find(uf, trg[e]);
+			if (a == b) continue;
+
+			left[k] = clusterNode[a];
+			right[k] = clusterNode[b];
+			h[k] = (w[e] >= 0) ? w[e] : 0;
+			if ((long) clusterSize[a] * clusterSize[b] > 1 && wPr_f < h[k]) {
+				wPr_f = h[k];
+			}
+
+			uf[a] = b;
+			clusterSize[b] += clusterSize[a];
+			clusterNode[b] = n + k;
+			k += 1;
+		}
+
+		/**
+		 * STEP 3: u*(merge k) = 0.5 * (w(e) + w'(e)), with w'(e) = max { w(e), wPr_f }
+		 **/
+		for (int j=0; j<k; j++) {
+			double wPr_e = (h[j] < wPr_f) ? wPr_f : h[j];
+			h[j] = 0.500 * (h[j] + wPr_e);
+		}
+		return new UltrametricTree(vertexIds, left, right, h, k);
+	}
+
+	private static int find(int[] uf, int v) {
+		while (uf[v] != v) {
+			uf[v] = uf[uf[v]];
+			v = uf[v];
+		}
+		return v;
+	}
+
+	/**
+	 * Sort the edges in [lo, hi] by weight (quicksort; the endpoint arrays are permuted along)
+	 * Also used to sort any double keys with two int payload arrays
+	 **/
+	static void sortByWeight(double[] w, int[] src, int[] trg, int lo, int hi) {
+		while (hi - lo > 16) {
+			int mid = (lo + hi) >>> 1;
+			// median of three as pivot
+			if (w[mid] < w[lo]) swap(w, src, trg, mid, lo);
+			if (w[hi] < w[lo]) swap(w, src, trg, hi, lo);
+			if (w[hi] < w[mid]) swap(w, src, trg, hi, mid);
+			double pivot = w[mid];
+
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (w[i] < pivot) i++;
+				while (w[j] > pivot) j--;
+				if (i <= j) {
+					swap(w, src, trg, i, j);
+					i++;
+					j--;
+				}
+			}
+			// recurse into the smaller part, loop on the larger one
+			if (j - lo < hi - i) {
+				sortByWeight(w, src, trg, lo, j);
+				lo = i;
+			}
+			else {
+				sortByWeight(w, src, trg, i, hi);
+				hi = j;
+			}
+		}
+		// insertion sort for short ranges
+		for (int i=lo+1; i<=hi; i++) {
+			for (int j=i; j>lo && w[j] < w[j-1]; j--) {
+				swap(w, src, trg, j, j-1);
+			}
+		}
+	}
+
+	private static void swap(double[] w, int[] src, int[] trg, int i, int j) {
+		double tw = w[i]; w[i] = w[j]; w[j] = tw;
+		int t = src[i]; src[i] = src[j]; src[j] = t;
+		t = trg[i]; trg[i] = trg[j]; trg[j] = t;
+	}
+	
+
 	// Main method
 	public static void main (String[] args){
 
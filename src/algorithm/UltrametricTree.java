@@ -0,0 +1,166 @@
+package algorithm;
+
+/**
+ * Ultrametric as a single-linkage dendrogram
+ *
+ * The ultrametric u* of Ultrametric is fully described by the merge order of Kruskal's algorithm:
+ * u*(x,y) is the height of the merge that first puts x and y into the same cluster. The tree stores
+ * the n leaves (vertices) as nodes 0..n-1 and the merges as nodes n..n+mergeCount-1, with parent
+ * pointers and merge heights in primitive arrays, i.e. O(n) memory instead of a complete graph.
+ *
+ * A merge node is always created after its children, so parent(v) > v for every node v.
+ * If the merges do not connect all vertices, the tree is a forest and vertices in different trees
+ * are at distance +infinity. The leaves are ordered by ascending vertex id.
+ *
+ **/
+
+public class UltrametricTree {
+
+	private int n;				// number of leaves (vertices)
+	private int mergeCount;		// number of merges (internal nodes)
+	private int[] vertexIds;	// vertex id of each leaf
+	private int[] left;			// children of the merge nodes, indexed by merge k (node n+k)
+	private int[] right;
+	private double[] height;	// merge heights, indexed by merge k
+	private int[] parent;		// parent of each node, -1 for a root
+	private int[] depth;		// depth of each node below its root
+
+	/**
+	 * @param vertexIds - vertex id of each leaf 0..n-1
+	 * @param left - first child (node id) of each merge k; the merge is node n+k
+	 * @param right - second child (node id) of each merge k
+	 * @param height - ultrametric height of each merge
+	 * @param mergeCount - number of merges (at most n-1)
+	 **/
+	public UltrametricTree(int[] vertexIds, int[] left, int[] right, double[] height, int mergeCount) {
+		this.n = vertexIds.length;
+		this.mergeCount = mergeCount;
+		this.vertexIds = vertexIds;
+		this.left = left;
+		this.right = right;
+		this.height = height;
+
+		int nodes = n + mergeCount;
+		parent = new int[nodes];
+		depth = new int[nodes];
+		java.util.Arrays.fill(parent, -1);
+		for (int k=0; k<mergeCount; k++) {
+			parent[left[k]] = n + k;
+			parent[right[k]] = n + k;
+		}
+
+		// parents have larger ids than their children, so a top-down pass is a backward scan
+		for (int v=nodes-1; v>=0; v--) {
+			depth[v] = (parent[v] == -1) ? 0 : depth[parent[v]] + 1;
+		}
+	}
+
+	/**
+	 * @return the number of leaves (vertices)
+	 **/
+	public int size() {
+		return n;
+	}
+
+	public int mergeCount() {
+		return mergeCount;
+	}
+
+	public int vertexId(int leaf) {
+		return vertexIds[leaf];
+	}
+
+	/**
+	 * @return the leaf of the vertex id, or a negative value if the vertex is not a leaf
+	 * (the leaves are ordered by ascending vertex id)
+	 **/
+	public int leafOf(int vertexId) {
+		return java.util.Arrays.binarySearch(vertexIds, vertexId);
+	}
+
+	public double mergeHeight(int k) {
+		return height[k];
+	}
+
+	public int mergeLeft(int k) {
+		return left[k];
+	}
+
+	public int mergeRight(int k) {
+		return right[k];
+	}
+
+	/**
+	 * @return the parent node of node v, or -1 if v is a root
+	 **/
+	public int parent(int v) {
+		return parent[v];
+	}
+
+	/**
+	 * Height of node v: 0 for a leaf, the merge height for a merge node
+	 **/
+	public double nodeHeight(int v) {
+		return (v < n) ? 0 : height[v - n];
+	}
+
+	/**
+	 * Lowest common ancestor of two nodes
+	 * @return the lowest common ancestor, or -1 if the nodes are in different trees of the forest
+	 **/
+	public int lca(int x, int y) {
+		while (depth[x] > depth[y]) x = parent[x];
+		while (depth[y] > depth[x]) y = parent[y];
+		while (x != y) {
+			x = parent[x];
+			y = parent[y];
+			if (x == -1) return -1;
+		}
+		return x;
+	}
+
+	/**
+	 * Ultrametric distance u*(x,y) between two leaves
+	 **/
+	public double distance(int x, int y) {
+		if (x == y) return 0;
+		int a = lca(x, y);
+		return (a == -1) ? Double.POSITIVE_INFINITY : height[a - n];
+	}
+
+	/**
+	 * Cut the tree at the threshold: two leaves are in the same cluster iff u*(x,y) <= threshold
+	 * Time complexity: O(n)
+	 *
+	 * @return cluster label of each leaf; labels are 0..k-1 in order of the first leaf of each cluster
+	 **/
+	public int[] cut(double threshold) {
+		int nodes = n + mergeCount;
+
+		// clusterNode[v]: the highest node above v whose merges are all below the threshold
+		int[] clusterNode = new int[nodes];
+		for (int v=nodes-1; v>=0; v--) {
+			int p = parent[v];
+			if (p != -1 && height[p - n] <= threshold) {
+				clusterNode[v] = clusterNode[p];
+			}
+			else {
+				clusterNode[v] = v;
+			}
+		}
+
+		int[] labelOfNode = new int[nodes];
+		java.util.Arrays.fill(labelOfNode, -1);
+		int[] labels = new int[n];
+		int k = 0;
+		for (int leaf=0; leaf<n; leaf++) {
+			int c = clusterNode[leaf];
+			if (labelOfNode[c] == -1) {
+				labelOfNode[c] = k;
+				k += 1;
+			}
+			labels[leaf] = labelOfNode[c];
+		}
+		return labels;
+	}
+}
@@ -0,0 +1,88 @@
+package algorithm;
+
+/**
+ * Disjoint-set forest over the elements 0..n-1 (union by rank, path compression)
+ *
+ * Any sequence of m operations takes O(m alpha(n)) time, alpha the inverse Ackermann function.
+ *
+ **/
+
+public class UnionFind {
+
+	private int[] parent;
+	private byte[] rank;
+	private int[] size;
+	private int sets;
+
+	public UnionFind(int n) {
+		parent = new int[n];
+		rank = new byte[n];
+		size = new int[n];
+		for (int v=0; v<n; v++) {
+			parent[v] = v;
+			size[v] = 1;
+		}
+		sets = n;
+	}
+
+	/**
+	 * @return the root (representative) of the set of v
+	 **/
+	public int find(int v) {
+		int root = v;
+		while (parent[root] != root) {
+			root = parent[root];
+		}
+		// path compression
+		while (parent[v] != root) {
+			int next = parent[v];
+			parent[v] = root;
+			v = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Join the sets of a and b
+	 * @return the root of the joined set
+	 **/
+	public int union(int a, int b) {
+		int ra = find(a);
+		int rb = find(b);
+		if (ra == rb) return ra;
+
+		if (rank[ra] < rank[rb]) {
+			int t = ra; ra = rb; rb = t;
+		}
+		parent[rb] = ra;
+		size[ra] += size[rb];
+		if (rank[ra] == rank[rb]) rank[ra] += 1;
+		sets -= 1;
+		return ra;
+	}
+
+	public boolean connected(int a, int b) {
+		return find(a) == find(b);
+	}
+
+	/**
+	 * @return the number of elements in the set of v
+	 **/
+	public int size(int v) {
+		return size[find(v)];
+	}
+
+	/**
+	 * @return the number of disjoint sets
+	 **/
+	public int setCount() {
+		return sets;
+	}
+
+	/**
+	 * @return the number of elements
+	 **/
+	public int elementCount() {
+		return parent.length;
+	}
+}
@@ -0,0 +1,201 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+
+import algorithm.CCEditing;
+import algorithm.PdhgLpBackend;
+import graphImporter.ReadGraph_w_edgeList;
+import randomSignedGraphGenerator.RandomSignedGraph;
+import signedGraph.GraphSnapshot;
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Fixtures of the microbenchmarks
+ *
+ * For every size n and edge density e the fixture directory holds
+ * 		signed_n<n>_e<e>.csv	- the signed random network G(n, e, POSITIVE) with the seed SEED
+ * 		signed_n<n>_e<e>.tsv	- its edges without weights (tab separated, for ReadGraph_uw_edgeList)
+ * 		signed_n<n>_e<e>.gml	- the signed random network in GML (node and edge blocks, weight attribute)
+ * 		relaxed_n<n>_e<e>.csv	- the induced weighted graph of the relaxed ILP solution of the signed graph
+ * 		relaxed_n<n>_e<e>.ccsg	- the same graph as a binary snapshot (GraphSnapshot)
+ * in the format of ReadGraph_w_edgeList (source,target,weight). The vertices without edges are listed
+ * in a comment line after the header (#Isolated,<id>,<id>,...), which the edge list readers skip;
+ * signedGraph and relaxedGraph add them back. The benchmarks only read these files,
+ * so no LP solver runs while benchmarking. A missing fixture is created once with the pure Java PDHG
+ * backend (lazy triangle constraints); run main to create the fixtures of all default parameters.
+ *
+ **/
+
+public class Fixtures {
+
+	public static final String DIRECTORY = "data/fixtures";
+
+	// probability that an edge is positive
+	public static final double POSITIVE = 0.5;
+
+	// seed of the random networks
+	public static final long SEED = 20161012L;
+
+	// default parameters of the benchmarks
+	public static final int[] SIZES = {50, 100, 200};
+	public static final double[] DENSITIES = {0.1, 0.5, 0.9};
+
+	// comment line of the vertices without edges
+	private static final String ISOLATED = "#Isolated";
+
+	public static String signedGraphFile(int n, double density) {
+		return DIRECTORY + "/signed_n" + n + "_e" + density + ".csv";
+	}
+
+	public static String unweightedGraphFile(int n, double density) {
+		return DIRECTORY + "/signed_n" + n + "_e" + density + ".tsv";
+	}
+
+	public static String gmlGraphFile(int n, double density) {
+		return DIRECTORY + "/signed_n" + n + "_e" + density + ".gml";
+	}
+
+	public static String relaxedGraphFile(int n, double density) {
+		return DIRECTORY + "/relaxed_n" + n + "_e" + density + ".csv";
+	}
+
+	public static String relaxedSnapshotFile(int n, double density) {
+		return DIRECTORY + "/relaxed_n" + n + "_e" + density + GraphSnapshot.EXTENSION;
+	}
+
+	/**
+	 * @return the signed random network of the fixture
+	 **/
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> signedGraph(int n, double density) throws IOException {
+		create(n, density);
+		return readWithIsolated(signedGraphFile(n, density));
+	}
+
+	/**
+	 * @return the induced weighted graph of the relaxed ILP solution of the fixture
+	 **/
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> relaxedGraph(int n, double density) throws IOException {
+		create(n, density);
+		return readWithIsolated(relaxedGraphFile(n, density));
+	}
+
+	/**
+	 * Read an edge list fixture with ReadGraph_w_edgeList and add the vertices of its #Isolated line
+	 **/
+	private static SimpleWeightedGraph<Integer, DefaultWeightedEdge> readWithIsolated(String filename) throws IOException {
+		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = ReadGraph_w_edgeList.fromFile(filename);
+		BufferedReader r = new BufferedReader(new FileReader(filename));
+		try {
+			String line;
+			while ((line = r.readLine()) != null && line.startsWith("#")) {
+				if (!line.startsWith(ISOLATED)) continue;
+				String[] ids = line.split("[,\t]");
+				for (int t=1; t<ids.length; t++) {
+					g.addVertex(Integer.parseInt(ids[t].trim()));
+				}
+			}
+		} finally {
+			r.close();
+		}
+		return g;
+	}
+
+	/**
+	 * Create the fixture files of (n, density) unless they exist
+	 **/
+	public static synchronized void create(int n, double density) throws IOException {
+		File signed = new File(signedGraphFile(n, density));
+		File unweighted = new File(unweightedGraphFile(n, density));
+		File gml = new File(gmlGraphFile(n, density));
+		File relaxed = new File(relaxedGraphFile(n, density));
+		File snapshot = new File(relaxedSnapshotFile(n, density));
+		if (signed.exists() && unweighted.exists() && gml.exists() && relaxed.exists() && snapshot.exists()) return;
+
+		new File(DIRECTORY).mkdirs();
+		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g =
+				RandomSignedGraph.getGnpGraph_jGrapht(n, density, POSITIVE, new Random(SEED + n));
+		write(g, signed, true, ",");
+		write(g, unweighted, false, "\t");
+		writeGml(g, gml);
+
+		int ilpFlag = 2;	// relaxed ILP with lazy triangle constraints
+		SimpleWeightedGraph<Integer, DefaultWeightedEdge> relaxedGraph = CCEditing.ILpRelaxed(g, ilpFlag, new PdhgLpBackend());
+		write(relaxedGraph, relaxed, true, ",");
+		GraphSnapshot.write(SignedCsrGraph.fromJGraphT(relaxedGraph), snapshot.getPath());
+	}
+
+	private static void write(
+			SimpleWeightedGraph<Integer, DefaultWeightedEdge> g,
+			File file,
+			boolean weighted,
+			String separator
+			) throws IOException {
+
+		PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+		try {
+			w.println(weighted ? "#Source,Target,weight" : "#Source\tTarget");
+			StringBuilder isolated = new StringBuilder(ISOLATED);
+			for (int v : g.vertexSet()) {
+				if (g.degreeOf(v) == 0) isolated.append(separator).append(v);
+			}
+			if (isolated.length() > ISOLATED.length()) {
+				w.println(isolated);
+			}
+			for (DefaultWeightedEdge e : g.edgeSet()) {
+				w.print(g.getEdgeSource(e) + separator + g.getEdgeTarget(e));
+				w.println(weighted ? separator + g.getEdgeWeight(e) : "");
+			}
+		} finally {
+			w.close();
+		}
+	}
+
+	private static void writeGml(SimpleWeightedGraph<Integer, DefaultWeightedEdge> g, File file) throws IOException {
+		PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+		try {
+			w.println("graph [");
+			w.println("  directed 0");
+			for (int v : g.vertexSet()) {
+				w.println("  node [ id " + v + " label \"" + v + "\" ]");
+			}
+			for (DefaultWeightedEdge e : g.edgeSet()) {
+				w.println("  edge [");
+				w.println("    source " + g.getEdgeSource(e));
+				w.println("    target " + g.getEdgeTarget(e));
+				w.println("    weight " + g.getEdgeWeight(e));
+				w.println("  ]");
+			}
+			w.println("]");
+		} finally {
+			w.close();
+		}
+	}
+
+	/**
+	 * Create the fixtures of all default parameters (SIZES x DENSITIES)
+	 **/
+	public static void createAll() throws IOException {
+		for (int n : SIZES) {
+			for (double density : DENSITIES) {
+				long start = System.nanoTime();
+				create(n, density);
+				System.out.println("n = " + n + "; e = " + density + ": " + (System.nanoTime() - start) / 1e9 + " sec");
+			}
+		}
+	}
+
+	// Main method
+	public static void main(String[] args) throws IOException {
+		createAll();
+	}
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import randomSignedGraphGenerator.NestedSignedRandomGraphV1;
+import randomSignedGraphGenerator.NestedSignedRandomGraphV2;
+import randomSignedGraphGenerator.RandomSignedGraph;
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Microbenchmark of the random signed graph generators
+ *
+ * G(n,e,p) is generated from the fixed seed Fixtures.SEED in every invocation, with one random number per
+ * vertex pair (jGrapht graph) and with geometric skip sampling (CSR graph). The nested generators
+ * build 2 groups of n/2 vertices, with the edge density as inside-group probability p and the
+ * between-group probability r, from Fixtures.SEED with one SplittableRandom stream per block, on all
+ * processors. Their jGrapht variants draw from a shared unseeded generator and are not benchmarked.
+ *
+ * Using library: JMH; available at:  openjdk.java.net/projects/code-tools/jmh
+ *
+ **/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+
+	private static final int GROUPS = 2;
+
+	@Param({"50", "100", "200"})
+	public int n;
+
+	@Param({"0.1", "0.5", "0.9"})
+	public double density;
+
+	@Benchmark
+	public SimpleWeightedGraph<Integer, DefaultWeightedEdge> gnp() {
+		return RandomSignedGraph.getGnpGraph_jGrapht(n, density, Fixtures.POSITIVE, new Random(Fixtures.SEED));
+	}
+
+	@Benchmark
+	public SignedCsrGraph gnpSkipSampling() {
+		return RandomSignedGraph.getGnpGraph_Csr(n, density, Fixtures.POSITIVE, new Random(Fixtures.SEED));
+	}
+
+	@Benchmark
+	public SignedCsrGraph nestedV1Seeded() {
+		return NestedSignedRandomGraphV1.getGnpNestedGraph_Csr(GROUPS, n / GROUPS, density, density,
+				Fixtures.SEED, Runtime.getRuntime().availableProcessors());
+	}
+
+	@Benchmark
+	public SignedCsrGraph nestedV2Seeded() {
+		return NestedSignedRandomGraphV2.getJGrpahtGraph_Csr(GROUPS, n / GROUPS, density, density, 0.1, 0.1,
+				Fixtures.SEED, Runtime.getRuntime().availableProcessors());
+	}
+}
@@ -0,0 +1,114 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jgrapht.UndirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graphImporter.GmlReader;
+import graphImporter.MappedEdgeListReader;
+import graphImporter.ReadGraph_uw_edgeList;
+import graphImporter.ReadGraph_uw_edgeList_gml;
+import graphImporter.ReadGraph_w_edgeList;
+import signedGraph.GraphSnapshot;
+import signedGraph.SignedEdgeListBuilder;
+
+/**
+ * Microbenchmark of the edge list readers on the files of a fixture
+ *
+ * The relaxed solution file is a complete graph, i.e. the largest edge list of a fixture. Every file
+ * is read with the Scanner readers (into jGrapht graphs) and with MappedEdgeListReader (into
+ * primitive edge arrays, sequential and in parallel byte ranges; files below 2 MB are always read
+ * sequentially). The relaxed solution is also reloaded from its binary snapshot (GraphSnapshot), and
+ * the GML file of the signed network is read into a jGrapht graph and with the streaming GmlReader.
+ *
+ * Using library: JMH; available at:  openjdk.java.net/projects/code-tools/jmh
+ *
+ **/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+
+	@Param({"50", "100", "200"})
+	public int n;
+
+	@Param({"0.1", "0.5", "0.9"})
+	public double density;
+
+	@Setup
+	public void setup() throws IOException {
+		Fixtures.create(n, density);
+	}
+
+	@Benchmark
+	public SimpleWeightedGraph<Integer, DefaultWeightedEdge> weightedEdgeList() {
+		return ReadGraph_w_edgeList.fromFile(Fixtures.signedGraphFile(n, density));
+	}
+
+	@Benchmark
+	public UndirectedGraph<Integer, DefaultEdge> unweightedEdgeList() {
+		return ReadGraph_uw_edgeList.fromFile(Fixtures.unweightedGraphFile(n, density));
+	}
+
+	@Benchmark
+	public UndirectedGraph<Integer, DefaultEdge> gml() {
+		return ReadGraph_uw_edgeList_gml.fromFile(Fixtures.gmlGraphFile(n, density));
+	}
+
+	@Benchmark
+	public SimpleWeightedGraph<Integer, DefaultWeightedEdge> relaxedSolution() {
+		return ReadGraph_w_edgeList.fromFile(Fixtures.relaxedGraphFile(n, density));
+	}
+
+	@Benchmark
+	public SignedEdgeListBuilder mappedWeightedEdgeList() throws IOException {
+		return new MappedEdgeListReader().read(Fixtures.signedGraphFile(n, density), new SignedEdgeListBuilder());
+	}
+
+	@Benchmark
+	public SignedEdgeListBuilder mappedUnweightedEdgeList() throws IOException {
+		return new MappedEdgeListReader(MappedEdgeListReader.TAB, false)
+				.read(Fixtures.unweightedGraphFile(n, density), new SignedEdgeListBuilder());
+	}
+
+	@Benchmark
+	public SignedEdgeListBuilder streamingGml() throws IOException {
+		return new GmlReader().read(Fixtures.gmlGraphFile(n, density), new SignedEdgeListBuilder());
+	}
+
+	@Benchmark
+	public SignedEdgeListBuilder mappedRelaxedSolution() throws IOException {
+		return new MappedEdgeListReader().read(Fixtures.relaxedGraphFile(n, density), new SignedEdgeListBuilder());
+	}
+
+	@Benchmark
+	public SignedEdgeListBuilder mappedParallelRelaxedSolution() throws IOException {
+		return new MappedEdgeListReader()
+				.setParallelism(Runtime.getRuntime().availableProcessors())
+				.read(Fixtures.relaxedGraphFile(n, density), new SignedEdgeListBuilder());
+	}
+
+	@Benchmark
+	public GraphSnapshot snapshotRelaxedSolution() throws IOException {
+		return GraphSnapshot.read(Fixtures.relaxedSnapshotFile(n, density));
+	}
+}
@@ -0,0 +1,102 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import algorithm.ClusterAssignment;
+import algorithm.HeuristicCCEditing;
+import algorithm.ThresholdSweep;
+import algorithm.Ultrametric;
+import algorithm.UltrametricTree;
+import signedGraph.SignedCsrGraph;
+
+/**
+ * Microbenchmark of the rounding and disagreement kernels on the ultrametric of a fixture
+ *
+ * The ultrametric (graph and tree) is computed once in the setup; only the rounding at THRESHOLD
+ * and the disagreement of the rounded clustering are measured.
+ *
+ * Using library: JMH; available at:  openjdk.java.net/projects/code-tools/jmh
+ *
+ **/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoundingBenchmark {
+
+	private static final double THRESHOLD = 0.5;
+
+	@Param({"50", "100", "200"})
+	public int n;
+
+	@Param({"0.1", "0.5", "0.9"})
+	public double density;
+
+	private SimpleWeightedGraph<Integer, DefaultWeightedEdge> g;
+	private SignedCsrGraph csr;
+	private SimpleWeightedGraph<Integer, DefaultWeightedEdge> ultraGraph;
+	private UltrametricTree ultra;
+	private double[] thresholds;
+
+	@Setup
+	public void setup() throws IOException {
+		g = Fixtures.signedGraph(n, density);
+		csr = SignedCsrGraph.fromJGraphT(g);
+		SimpleWeightedGraph<Integer, DefaultWeightedEdge> relaxed = Fixtures.relaxedGraph(n, density);
+		ultraGraph = Ultrametric.getUltrametricDistanceMatrixGraph(relaxed);
+		ultra = Ultrametric.getUltrametricTree(relaxed);
+
+		thresholds = new double[101];
+		for (int t=0; t<=100; t++) {
+			thresholds[t] = t / 100.0;
+		}
+	}
+
+	@Benchmark
+	public SimpleWeightedGraph<Integer, DefaultWeightedEdge> clusteredGraph() {
+		return HeuristicCCEditing.getClusteredGraph(ultraGraph, THRESHOLD);
+	}
+
+	@Benchmark
+	public SimpleWeightedGraph<Integer, DefaultWeightedEdge> clusteredGraphFromTree() {
+		return HeuristicCCEditing.getClusteredGraph(ultra, THRESHOLD);
+	}
+
+	@Benchmark
+	public ClusterAssignment clustersFromGraph() {
+		return HeuristicCCEditing.getClusters(ultraGraph, THRESHOLD);
+	}
+
+	@Benchmark
+	public ClusterAssignment clustersFromTree() {
+		return HeuristicCCEditing.getClusters(ultra, THRESHOLD);
+	}
+
+	@Benchmark
+	public double disagreement() {
+		return HeuristicCCEditing.getClusteringDisaggrements(ultraGraph, g, THRESHOLD);
+	}
+
+	@Benchmark
+	public ThresholdSweep sweepThresholds() {
+		return HeuristicCCEditing.sweepThresholds(ultra, csr, thresholds);
+	}
+}
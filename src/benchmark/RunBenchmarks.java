@@ -0,0 +1,37 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run all microbenchmarks of the package benchmark
+ *
+ * The fixtures are created first (see Fixtures), so the LP solver never runs inside a benchmark.
+ * The results are written as json to data/benchmark/jmh.json. An optional argument selects the
+ * benchmarks by a regular expression, e.g. "RoundingBenchmark".
+ *
+ * Using library: JMH; available at:  openjdk.java.net/projects/code-tools/jmh
+ *
+ **/
+
+public class RunBenchmarks {
+
+	public static void main(String[] args) throws IOException, RunnerException {
+		Fixtures.createAll();
+
+		new File("data/benchmark").mkdirs();
+		String include = (args.length > 0) ? args[0] : "benchmark\\.";
+		Options options = new OptionsBuilder()
+				.include(include)
+				.resultFormat(ResultFormatType.JSON)
+				.result("data/benchmark/jmh.json")
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,60 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import algorithm.Ultrametric;
+import algorithm.UltrametricTree;
+
+/**
+ * Microbenchmark of the closest ultrametric (Krivanek) on the relaxed solution of a fixture
+ *
+ * Using library: JMH; available at:  openjdk.java.net/projects/code-tools/jmh
+ *
+ **/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UltrametricBenchmark {
+
+	@Param({"50", "100", "200"})
+	public int n;
+
+	@Param({"0.1", "0.5", "0.9"})
+	public double density;
+
+	private SimpleWeightedGraph<Integer, DefaultWeightedEdge> relaxed;
+
+	@Setup
+	public void setup() throws IOException {
+		relaxed = Fixtures.relaxedGraph(n, density);
+	}
+
+	@Benchmark
+	public SimpleWeightedGraph<Integer, DefaultWeightedEdge> distanceMatrixGraph() {
+		return Ultrametric.getUltrametricDistanceMatrixGraph(relaxed);
+	}
+
+	@Benchmark
+	public UltrametricTree ultrametricTree() {
+		return Ultrametric.getUltrametricTree(relaxed);
+	}
+}
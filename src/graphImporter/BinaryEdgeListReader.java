@@ -0,0 +1,89 @@
+package graphImporter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import signedGraph.BinaryEdgeWriter;
+import signedGraph.EdgeSink;
+import signedGraph.SignedCsrGraph;
+import signedGraph.SignedEdgeListBuilder;
+
+/**
+ * Read a binary edge list written by BinaryEdgeWriter
+ *
+ * The records are read through one fixed buffer and passed to an EdgeSink in file order, so a
+ * binary edge list can also be converted (e.g. into CSV, GraphML or a GraphSnapshot) with constant
+ * memory.
+ *
+ **/
+
+public class BinaryEdgeListReader {
+
+	// size of the read buffer (a multiple of the record size)
+	static final int BUFFER = 1 << 20;
+
+	/**
+	 * Read the binary edge list into a CSR graph
+	 **/
+	public static SignedCsrGraph fromFile(String filename) throws IOException {
+		SignedEdgeListBuilder builder = new SignedEdgeListBuilder();
+		read(filename, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Pass the vertices and edges of the binary edge list to the sink, in file order
+	 * @throws IOException if the file is not a binary edge list, was not closed or is truncated
+	 **/
+	public static void read(String filename, EdgeSink sink) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		try {
+			ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+			buf.limit(BinaryEdgeWriter.HEADER);
+			fill(channel, buf);
+			if (buf.remaining() < BinaryEdgeWriter.HEADER || buf.getInt() != BinaryEdgeWriter.MAGIC) {
+				throw new IOException(filename + ": not a binary edge list");
+			}
+			int version = buf.getInt();
+			if (version != BinaryEdgeWriter.VERSION) {
+				throw new IOException(filename + ": unsupported binary edge list version " + version);
+			}
+			long vertices = buf.getLong();
+			long edges = buf.getLong();
+			if (vertices < 0 || edges < 0) throw new IOException(filename + ": incomplete binary edge list (not closed)");
+
+			long records = vertices + edges;
+			if (channel.size() != BinaryEdgeWriter.HEADER + records * BinaryEdgeWriter.RECORD) {
+				throw new IOException(filename + ": truncated binary edge list");
+			}
+
+			while (records > 0) {
+				buf.clear();
+				fill(channel, buf);
+				int k = (int) Math.min(records, buf.remaining() / BinaryEdgeWriter.RECORD);
+				if (k == 0) throw new IOException(filename + ": truncated binary edge list");
+				for (int i=0; i<k; i++) {
+					int source = buf.getInt();
+					int target = buf.getInt();
+					double w = buf.getDouble();
+					if (source == target) sink.addVertex(source);
+					else sink.addEdge(source, target, w);
+				}
+				records -= k;
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	// read until the buffer is full or the file ends; the buffer is flipped for reading
+	private static void fill(FileChannel channel, ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining() && channel.read(buf) >= 0) {
+		}
+		buf.flip();
+	}
+}
@@ -0,0 +1,398 @@
+package graphImporter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import signedGraph.SignedCsrGraph;
+import signedGraph.SignedEdgeListBuilder;
+
+/**
+ * Streaming reader of (signed) weighted graphs in GML format
+ *
+ * @input Graph in GML: a list of key-value pairs, where a value is a number, a "string" or a nested
+ * 		  list [ ... ]; lines starting with '#' are comments. Example:
+ * 			graph [
+ * 				directed 0
+ * 				node [ id 1 label "CAN" ]
+ * 				node [ id 2 label "USA" graphics [ x 1.0 y 2.0 ] ]
+ * 				edge [ target 2 source 1 weight -1 ]
+ * 			]
+ * @return the edges in a SignedEdgeListBuilder (primitive arrays), or the graph in CSR format
+ *
+ * The file is read sequentially through one fixed buffer and tokenized byte by byte (no Scanner,
+ * no regular expressions, no per-line strings), so the memory does not depend on the file size.
+ * Inside node and edge blocks the keys may come in any order; unknown keys and nested lists are
+ * skipped. Every node block adds a vertex (also isolated ones); the weight of an edge is the value
+ * of the weight key (setWeightKey, e.g. "sign" or "value"), or the default weight if the edge has
+ * none. Edges are undirected: as in SignedEdgeListBuilder only the first of several edges between
+ * the same two vertices is kept; loops are skipped.
+ *
+ **/
+
+public class GmlReader {
+
+	// size of the read buffer
+	static final int BUFFER = 1 << 20;
+
+	// token types
+	private static final int EOF = 0;
+	private static final int KEY = 1;
+	private static final int NUMBER = 2;
+	private static final int STRING = 3;
+	private static final int OPEN = 4;
+	private static final int CLOSE = 5;
+
+	private static final byte[] GRAPH = bytes("graph");
+	private static final byte[] NODE = bytes("node");
+	private static final byte[] EDGE = bytes("edge");
+	private static final byte[] ID = bytes("id");
+	private static final byte[] LABEL = bytes("label");
+	private static final byte[] SOURCE = bytes("source");
+	private static final byte[] TARGET = bytes("target");
+
+	// white space, and the bytes that end a key or number
+	private static final boolean[] SPACE = new boolean[256];
+	private static final boolean[] END = new boolean[256];
+	static {
+		for (char c : " \t\r\n".toCharArray()) {
+			SPACE[c] = true;
+			END[c] = true;
+		}
+		for (char c : "[]\"#".toCharArray()) {
+			END[c] = true;
+		}
+	}
+
+	private byte[] weightKey = bytes("weight");
+	private double defaultWeight = 1;
+	private int idOffset = 0;
+
+	/**
+	 * @param key - the edge attribute holding the signed weight (default "weight")
+	 **/
+	public GmlReader setWeightKey(String key) {
+		this.weightKey = bytes(key);
+		return this;
+	}
+
+	/**
+	 * @param w - the weight of edges without the weight attribute (default 1)
+	 **/
+	public GmlReader setDefaultWeight(double w) {
+		this.defaultWeight = w;
+		return this;
+	}
+
+	/**
+	 * @param offset - added to every node id (default 0), e.g. 1 for 0-based files
+	 **/
+	public GmlReader setIdOffset(int offset) {
+		this.idOffset = offset;
+		return this;
+	}
+
+	/**
+	 * Read a GML file with the default settings into a CSR graph
+	 **/
+	public static SignedCsrGraph fromFile(String filename) throws IOException {
+		return new GmlReader().readGraph(filename);
+	}
+
+	/**
+	 * Read the GML file into a CSR graph
+	 **/
+	public SignedCsrGraph readGraph(String filename) throws IOException {
+		return read(filename, new SignedEdgeListBuilder()).build();
+	}
+
+	/**
+	 * Append the nodes and edges of the GML file to the builder
+	 * @return the builder
+	 **/
+	public SignedEdgeListBuilder read(String filename, SignedEdgeListBuilder builder) throws IOException {
+		return read(filename, builder, null);
+	}
+
+	/**
+	 * Append the nodes and edges of the GML file to the builder
+	 * @param labels - if not null, the label of each node (with the id offset) is put into this map
+	 * @return the builder
+	 **/
+	public SignedEdgeListBuilder read(
+			String filename,
+			SignedEdgeListBuilder builder,
+			Map<Integer, String> labels
+			) throws IOException {
+
+		FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		try {
+			Tokenizer t = new Tokenizer(filename, channel);
+			for (int token = t.next(); token != EOF; token = t.next()) {
+				if (token != KEY) throw t.error("key expected");
+				boolean graph = t.is(GRAPH);
+				int value = t.next();
+				if (graph && value == OPEN) {
+					readGraph(t, builder, labels);
+				}
+				else t.skip(value);
+			}
+		} finally {
+			channel.close();
+		}
+		return builder;
+	}
+
+	private void readGraph(Tokenizer t, SignedEdgeListBuilder builder, Map<Integer, String> labels) throws IOException {
+		while (t.nextKey()) {
+			boolean node = t.is(NODE);
+			boolean edge = t.is(EDGE);
+			int value = t.next();
+			if (node && value == OPEN) {
+				readNode(t, builder, labels);
+			}
+			else if (edge && value == OPEN) {
+				readEdge(t, builder);
+			}
+			else t.skip(value);
+		}
+	}
+
+	private void readNode(Tokenizer t, SignedEdgeListBuilder builder, Map<Integer, String> labels) throws IOException {
+		boolean hasId = false;
+		int id = 0;
+		String label = null;
+
+		while (t.nextKey()) {
+			if (t.is(ID)) {
+				id = t.nextId();
+				hasId = true;
+			}
+			else if (labels != null && t.is(LABEL)) {
+				if (t.next() != STRING) throw t.error("string label expected");
+				label = t.string();
+			}
+			else t.skip(t.next());
+		}
+		if (!hasId) throw t.error("node without id");
+
+		builder.addVertex(id + idOffset);
+		if (label != null) labels.put(id + idOffset, label);
+	}
+
+	private void readEdge(Tokenizer t, SignedEdgeListBuilder builder) throws IOException {
+		boolean hasSource = false;
+		boolean hasTarget = false;
+		int source = 0;
+		int target = 0;
+		double w = defaultWeight;
+
+		while (t.nextKey()) {
+			if (t.is(SOURCE)) {
+				source = t.nextId();
+				hasSource = true;
+			}
+			else if (t.is(TARGET)) {
+				target = t.nextId();
+				hasTarget = true;
+			}
+			else if (t.is(weightKey)) {
+				int value = t.next();
+				// some exporters quote numbers
+				if (value != NUMBER && value != STRING) throw t.error("numeric weight expected");
+				w = t.number();
+			}
+			else t.skip(t.next());
+		}
+		if (!hasSource || !hasTarget) throw t.error("edge without source or target");
+
+		if (source != target) {
+			builder.addEdge(source + idOffset, target + idOffset, w);
+		}
+	}
+
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Tokenizer over a fixed buffer that is refilled from the channel; the text of the current
+	 * key, number or string is copied into a small growable array
+	 **/
+	private static final class Tokenizer {
+
+		private String filename;
+		private FileChannel channel;
+		private ByteBuffer buffer;
+		private byte[] buf;
+		private int pos = 0;
+		private int limit = 0;
+		private long line = 1;
+
+		private byte[] text = new byte[64];
+		private int length = 0;
+		private int type = EOF;
+
+		Tokenizer(String filename, FileChannel channel) {
+			this.filename = filename;
+			this.channel = channel;
+			this.buf = new byte[BUFFER];
+			this.buffer = ByteBuffer.wrap(buf);
+		}
+
+		// true if there is a byte at pos (after a refill if needed)
+		private boolean available() throws IOException {
+			if (pos < limit) return true;
+			buffer.clear();
+			int r;
+			do {
+				r = channel.read(buffer);
+			} while (r == 0);
+			pos = 0;
+			limit = Math.max(r, 0);
+			return limit > 0;
+		}
+
+		/**
+		 * @return the type of the next token
+		 **/
+		int next() throws IOException {
+			length = 0;
+
+			// white space and comments, scanned inside the buffer
+			while (true) {
+				if (!available()) return type = EOF;
+				int p = pos;
+				while (p < limit && SPACE[buf[p] & 0xff]) {
+					if (buf[p] == '\n') line += 1;
+					p += 1;
+				}
+				pos = p;
+				if (p == limit) continue;
+				if (buf[p] != '#') break;
+				while (available() && buf[pos] != '\n') pos += 1;
+			}
+
+			byte b = buf[pos];
+			if (b == '[') {
+				pos += 1;
+				return type = OPEN;
+			}
+			if (b == ']') {
+				pos += 1;
+				return type = CLOSE;
+			}
+			if (b == '"') {
+				pos += 1;
+				while (true) {
+					if (!available()) throw error("unterminated string");
+					int p = pos;
+					while (p < limit && buf[p] != '"') {
+						if (buf[p] == '\n') line += 1;
+						p += 1;
+					}
+					append(pos, p);
+					pos = p;
+					if (p < limit) break;
+				}
+				pos += 1;
+				return type = STRING;
+			}
+
+			boolean key = (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || b == '_';
+			boolean number = (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+			if (!key && !number) throw error("unexpected character '" + (char) b + "'");
+
+			// the token ends at white space, a bracket, a quote or a comment
+			while (available()) {
+				int p = pos;
+				while (p < limit && !END[buf[p] & 0xff]) p += 1;
+				append(pos, p);
+				pos = p;
+				if (p < limit) break;
+			}
+			return type = key ? KEY : NUMBER;
+		}
+
+		// append buf[from..to) to the token text
+		private void append(int from, int to) {
+			int k = to - from;
+			if (length + k > text.length) {
+				text = java.util.Arrays.copyOf(text, Math.max(2 * text.length, length + k));
+			}
+			System.arraycopy(buf, from, text, length, k);
+			length += k;
+		}
+
+		// true if the current token is the key k
+		boolean is(byte[] k) {
+			if (type != KEY || length != k.length) return false;
+			for (int i=0; i<length; i++) {
+				if (text[i] != k[i]) return false;
+			}
+			return true;
+		}
+
+		String string() {
+			return new String(text, 0, length, StandardCharsets.UTF_8);
+		}
+
+		// the value of the current number (or numeric string)
+		double number() throws IOException {
+			double x = (length == 0) ? Double.NaN : MappedEdgeListReader.parseDouble(text, 0, length);
+			if (Double.isNaN(x)) throw error("malformed number '" + string() + "'");
+			return x;
+		}
+
+		// read the next token of a list: true for a key, false for the closing bracket
+		boolean nextKey() throws IOException {
+			int t = next();
+			if (t == KEY) return true;
+			if (t == CLOSE) return false;
+			throw error((t == EOF) ? "unterminated list" : "key expected");
+		}
+
+		// read the next token, an integer node id
+		int nextId() throws IOException {
+			if (next() != NUMBER) throw error("integer id expected");
+			long v = 0;
+			int i = 0;
+			boolean negative = false;
+			if (text[0] == '-' || text[0] == '+') {
+				negative = (text[0] == '-');
+				i = 1;
+			}
+			if (i == length) throw error("malformed id '" + string() + "'");
+			for (; i<length; i++) {
+				int d = text[i] - '0';
+				if (d < 0 || d > 9) throw error("malformed id '" + string() + "'");
+				v = 10 * v + d;
+				if (v > (long) Integer.MAX_VALUE + 1) throw error("id out of range '" + string() + "'");
+			}
+			v = negative ? -v : v;
+			if (v > Integer.MAX_VALUE) throw error("id out of range '" + string() + "'");
+			return (int) v;
+		}
+
+		// skip the value whose first token is token (nested lists included)
+		void skip(int token) throws IOException {
+			if (token == NUMBER || token == STRING) return;
+			if (token != OPEN) throw error("value expected");
+			int depth = 1;
+			while (depth > 0) {
+				int t = next();
+				if (t == OPEN) depth += 1;
+				else if (t == CLOSE) depth -= 1;
+				else if (t == EOF) throw error("unterminated list");
+			}
+		}
+
+		IOException error(String message) {
+			return new IOException(filename + ", line " + line + ": " + message);
+		}
+	}
+}
@@ -2,12 +2,18 @@ package graphImporter;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Scanner;
 
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 
+import signedGraph.GraphSnapshot;
+import signedGraph.SignedCsrGraph;
+import signedGraph.SignedEdgeListBuilder;
+
 public class ImportTradeData {
 	
 	/**
@@ -19,10 +25,22 @@ public class ImportTradeData {
 	 * 
 	 */
 
-	public static HashMap<Integer, String> ID_print = new HashMap<Integer, String>(); 
-
-
+	/**
+	 * Read the trade graph; the country names of the 'ID' lines are ignored
+	 **/
 	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> readAverageTradeGrowth(String inputFile) {
+		return readAverageTradeGrowth(inputFile, new HashMap<Integer, String>());
+	}
+
+	/**
+	 * Read the trade graph
+	 * @param inputFile - the trade data csv file
+	 * @param idNames - the country name of each id (the 'ID' lines) is put into this map
+	 **/
+	public static SimpleWeightedGraph<Integer, DefaultWeightedEdge> readAverageTradeGrowth(
+			String inputFile, 
+			Map<Integer, String> idNames
+			) {
 		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = 
 				new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(DefaultWeightedEdge.class);
 
@@ -62,7 +80,7 @@ public class ImportTradeData {
 //				if (lineParts.length == 2){
 //					int id = Integer.parseInt(lineParts[0].trim());
 //					String countryName = lineParts[1].trim();
-//					ID_print.put(id, countryName);
+//					idNames.put(id, countryName);
 //				}
 
 				//this is a graph data line
@@ -73,7 +91,7 @@ public class ImportTradeData {
 					if (lineParts[0].trim().equals("ID")) {
 						int id = Integer.parseInt(lineParts[1].trim());
 						String countryName = lineParts[2].trim();
-						ID_print.put(id, countryName);
+						idNames.put(id, countryName);
 					}
 					else {
 						//add vertices of the graph
@@ -97,12 +115,56 @@ public class ImportTradeData {
 		return g;	
 	}
 
+	/**
+	 * Read the trade graph in CSR format with MappedEdgeListReader: the file is split into byte 
+	 * ranges that are parsed in parallel (for multi-GB files)
+	 * @param inputFile - the trade data csv file
+	 * @param idNames - the country name of each id (the 'ID' lines) is put into this map
+	 * @param parallelism - the number of parsing threads
+	 **/
+	public static SignedCsrGraph readAverageTradeGrowthCsr(
+			String inputFile, 
+			Map<Integer, String> idNames,
+			int parallelism
+			) throws IOException {
+		return new MappedEdgeListReader()
+				.setParallelism(parallelism)
+				.read(inputFile, new SignedEdgeListBuilder(), idNames)
+				.build();
+	}
+
+	/**
+	 * Read the trade graph from its binary snapshot (inputFile + GraphSnapshot.EXTENSION) if the snapshot 
+	 * is up to date; otherwise read the csv file with readAverageTradeGrowthCsr and write the snapshot, 
+	 * so later runs skip the parsing
+	 * @param idNames - the country name of each id is put into this map
+	 **/
+	public static SignedCsrGraph readAverageTradeGrowthCached(
+			String inputFile, 
+			Map<Integer, String> idNames,
+			int parallelism
+			) throws IOException {
+		String snapshotFile = inputFile + GraphSnapshot.EXTENSION;
+		if (GraphSnapshot.isUpToDate(snapshotFile, inputFile)) {
+			GraphSnapshot snapshot = GraphSnapshot.read(snapshotFile);
+			idNames.putAll(snapshot.labels());
+			return snapshot.graph();
+		}
+
+		HashMap<Integer, String> names = new HashMap<Integer, String>();
+		SignedCsrGraph g = readAverageTradeGrowthCsr(inputFile, names, parallelism);
+		GraphSnapshot.write(g, names, snapshotFile);
+		idNames.putAll(names);
+		return g;
+	}
+
 	public static void main (String [] args) {
 		String inputFile = "data/AverageGrowth.v.1.2.clean.csv";
 		//String outputFile = "data/sampleTradeData_clean.csv";
-		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = readAverageTradeGrowth(inputFile);
+		HashMap<Integer, String> idNames = new HashMap<Integer, String>();
+		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = readAverageTradeGrowth(inputFile, idNames);
 		
-		System.out.println(ID_print.get(231));
+		System.out.println(idNames.get(231));
 
 		int n = g.vertexSet().size();
 
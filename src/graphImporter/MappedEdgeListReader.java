@@ -0,0 +1,529 @@
+package graphImporter;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import signedGraph.SignedCsrGraph;
+import signedGraph.SignedEdgeListBuilder;
+
+/**
+ * Read a (signed) weighted graph from an edge list file without Scanner, split or boxing
+ *
+ * @input Graph in edge list: one edge 'source<d>target<d>weight' per line, d the delimiter;
+ * 		  lines starting with '#' and empty lines are skipped (the format of ReadGraph_w_edgeList)
+ * @return the edges in a SignedEdgeListBuilder (primitive arrays), or the graph in CSR format
+ *
+ * The file is mapped into memory with FileChannel.map (in windows of at most MAX_WINDOW bytes, so
+ * files larger than 2GB are read as well); the window is copied in blocks into one reusable byte
+ * array and the vertex ids and weights are parsed straight from the bytes. Decimal weights with at most 15 significant digits and a decimal exponent of at most
+ * 22 (e.g. 1, -1, 0.25, 1.5E-3) are converted exactly by one multiplication or division by a power
+ * of ten (Clinger's fast path); all other weights are passed to Double.parseDouble.
+ *
+ * The delimiter is COMMA, TAB or WHITESPACE (any run of spaces and tabs). Spaces (and tabs if they
+ * are not the delimiter) around the fields are ignored.
+ *
+ * Parallel mode (setParallelism): the file is split into byte ranges aligned to line starts, and
+ * every range is parsed by a fork-join worker into its own primitive buffers; the buffers are then
+ * appended to the builder in file order, so the graph (and the kept duplicate edges) is the same as
+ * with the sequential read.
+ *
+ **/
+
+public class MappedEdgeListReader {
+
+	public static final int COMMA = ',';
+	public static final int TAB = '\t';
+	public static final int WHITESPACE = ' ';
+
+	// largest window of the file mapped at once
+	static final int MAX_WINDOW = 1 << 30;
+
+	// the mapped window is parsed in blocks of this size (copied into one reusable array)
+	static final int BLOCK = 1 << 22;
+
+	private static final double[] POW10 = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+	// smallest byte range parsed by one fork-join task
+	static final int MIN_RANGE = 1 << 20;
+
+	private int delimiter;
+	private boolean weighted;
+	private int parallelism = 1;
+
+	/**
+	 * Reader of weighted edge lists with the delimiter COMMA
+	 **/
+	public MappedEdgeListReader() {
+		this(COMMA, true);
+	}
+
+	/**
+	 * @param delimiter - COMMA, TAB or WHITESPACE
+	 * @param weighted - true: three columns (source, target, weight); false: two columns, every
+	 * 					 edge has the weight 1
+	 **/
+	public MappedEdgeListReader(int delimiter, boolean weighted) {
+		if (delimiter != COMMA && delimiter != TAB && delimiter != WHITESPACE) {
+			throw new IllegalArgumentException("Unsupported delimiter: " + (char) delimiter);
+		}
+		this.delimiter = delimiter;
+		this.weighted = weighted;
+	}
+
+	/**
+	 * Read a weighted, comma separated edge list file into a CSR graph
+	 **/
+	public static SignedCsrGraph fromFile(String filename) throws IOException {
+		return new MappedEdgeListReader().readGraph(filename);
+	}
+
+	/**
+	 * Read the edge list file into a CSR graph
+	 **/
+	public SignedCsrGraph readGraph(String filename) throws IOException {
+		return read(filename, new SignedEdgeListBuilder()).build();
+	}
+
+	/**
+	 * Append the edges of the edge list file to the builder
+	 * @return the builder
+	 **/
+	public SignedEdgeListBuilder read(String filename, SignedEdgeListBuilder builder) throws IOException {
+		return read(filename, builder, null);
+	}
+
+	/**
+	 * Append the edges of the edge list file to the builder
+	 * @param idNames - if not null, lines 'ID<d><id><d><name>' (ImportTradeData) are accepted and the
+	 * 					name of each id is put into this map; otherwise such lines are malformed
+	 * @return the builder
+	 **/
+	public SignedEdgeListBuilder read(
+			String filename, 
+			SignedEdgeListBuilder builder, 
+			Map<Integer, String> idNames
+			) throws IOException {
+
+		RandomAccessFile file = new RandomAccessFile(filename, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+
+			if (parallelism <= 1 || size < 2 * MIN_RANGE) {
+				readRange(channel, 0, size, builder, idNames);
+				return builder;
+			}
+
+			// byte ranges aligned to line starts, a few per worker for load balancing
+			int ranges = (int) Math.max(1, Math.min(4L * parallelism, size / MIN_RANGE));
+			long[] bounds = new long[ranges + 1];
+			for (int r=1; r<ranges; r++) {
+				bounds[r] = Math.max(bounds[r-1], lineStart(channel, size * r / ranges, size));
+			}
+			bounds[ranges] = size;
+
+			// every range is parsed into its own buffers; they are appended in file order, so the
+			// result is the same as the sequential read
+			List<RangeTask> tasks = new ArrayList<RangeTask>(ranges);
+			for (int r=0; r<ranges; r++) {
+				tasks.add(new RangeTask(channel, bounds[r], bounds[r+1], idNames != null));
+			}
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				for (RangeTask task : tasks) {
+					pool.execute(task);
+				}
+				for (int r=0; r<ranges; r++) {
+					RangeTask task = tasks.get(r);
+					task.join();
+					if (task.failure != null) throw task.failure;
+					builder.addAll(task.edges);
+					if (idNames != null) idNames.putAll(task.idNames);
+					tasks.set(r, null);
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+		} finally {
+			file.close();
+		}
+		return builder;
+	}
+
+	/**
+	 * @param parallelism - number of fork-join workers parsing byte ranges of the file; 1 (default)
+	 * 						for the sequential read
+	 **/
+	public MappedEdgeListReader setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Parse the lines of the file in [start, end) into the builder; start must be the start of a
+	 * line, and end the start of a line or the end of the file
+	 **/
+	private void readRange(
+			FileChannel channel, 
+			long start, 
+			long end, 
+			SignedEdgeListBuilder builder, 
+			Map<Integer, String> idNames
+			) throws IOException {
+
+		byte[] block = new byte[(int) Math.min(end - start, BLOCK)];
+		long position = start;
+
+		while (position < end) {
+			long length = Math.min(end - position, MAX_WINDOW);
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			boolean lastWindow = (position + length == end);
+
+			// copy the window block by block into the reusable array; a block ends with its last
+			// complete line, the rest of the line is copied again at the start of the next block
+			int from = 0;
+			while (from < length) {
+				int count = (int) Math.min(length - from, block.length);
+				window.position(from);
+				window.get(block, 0, count);
+
+				int limit = count;
+				if (from + count < length || !lastWindow) {
+					while (limit > 0 && block[limit - 1] != '\n') limit -= 1;
+					if (limit == 0) {
+						if (from + count == length) break;	// continued in the next window
+						throw new IOException("Line longer than " + BLOCK + " bytes at byte " + (position + from));
+					}
+				}
+				parse(block, 0, limit, position + from, builder, idNames);
+				from += limit;
+			}
+			position += from;
+		}
+	}
+
+	/**
+	 * @return the start of the first line beginning at or after position
+	 **/
+	private static long lineStart(FileChannel channel, long position, long size) throws IOException {
+		java.nio.ByteBuffer buf = java.nio.ByteBuffer.allocate(4096);
+		long p = position - 1;
+		while (p < size) {
+			buf.clear();
+			int count = channel.read(buf, p);
+			if (count <= 0) break;
+			for (int i=0; i<count; i++) {
+				if (buf.get(i) == '\n') return p + i + 1;
+			}
+			p += count;
+		}
+		return size;
+	}
+
+	/**
+	 * Parse one byte range of the file into its own buffers (fork-join worker)
+	 **/
+	private class RangeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private FileChannel channel;
+		private long start;
+		private long end;
+		SignedEdgeListBuilder edges = new SignedEdgeListBuilder();
+		Map<Integer, String> idNames;
+		IOException failure;
+
+		RangeTask(FileChannel channel, long start, long end, boolean readIds) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.idNames = readIds ? new HashMap<Integer, String>() : null;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				readRange(channel, start, end, edges, idNames);
+			} catch (IOException e) {
+				failure = e;
+			}
+		}
+	}
+
+	/**
+	 * Parse the lines in buf[from..to) into the builder; from must be the start of a line and to the
+	 * end of a line (or of the file)
+	 * @param offset - position of buf[0] in the file (for error messages)
+	 **/
+	void parse(
+			byte[] buf, 
+			int from, 
+			int to, 
+			long offset, 
+			SignedEdgeListBuilder builder, 
+			Map<Integer, String> idNames
+			) throws IOException {
+
+		int pos = from;
+		while (pos < to) {
+			int lineStart = pos;
+			pos = skipBlanks(buf, pos, to);
+
+			// comment or empty line
+			if (pos == to || buf[pos] == '#' || buf[pos] == '\n' || buf[pos] == '\r') {
+				pos = nextLine(buf, pos, to);
+				continue;
+			}
+
+			// 'ID<d><id><d><name>' line
+			if (idNames != null && pos + 1 < to && buf[pos] == 'I' && buf[pos+1] == 'D') {
+				pos = delimiter(buf, pos + 2, to, lineStart, offset);
+				long id = 0;
+				int digits = pos;
+				while (pos < to && isDigit(buf[pos])) {
+					id = 10 * id + (buf[pos] - '0');
+					pos += 1;
+				}
+				if (pos == digits || pos - digits > 10 || id > Integer.MAX_VALUE) {
+					throw error(buf, lineStart, to, offset, "id expected");
+				}
+				pos = delimiter(buf, pos, to, lineStart, offset);
+				int nameEnd = pos;
+				while (nameEnd < to && buf[nameEnd] != '\n' && buf[nameEnd] != '\r') nameEnd += 1;
+				while (nameEnd > pos && (buf[nameEnd-1] == ' ' || buf[nameEnd-1] == '\t')) nameEnd -= 1;
+				idNames.put((int) id, new String(buf, pos, nameEnd - pos, java.nio.charset.StandardCharsets.UTF_8));
+				pos = nextLine(buf, nameEnd, to);
+				continue;
+			}
+
+			// source
+			long source = 0;
+			boolean negative = (buf[pos] == '-');
+			if (negative || buf[pos] == '+') pos += 1;
+			int digits = pos;
+			while (pos < to && isDigit(buf[pos])) {
+				source = 10 * source + (buf[pos] - '0');
+				pos += 1;
+			}
+			if (pos == digits) throw error(buf, lineStart, to, offset, "vertex id expected");
+			if (pos - digits > 10) throw error(buf, lineStart, to, offset, "vertex id out of range");
+			if (negative) source = -source;
+			if (source > Integer.MAX_VALUE || source < Integer.MIN_VALUE) {
+				throw error(buf, lineStart, to, offset, "vertex id out of range");
+			}
+			pos = delimiter(buf, pos, to, lineStart, offset);
+
+			// target
+			long target = 0;
+			negative = (buf[pos] == '-');
+			if (negative || buf[pos] == '+') pos += 1;
+			digits = pos;
+			while (pos < to && isDigit(buf[pos])) {
+				target = 10 * target + (buf[pos] - '0');
+				pos += 1;
+			}
+			if (pos == digits) throw error(buf, lineStart, to, offset, "vertex id expected");
+			if (pos - digits > 10) throw error(buf, lineStart, to, offset, "vertex id out of range");
+			if (negative) target = -target;
+			if (target > Integer.MAX_VALUE || target < Integer.MIN_VALUE) {
+				throw error(buf, lineStart, to, offset, "vertex id out of range");
+			}
+
+			// weight
+			double weight = 1;
+			if (weighted) {
+				pos = delimiter(buf, pos, to, lineStart, offset);
+				int start = pos;
+				pos = endOfField(buf, pos, to);
+				if (pos == start) throw error(buf, lineStart, to, offset, "weight expected");
+				weight = parseDouble(buf, start, pos);
+				if (Double.isNaN(weight) && !isNaNLiteral(buf, start, pos)) {
+					throw error(buf, lineStart, to, offset, "malformed weight");
+				}
+			}
+
+			// end of the line
+			pos = skipBlanks(buf, pos, to);
+			if (pos < to && buf[pos] == '\r') pos += 1;
+			if (pos < to && buf[pos] != '\n') throw error(buf, lineStart, to, offset, "end of line expected");
+			pos += 1;
+
+			if (source == target) throw error(buf, lineStart, to, offset, "loops not allowed");
+			builder.addEdge((int) source, (int) target, weight);
+		}
+	}
+
+	/**
+	 * Skip the delimiter (and the blanks around it)
+	 * @return the position of the next field
+	 **/
+	private int delimiter(byte[] buf, int pos, int to, int lineStart, long offset) throws IOException {
+		int start = pos;
+		pos = skipBlanks(buf, pos, to);
+		if (delimiter != WHITESPACE) {
+			if (pos == to || buf[pos] != delimiter) throw error(buf, lineStart, to, offset, "delimiter expected");
+			pos = skipBlanks(buf, pos + 1, to);
+		}
+		else if (pos == start) {
+			throw error(buf, lineStart, to, offset, "delimiter expected");
+		}
+		if (pos == to || buf[pos] == '\n' || buf[pos] == '\r') {
+			throw error(buf, lineStart, to, offset, "missing column");
+		}
+		return pos;
+	}
+
+	/**
+	 * Spaces, and tabs unless the tab is the delimiter
+	 **/
+	private int skipBlanks(byte[] buf, int pos, int to) {
+		while (pos < to) {
+			byte b = buf[pos];
+			if (b == ' ' || (b == '\t' && delimiter != TAB)) pos += 1;
+			else break;
+		}
+		return pos;
+	}
+
+	private int endOfField(byte[] buf, int pos, int to) {
+		while (pos < to) {
+			byte b = buf[pos];
+			if (b == '\n' || b == '\r' || b == ' ' || b == '\t' || b == delimiter) break;
+			pos += 1;
+		}
+		return pos;
+	}
+
+	private static int nextLine(byte[] buf, int pos, int to) {
+		while (pos < to && buf[pos] != '\n') pos += 1;
+		return pos + 1;
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	/**
+	 * Parse the decimal number in buf[from..to)
+	 * @return the number, or NaN if it is malformed
+	 **/
+	static double parseDouble(byte[] buf, int from, int to) {
+		int pos = from;
+		boolean negative = false;
+		if (buf[pos] == '-' || buf[pos] == '+') {
+			negative = (buf[pos] == '-');
+			pos += 1;
+		}
+
+		// significant digits as a long mantissa, and the decimal exponent
+		long mantissa = 0;
+		int significant = 0;
+		int exponent = 0;
+		boolean anyDigit = false;
+		boolean overflow = false;
+		while (pos < to && isDigit(buf[pos])) {
+			anyDigit = true;
+			if (significant < 19) {
+				mantissa = 10 * mantissa + (buf[pos] - '0');
+				if (mantissa != 0) significant += 1;
+			}
+			else {
+				overflow = true;
+				exponent += 1;
+			}
+			pos += 1;
+		}
+		if (pos < to && buf[pos] == '.') {
+			pos += 1;
+			while (pos < to && isDigit(buf[pos])) {
+				anyDigit = true;
+				if (significant < 19) {
+					mantissa = 10 * mantissa + (buf[pos] - '0');
+					if (mantissa != 0) significant += 1;
+					exponent -= 1;
+				}
+				else {
+					overflow = true;
+				}
+				pos += 1;
+			}
+		}
+		if (!anyDigit) return slowParseDouble(buf, from, to);
+
+		if (pos < to && (buf[pos] == 'e' || buf[pos] == 'E')) {
+			pos += 1;
+			boolean negativeExp = false;
+			if (pos < to && (buf[pos] == '-' || buf[pos] == '+')) {
+				negativeExp = (buf[pos] == '-');
+				pos += 1;
+			}
+			int exp = 0;
+			int expStart = pos;
+			while (pos < to && isDigit(buf[pos])) {
+				if (exp < 100000) exp = 10 * exp + (buf[pos] - '0');
+				pos += 1;
+			}
+			if (pos == expStart) return Double.NaN;
+			exponent += negativeExp ? -exp : exp;
+		}
+		if (pos != to) return slowParseDouble(buf, from, to);
+
+		// Clinger's fast path: mantissa and power of ten are both exact doubles
+		if (!overflow && significant <= 15 && Math.abs(exponent) <= 22) {
+			double value = (exponent >= 0) ? mantissa * POW10[exponent] : mantissa / POW10[-exponent];
+			return negative ? -value : value;
+		}
+		return slowParseDouble(buf, from, to);
+	}
+
+	private static double slowParseDouble(byte[] buf, int from, int to) {
+		byte[] bytes = new byte[to - from];
+		for (int i=0; i<bytes.length; i++) {
+			bytes[i] = buf[from + i];
+		}
+		try {
+			return Double.parseDouble(new String(bytes, java.nio.charset.StandardCharsets.ISO_8859_1));
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	private static boolean isNaNLiteral(byte[] buf, int from, int to) {
+		int pos = from;
+		if (buf[pos] == '-' || buf[pos] == '+') pos += 1;
+		return to - pos == 3 && buf[pos] == 'N' && buf[pos+1] == 'a' && buf[pos+2] == 'N';
+	}
+
+	private static IOException error(byte[] buf, int lineStart, int to, long offset, String message) {
+		int end = lineStart;
+		while (end < to && end - lineStart < 200 && buf[end] != '\n' && buf[end] != '\r') end += 1;
+		byte[] line = new byte[end - lineStart];
+		for (int i=0; i<line.length; i++) {
+			line[i] = buf[lineStart + i];
+		}
+		return new IOException("Error in graph data line at byte " + (offset + lineStart) + " (" + message + "): "
+				+ new String(line, java.nio.charset.StandardCharsets.ISO_8859_1));
+	}
+
+	// Main method
+	public static void main(String[] args) throws IOException {
+		String filename = "data/sample_data.txt";
+		long start = System.nanoTime();
+		SignedCsrGraph g = fromFile(filename);
+		double duration = (System.nanoTime() - start) / 1e9;
+		System.out.println("|V| = " + g.vertexCount() + "; |E| = " + g.edgeCount() + "; " + duration + " sec");
+	}
+}
@@ -17,6 +17,9 @@ import org.jgrapht.graph.SimpleGraph;
  * @input Graph in edge list (separated by comma, tab or spaces)
  * @return G<V, E>, where V = the vertices set, and E = the edge set.
  * 
+ * For large files use MappedEdgeListReader(MappedEdgeListReader.TAB, false), optionally with
+ * setParallelism for a parallel read
+ * 
  * Using library: jGrapht; available at: www.jGrapht.org
  * 
  **/
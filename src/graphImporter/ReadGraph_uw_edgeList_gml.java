@@ -1,13 +1,13 @@
 package graphImporter;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.io.IOException;
 
 import org.jgrapht.UndirectedGraph;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.SimpleGraph;
 
+import signedGraph.SignedCsrGraph;
+
 /**
  * Read Graph from gml file format
  * @author Dewan Ferdous Wahid
@@ -17,65 +17,34 @@ import org.jgrapht.graph.SimpleGraph;
  * @input Graph in edge list (gml file format)
  * @return G<V, E>, where V = the vertices set, and E = the edge set.
  * 
+ * The file is parsed by the streaming GmlReader (node and edge blocks with keys in any order);
+ * use GmlReader directly for signed weights, node labels and CSR graphs.
+ * 
  * Using library: jGrapht; available at: www.jGrapht.org
  * 
  ***/
 
 public class ReadGraph_uw_edgeList_gml {
 
-	@SuppressWarnings("resource")
 	public static UndirectedGraph<Integer, DefaultEdge> fromFile(String filename) {
 
 		System.out.println("Data Name:" + filename);
 		UndirectedGraph<Integer, DefaultEdge> g = new SimpleGraph<Integer, DefaultEdge> (DefaultEdge.class);
 
-		FileInputStream f = null; 
-
 		try {
+			//node ids are shifted by one (the vertices of the graph are 1..n)
+			SignedCsrGraph csr = new GmlReader().setIdOffset(1).readGraph(filename);
 
-			f = new FileInputStream (filename);
-			Scanner s = new Scanner (f);
-			int lineTracker = 0;
-
-			while (s.hasNext()) {
-
-				//Keep track the graph data line
-				lineTracker = lineTracker + 1; 
-				String graphDataLine = s.nextLine();
-
-				//avoid the data name and info
-				if (graphDataLine.charAt(0) == '#') continue;
-
-				else {
-
-					//split graph data line
-					String[] line = graphDataLine.trim().split("\\s+");
-
-					if (line[0].equals("edge")) continue;
-					else if (line[0].equals("[")) continue;
-					else if (line[0].equals("]")) continue;
-					else if (line[0].equals("source")) {
-						int src = Integer.parseInt(line[1]);	
-						String graphDataLine3 = s.nextLine();
-						lineTracker = lineTracker + 1; 
-
-						//split graph data line
-						String[] line3 = graphDataLine3.split("\\s+");
-
-						if (line3[0].equals("target")) {
-							int trg = Integer.parseInt(line3[1]);
-
-							//add vertices
-							g.addVertex(src+1);
-							g.addVertex(trg+1);
-							g.addEdge(src+1, trg+1);
-						}
-						else continue;
-					}
-					else continue;	
+			for (int u=0; u<csr.vertexCount(); u++) {
+				g.addVertex(csr.vertexId(u));
+			}
+			for (int u=0; u<csr.vertexCount(); u++) {
+				for (int s=csr.start(u); s<csr.end(u); s++) {
+					int v = csr.neighbour(s);
+					if (v > u) g.addEdge(csr.vertexId(u), csr.vertexId(v));
 				}
 			}
-		} catch (FileNotFoundException e) {
+		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		return g ;
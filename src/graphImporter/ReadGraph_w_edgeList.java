@@ -3,11 +3,15 @@ package graphImporter;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.Scanner;
 
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 
+import signedGraph.GraphSnapshot;
+import signedGraph.SignedCsrGraph;
+
 public class ReadGraph_w_edgeList {
 	
 	/***
@@ -19,6 +23,9 @@ public class ReadGraph_w_edgeList {
 	 * @input Graph in edge list (separated by comma, tab or spaces)
 	 * @return G<V, E>, where V = the vertices set, and E = the weighted edge set.
 	 * 
+	 * For large files use MappedEdgeListReader (memory-mapped, primitive arrays, CSR graph), or
+	 * fromFileCached to keep a binary snapshot (GraphSnapshot) of the file
+	 * 
 	 * Using library: jGrapht; available at: www.jGrapht.org
 	 * 
 	 **/
@@ -71,6 +78,23 @@ public class ReadGraph_w_edgeList {
 		}
 		return g;
 	}
+
+	/**
+	 * Read the graph from its binary snapshot (filename + GraphSnapshot.EXTENSION) if the snapshot is 
+	 * up to date; otherwise read the edge list with MappedEdgeListReader and write the snapshot
+	 * 
+	 * @return G<V, E> in CSR format
+	 **/
+	public static SignedCsrGraph fromFileCached(String filename) throws IOException {
+		String snapshotFile = filename + GraphSnapshot.EXTENSION;
+		if (GraphSnapshot.isUpToDate(snapshotFile, filename)) {
+			return GraphSnapshot.read(snapshotFile).graph();
+		}
+
+		SignedCsrGraph g = MappedEdgeListReader.fromFile(filename);
+		GraphSnapshot.write(g, snapshotFile);
+		return g;
+	}
 	
 	//Main method
 	public static void main(String[] args){
@@ -1,5 +1,7 @@
 package graphImporter;
 
+import java.util.HashMap;
+
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 
@@ -15,14 +17,14 @@ public class TestClass {
 	 */
 	
 	public static void main (String[] args){
-		ImportTradeData.ID_print.clear();
+		HashMap<Integer, String> idNames = new HashMap<Integer, String>();
 	
 		String inputFile = "data/sampleTradeData_clean.csv";
-		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = ImportTradeData.readAverageTradeGrowth(inputFile);
+		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = ImportTradeData.readAverageTradeGrowth(inputFile, idNames);
 		
 		System.out.println(g);
 		
-		System.out.println(ImportTradeData.ID_print.get(2));
+		System.out.println(idNames.get(2));
 		
 		
 		int n = g.vertexSet().size();
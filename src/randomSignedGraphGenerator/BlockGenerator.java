@@ -0,0 +1,119 @@
+package randomSignedGraphGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import signedGraph.EdgeSink;
+import signedGraph.SignedEdgeListBuilder;
+
+/**
+ * Reproducible (parallel) generation of a random graph in independent blocks
+ *
+ * A random graph is cut into blocks of vertex pairs (e.g. rows of one nest, or of the pairs between
+ * two nests, with about PAIRS pairs per block) and every block gets its own SplittableRandom stream, split from the seed in block order before
+ * any block runs. A block depends on nothing but its stream, so blocks are generated by fork-join
+ * workers into their own edge buffers; the buffers are passed to the sink in block order. Hence
+ * the graph (vertices, edges and their order) depends only on the seed, not on the parallelism.
+ * At most WINDOW blocks per worker are generated ahead of the sink, so a streaming sink (e.g. a
+ * CsvEdgeWriter) keeps the memory bounded by the block size, not by the graph size.
+ *
+ **/
+
+class BlockGenerator {
+
+	// blocks per worker generated ahead of the sink
+	static final int WINDOW = 4;
+
+	// vertex pairs (or expected edges) per block
+	static final int PAIRS = 1 << 16;
+
+	/**
+	 * @return the number of rows per block for rows of the given length
+	 **/
+	static int rowsPerBlock(double rowLength) {
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE, PAIRS / Math.max(1, rowLength)));
+	}
+
+	/**
+	 * A block of vertex pairs of the graph
+	 **/
+	interface Block {
+		void generate(SplittableRandom random, EdgeSink out);
+	}
+
+	/**
+	 * Pass the vertices 1..n and then the edges of all blocks (in block order) to the sink
+	 * @param parallelism - number of fork-join workers; 1 to generate in the calling thread
+	 **/
+	static void generate(int n, List<Block> blocks, long seed, int parallelism, EdgeSink sink) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		for (int i=1; i<=n; i++) {
+			sink.addVertex(i);
+		}
+
+		SplittableRandom root = new SplittableRandom(seed);
+		List<BlockTask> tasks = new ArrayList<BlockTask>(blocks.size());
+		for (Block block : blocks) {
+			tasks.add(new BlockTask(block, root.split()));
+		}
+
+		if (parallelism == 1) {
+			for (BlockTask task : tasks) {
+				task.block.generate(task.random, sink);
+			}
+			return;
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			int submitted = 0;
+			for (; submitted < Math.min(WINDOW * parallelism, tasks.size()); submitted++) {
+				pool.execute(tasks.get(submitted));
+			}
+			for (int b=0; b<tasks.size(); b++) {
+				BlockTask task = tasks.get(b);
+				task.join();
+				append(task.edges, sink);
+				tasks.set(b, null);
+				if (submitted < tasks.size()) {
+					pool.execute(tasks.get(submitted++));
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static void append(SignedEdgeListBuilder edges, EdgeSink sink) {
+		if (sink instanceof SignedEdgeListBuilder) {
+			((SignedEdgeListBuilder) sink).addAll(edges);
+			return;
+		}
+		for (int e=0; e<edges.edgeCount(); e++) {
+			sink.addEdge(edges.edgeSource(e), edges.edgeTarget(e), edges.edgeWeight(e));
+		}
+	}
+
+	private static class BlockTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private Block block;
+		private SplittableRandom random;
+		SignedEdgeListBuilder edges = new SignedEdgeListBuilder();
+
+		BlockTask(Block block, SplittableRandom random) {
+			this.block = block;
+			this.random = random;
+		}
+
+		@Override
+		protected void compute() {
+			block.generate(random, edges);
+		}
+	}
+}
@@ -1,19 +1,21 @@
 package randomSignedGraphGenerator;
 
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.Writer;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
-import javax.xml.transform.TransformerConfigurationException;
-
-import org.jgrapht.ext.ExportException;
-import org.jgrapht.ext.GraphMLExporter;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
-import org.xml.sax.SAXException;
+
+import signedGraph.BinaryEdgeWriter;
+import signedGraph.CsvEdgeWriter;
+import signedGraph.EdgeSink;
+import signedGraph.GraphMLEdgeWriter;
+import signedGraph.GraphSnapshot;
+import signedGraph.SignedCsrGraph;
+import signedGraph.SignedEdgeListBuilder;
 
 /**
  * Nested Random Graph Generator
@@ -67,6 +69,81 @@ public class NestedSignedRandomGraphV1 {
 		}
 		return g;
 	}
+
+	/**
+	 * Reproducible (parallel) G(n,p) nested random signed graph, with the distribution of 
+	 * getGnpNestedGraph(m, n, p, r): the rows of every nest and of every pair of nests are cut into 
+	 * blocks, and every block is generated from its own SplittableRandom stream (BlockGenerator), so 
+	 * the graph depends only on the seed
+	 * @param m - the number of groups/nests in the graph
+	 * @param n - the number of vertices in each group/nest
+	 * @param p - the conecting two vertices with a positive edge inside the nest (inter-group positive probability)
+	 * @param r - intra-groups negative probability
+	 * @param seed - the seed of the random streams
+	 * @param parallelism - the number of generating threads (does not change the graph)
+	 * @param sink - gets the vertices 1..m*n, then the edges (e.g. a SignedEdgeListBuilder)
+	 **/
+	public static void getGnpNestedGraph(
+			int m, 
+			int n, 
+			final double p, 
+			final double r,
+			long seed,
+			int parallelism,
+			EdgeSink sink
+			) {
+
+		int rows = BlockGenerator.rowsPerBlock(n);
+		List<BlockGenerator.Block> blocks = new ArrayList<BlockGenerator.Block>();
+		for (int group = 1; group <= m; group++) {
+			final int last = group*n;
+			for (int u0 = (group-1)*n + 1; u0 <= last; u0 += rows) {
+				final int first = u0;
+				final int end = Math.min(last, u0 + rows - 1);
+				blocks.add((random, out) -> {
+					for (int u = first; u <= end; u++) {
+						for (int v = u+1; v <= last; v++) {
+							out.addEdge(u, v, (random.nextDouble() <= p) ? 1 : -1);
+						}
+					}
+				});
+			}
+		}
+		for (int grI = 1; grI <= m; grI++) {
+			for (int grJ = grI + 1; grJ <= m; grJ++) {
+				final int firstJ = (grJ-1)*n + 1;
+				final int lastJ = grJ*n;
+				for (int i0 = (grI-1)*n + 1; i0 <= grI*n; i0 += rows) {
+					final int first = i0;
+					final int end = Math.min(grI*n, i0 + rows - 1);
+					blocks.add((random, out) -> {
+						for (int i = first; i <= end; i++) {
+							for (int j = firstJ; j <= lastJ; j++) {
+								out.addEdge(i, j, (random.nextDouble() <= r) ? -1 : 1);
+							}
+						}
+					});
+				}
+			}
+		}
+		BlockGenerator.generate(m * n, blocks, seed, parallelism, sink);
+	}
+
+	/**
+	 * Reproducible G(n,p) nested random signed graph (see above) in CSR format
+	 **/
+	public static SignedCsrGraph getGnpNestedGraph_Csr(
+			int m, 
+			int n, 
+			double p, 
+			double r,
+			long seed,
+			int parallelism
+			) {
+		SignedEdgeListBuilder builder = new SignedEdgeListBuilder();
+		getGnpNestedGraph(m, n, p, r, seed, parallelism, builder);
+		return builder.build();
+	}
 		
 	/**
 	 * Generate G(n,p) Nested Random Graph in CSV format
@@ -76,6 +153,10 @@ public class NestedSignedRandomGraphV1 {
 	 * @param r - intra-groups negative probability
 	 * 
 	 * @return G(V,E) in CSV edgelist format 
+	 * 
+	 * @throws IOException if the file cannot be written
+	 * 
+	 * The edges are written as they are generated (CsvEdgeWriter), so the graph is never in memory
 	 ***/
 	public static void getGnpNestedGraph_CSV(
 			int m, 
@@ -83,23 +164,12 @@ public class NestedSignedRandomGraphV1 {
 			double p, 
 			double r, 
 			String outputFile
-			) {
-		
-		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = getGnpNestedGraph(m,n,p,r) ;
+			) throws IOException {
 		
-		try {
-			PrintWriter writer = new PrintWriter (outputFile );
-			//CSV file data heading
-			writer.print("#Source,Target,weight(signed)\n");
-			
-			for (DefaultWeightedEdge e: g.edgeSet()){
-				writer.println(g.getEdgeSource(e) + "," + g.getEdgeTarget(e)+ "," + g.getEdgeWeight(e));
-			}
-
-			writer.flush();
-			writer.close();
-		} catch (FileNotFoundException e1) {
-			e1.printStackTrace();
+		try (CsvEdgeWriter writer = new CsvEdgeWriter(outputFile)) {
+			getGnpNestedGraph(m, n, p, r, random.nextLong(), 1, writer);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
 		}
 	}
 	
@@ -112,8 +182,11 @@ public class NestedSignedRandomGraphV1 {
 	 * @param p - the conecting two vertices with a positive edge inside the nest (inter-group positive probability)
 	 * @param r - intra-groups negative probability
 	 * 
-	 * @return G(V,E) in GraphML format 
-	 * @throws ExportException 
+	 * @return G(V,E) in GraphML format (with the edge data 'weight')
+	 * @throws IOException if the file cannot be written
+	 * 
+	 * The nodes and edges are written as they are generated (GraphMLEdgeWriter), so the graph is 
+	 * never in memory
 	 **/
 	public static void getGnpNestedGraph_GraphML(
 			int m, 
@@ -121,21 +194,81 @@ public class NestedSignedRandomGraphV1 {
 			double p, 
 			double r, 
 			String outputFile
-			) throws TransformerConfigurationException, SAXException, ExportException {
+			) throws IOException {
 		
-		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = getGnpNestedGraph(m, n, p,r) ;
-		Writer w;
-		try {
-			GraphMLExporter<Integer, DefaultWeightedEdge> exporter = new GraphMLExporter<Integer, DefaultWeightedEdge>(); 
-			w = new FileWriter(outputFile);
-			exporter.exportGraph(g, w);
-		} catch (IOException e) {
-			e.printStackTrace();
+		try (GraphMLEdgeWriter writer = new GraphMLEdgeWriter(outputFile)) {
+			getGnpNestedGraph(m, n, p, r, random.nextLong(), 1, writer);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Generate the reproducible G(n,p) Nested Random Signed Graph as a binary edge list (BinaryEdgeWriter);
+	 * the edges are written as they are generated, so the memory does not depend on the graph size
+	 * @param m - the number of groups/nests in the graph
+	 * @param n - the number of vertices in each group/nest
+	 * @param p - the conecting two vertices with a positive edge inside the nest (inter-group positive probability)
+	 * @param r - intra-groups negative probability
+	 * @param seed - the seed of the random streams
+	 * @param parallelism - the number of generating threads (does not change the graph)
+	 * @param outputFile - the binary edge list file
+	 * @throws IOException if the file cannot be written
+	 **/
+	public static void getGnpNestedGraph_Binary(
+			int m, 
+			int n, 
+			double p, 
+			double r,
+			long seed,
+			int parallelism,
+			String outputFile
+			) throws IOException {
+		
+		try (BinaryEdgeWriter writer = new BinaryEdgeWriter(outputFile)) {
+			getGnpNestedGraph(m, n, p, r, seed, parallelism, writer);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
 		}
 	}
 	
 	
 	
+	/**
+	 * Generate the reproducible G(n,p) Nested Random Signed Graph as a binary snapshot (GraphSnapshot);
+	 * the graph is built in CSR format (getGnpNestedGraph_Csr), never as a jGrapht graph
+	 * @param m - the number of groups/nests in the graph
+	 * @param n - the number of vertices in each group/nest
+	 * @param p - the conecting two vertices with a positive edge inside the nest (inter-group positive probability)
+	 * @param r - intra-groups negative probability
+	 * @param seed - the seed of the random streams
+	 * @param parallelism - the number of generating threads (does not change the graph)
+	 * @param outputFile - the snapshot file
+	 **/
+	public static void getGnpNestedGraph_Snapshot(
+			int m, 
+			int n, 
+			double p, 
+			double r, 
+			long seed,
+			int parallelism,
+			String outputFile
+			) throws IOException {
+		GraphSnapshot.write(getGnpNestedGraph_Csr(m, n, p, r, seed, parallelism), outputFile);
+	}
+
+	/**
+	 * The ground-truth group (nest) of a vertex of a nested random graph
+	 * @param v - vertex ID (1..m*n)
+	 * @param n - the number of vertices in each group/nest
+	 * @return the group ID (1..m)
+	 **/
+	public static int groupOf(int v, int n) {
+		return (v - 1) / n + 1;
+	}
+	
+	
+	
 	/**
 	 * Connects two nested groups grI and grJ
 	 * @param grI - group ID
@@ -229,7 +362,11 @@ public class NestedSignedRandomGraphV1 {
 	
 		
 		// G(m,n, p, r, outputFile);
-		getGnpNestedGraph_CSV(m,n,p, r, outputFile);
+		try {
+			getGnpNestedGraph_CSV(m,n,p, r, outputFile);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 		
 		//Print graph information
 		//System.out.println("Nodes: " + g.vertexSet().size());
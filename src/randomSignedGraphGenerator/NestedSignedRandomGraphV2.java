@@ -1,12 +1,21 @@
 package randomSignedGraphGenerator;
 
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 
+import signedGraph.CsvEdgeWriter;
+import signedGraph.EdgeSink;
+import signedGraph.GraphSnapshot;
+import signedGraph.SignedCsrGraph;
+import signedGraph.SignedEdgeListBuilder;
+
 public class NestedSignedRandomGraphV2 {
 	
 	/**
@@ -61,6 +70,127 @@ public class NestedSignedRandomGraphV2 {
 
 		return g ;
 	}
+
+	/**
+	 * Reproducible (parallel) G(m, n, p, r, pNoise, rNoise), with the distribution of getJGrpahtGraph: 
+	 * the rows of every nest and of every pair of nests are cut into blocks, and every block is generated
+	 * from its own SplittableRandom stream (BlockGenerator), so the graph depends only on the seed. 
+	 * 
+	 * Inside a nest a pair is a positive edge with the probability p, altered to negative with the 
+	 * probability pNoise; between two nests a pair is a positive edge (noise) with the probability 
+	 * rNoise, otherwise a negative edge with the probability r.
+	 * 
+	 * @param seed - the seed of the random streams
+	 * @param parallelism - the number of generating threads (does not change the graph)
+	 * @param sink - gets the vertices 1..m*n, then the edges (e.g. a SignedEdgeListBuilder)
+	 **/
+	public static void getJGrpahtGraph(
+			int m, 
+			int n, 
+			final double p, 
+			final double r, 
+			final double pNoise, 
+			final double rNoise,
+			long seed,
+			int parallelism,
+			EdgeSink sink
+			) {
+
+		int rows = BlockGenerator.rowsPerBlock(n);
+		List<BlockGenerator.Block> blocks = new ArrayList<BlockGenerator.Block>();
+		for (int grId = 1; grId <= m; grId++) {
+			final int last = grId*n;
+			for (int u0 = (grId-1)*n + 1; u0 <= last; u0 += rows) {
+				final int first = u0;
+				final int end = Math.min(last, u0 + rows - 1);
+				blocks.add((random, out) -> {
+					for (int u = first; u <= end; u++) {
+						for (int v = u+1; v <= last; v++) {
+							double rnd1 = random.nextDouble();
+							double rnd2 = random.nextDouble();
+							if (rnd1 <= p) {
+								out.addEdge(u, v, (rnd2 <= pNoise) ? -1 : 1);
+							}
+						}
+					}
+				});
+			}
+		}
+		for (int grI = 1; grI <= m; grI++) {
+			for (int grJ = grI + 1; grJ <= m; grJ++) {
+				final int firstJ = (grJ-1)*n + 1;
+				final int lastJ = grJ*n;
+				for (int i0 = (grI-1)*n + 1; i0 <= grI*n; i0 += rows) {
+					final int first = i0;
+					final int end = Math.min(grI*n, i0 + rows - 1);
+					blocks.add((random, out) -> {
+						for (int i = first; i <= end; i++) {
+							for (int j = firstJ; j <= lastJ; j++) {
+								double rnd1 = random.nextDouble();
+								double rnd2 = random.nextDouble();
+								if (rnd2 < rNoise) {
+									out.addEdge(i, j, 1);
+								}
+								else if (rnd1 <= r) {
+									out.addEdge(i, j, -1);
+								}
+							}
+						}
+					});
+				}
+			}
+		}
+		BlockGenerator.generate(m * n, blocks, seed, parallelism, sink);
+	}
+
+	/**
+	 * Reproducible G(m, n, p, r, pNoise, rNoise) (see above) in CSR format
+	 **/
+	public static SignedCsrGraph getJGrpahtGraph_Csr(
+			int m, 
+			int n, 
+			double p, 
+			double r, 
+			double pNoise, 
+			double rNoise,
+			long seed,
+			int parallelism
+			) {
+		SignedEdgeListBuilder builder = new SignedEdgeListBuilder();
+		getJGrpahtGraph(m, n, p, r, pNoise, rNoise, seed, parallelism, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Generate the reproducible G(m, n, p, r, pNoise, rNoise) (see getJGrpahtGraph_Csr) and write it as 
+	 * a binary snapshot (GraphSnapshot)
+	 * @param seed - the seed of the random streams
+	 * @param parallelism - the number of generating threads (does not change the graph)
+	 * @param outputFile - the snapshot file
+	 **/
+	public static void getJGrpahtGraph_Snapshot(
+			int m, 
+			int n, 
+			double p, 
+			double r, 
+			double pNoise, 
+			double rNoise,
+			long seed,
+			int parallelism,
+			String outputFile
+			) throws IOException {
+		GraphSnapshot.write(getJGrpahtGraph_Csr(m, n, p, r, pNoise, rNoise, seed, parallelism), outputFile);
+	}
+
+	/**
+	 * The ground-truth group (nest) of a vertex, as in NestedSignedRandomGraphV1
+	 * @param v - vertex ID (1..m*n)
+	 * @param n - the number of vertices in each group/nest
+	 * @return the group ID (1..m)
+	 **/
+	public static int groupOf(int v, int n) {
+		return NestedSignedRandomGraphV1.groupOf(v, n);
+	}
 	
 	/**
 	 * Connect two groups (nests) by adding negative edges with the probability r
@@ -190,32 +320,16 @@ public class NestedSignedRandomGraphV2 {
 		double pNoise = 0.5; //probability of adding nosie inside a group
 		double rNoise = 0.1; //probability of adding nosie between two groups
 
-		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = getJGrpahtGraph(m, n, p, r, pNoise, rNoise);
-
-		//size of the graph
-		int N = g.vertexSet().size();
-		//System.out.println(g);
-
-		//writing graph in csv file
+		//writing the graph in csv file while it is generated (the graph is never in memory)
 		String outputFile = "data/NestedSignedRandomGraph.csv";
-		try {
-			PrintWriter w = new PrintWriter (outputFile);
-			w.println("#source,target,weight(signed)");
-			for (int i=1; i<=N; i++){
-				for (int j=i+1; j<=N; j++){
-					if (g.containsEdge(i, j)) {
-						w.println(i+","+j+","+ g.getEdgeWeight(g.getEdge(i, j)));
-						System.out.println(i+","+j+","+ g.getEdgeWeight(g.getEdge(i, j)));
-					}
-					else continue;
-				}
-			}
-			w.flush();
-			w.close();
-		} catch (FileNotFoundException e) {
+		long seed = random.nextLong();
+		try (CsvEdgeWriter w = new CsvEdgeWriter(outputFile)) {
+			getJGrpahtGraph(m, n, p, r, pNoise, rNoise, seed, 1, w);
+			System.out.println("Seed: " + seed);
+			System.out.println("Nodes: " + w.vertexCount());
+			System.out.println("Edges: " + w.edgeCount());
+		} catch (IOException | UncheckedIOException e) {
 			e.printStackTrace();
 		}
-
-
 	}
 }
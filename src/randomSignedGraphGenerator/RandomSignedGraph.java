@@ -1,10 +1,19 @@
 package randomSignedGraphGenerator;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 
+import signedGraph.EdgeSink;
+import signedGraph.GraphSnapshot;
+import signedGraph.SignedCsrGraph;
+import signedGraph.SignedEdgeListBuilder;
+
 public class RandomSignedGraph {
 	
 	/**
@@ -15,7 +24,7 @@ public class RandomSignedGraph {
 	 **/
 	
 	private static Random random = new Random();
-	
+
 	/**
 	 * Signed Random Graph G(n,e,p) Generator
 	 * 
@@ -37,6 +46,19 @@ public class RandomSignedGraph {
 			double e, 
 			double p
 			) {
+		return getGnpGraph_jGrapht(n, e, p, random);
+	}
+
+	/**
+	 * Same as getGnpGraph_jGrapht(n, e, p) with the given random generator, e.g. new Random(seed) 
+	 * for a reproducible graph
+	 **/
+	public static SimpleWeightedGraph<Integer,  DefaultWeightedEdge> getGnpGraph_jGrapht(
+			int n, 
+			double e, 
+			double p,
+			Random random
+			) {
 		
 		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g = 
 				new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(DefaultWeightedEdge.class);
@@ -70,6 +92,160 @@ public class RandomSignedGraph {
 		}
 		return g ;
 	}
+
+	/**
+	 * Sparse G(n,e,p) Signed Random Graph Generator in O(n + m) time (m = the number of edges)
+	 * 
+	 * Instead of a random number for each of the n(n-1)/2 pairs, the gap to the next edge is drawn
+	 * from the geometric distribution with success probability e (Batagelj & Brandes, Efficient 
+	 * generation of large random networks, 2005); the pairs (u,v), u < v, are visited in the order 
+	 * of v, then u. Each edge is positive with the probability p. The graph has the same distribution
+	 * as the one of getGnpGraph_jGrapht (but not the same graph for the same random generator).
+	 * 
+	 * @param n - number of vertices in the signed graph (ids 1..n)
+	 * @param e - probability of edge between two vertices
+	 * @param p - if there is an edge, then the probability of creating positive edge
+	 * @param random - the random generator
+	 * @param sink - gets the vertices 1..n, then the edges (e.g. a SignedEdgeListBuilder)
+	 **/
+	public static void getGnpGraph(
+			int n, 
+			double e, 
+			double p,
+			Random random,
+			EdgeSink sink
+			) {
+
+		for (int i=1; i<=n; i++) {
+			sink.addVertex(i);
+		}
+		if (e <= 0) return;
+
+		// log(1-e); e = 1 gives -Infinity, i.e. every gap is 0
+		double logQ = Math.log1p(-Math.min(e, 1));
+
+		// v and w are 0-based; the next pair is (w, v), w < v
+		long v = 1;
+		long w = -1;
+		while (v < n) {
+			double gap = Math.floor(Math.log1p(-random.nextDouble()) / logQ);
+			w += 1 + (long) Math.min(gap, (double) n * n);
+			while (w >= v && v < n) {
+				w -= v;
+				v += 1;
+			}
+			if (v < n) {
+				double sign = (random.nextDouble() <= p) ? 1 : -1;
+				sink.addEdge((int) w + 1, (int) v + 1, sign);
+			}
+		}
+	}
+
+	/**
+	 * Reproducible (parallel) sparse G(n,e,p) Signed Random Graph: the rows u of the pairs (u,v), u < v,
+	 * are cut into blocks of about BlockGenerator.PAIRS expected edges, and every block is skip sampled (as in getGnpGraph) with its own 
+	 * SplittableRandom stream (BlockGenerator), so the graph depends only on the seed
+	 * 
+	 * @param seed - the seed of the random streams
+	 * @param parallelism - the number of generating threads (does not change the graph)
+	 * @param sink - gets the vertices 1..n, then the edges (e.g. a SignedEdgeListBuilder)
+	 **/
+	public static void getGnpGraph(
+			final int n, 
+			final double e, 
+			final double p,
+			long seed,
+			int parallelism,
+			EdgeSink sink
+			) {
+
+		int rows = BlockGenerator.rowsPerBlock((double) n * Math.max(e, 0));
+		List<BlockGenerator.Block> blocks = new ArrayList<BlockGenerator.Block>();
+		for (long first = 1; first <= n; first += rows) {
+			final int a = (int) first;
+			final int b = (int) Math.min(n, first + rows - 1);
+			blocks.add((random, out) -> skipSampleRows(n, a, b, e, p, random, out));
+		}
+		BlockGenerator.generate(n, blocks, seed, parallelism, sink);
+	}
+
+	/**
+	 * Skip sample the pairs (u,v), a <= u <= b, u < v <= n; row u holds the n-u pairs (u, u+1+k)
+	 **/
+	private static void skipSampleRows(
+			int n, 
+			int a, 
+			int b, 
+			double e, 
+			double p, 
+			SplittableRandom random, 
+			EdgeSink out
+			) {
+		if (e <= 0) return;
+		double logQ = Math.log1p(-Math.min(e, 1));
+
+		long u = a;
+		long k = -1;
+		while (u <= b) {
+			double gap = Math.floor(Math.log1p(-random.nextDouble()) / logQ);
+			k += 1 + (long) Math.min(gap, (double) n * n);
+			while (u <= b && k >= n - u) {
+				k -= n - u;
+				u += 1;
+			}
+			if (u <= b) {
+				double sign = (random.nextDouble() <= p) ? 1 : -1;
+				out.addEdge((int) u, (int) (u + 1 + k), sign);
+			}
+		}
+	}
+
+	/**
+	 * Sparse G(n,e,p) Signed Random Graph (see getGnpGraph) in CSR format
+	 **/
+	public static SignedCsrGraph getGnpGraph_Csr(
+			int n, 
+			double e, 
+			double p,
+			Random random
+			) {
+		SignedEdgeListBuilder builder = new SignedEdgeListBuilder();
+		getGnpGraph(n, e, p, random, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Reproducible sparse G(n,e,p) Signed Random Graph (see getGnpGraph) in CSR format
+	 **/
+	public static SignedCsrGraph getGnpGraph_Csr(
+			int n, 
+			double e, 
+			double p,
+			long seed,
+			int parallelism
+			) {
+		SignedEdgeListBuilder builder = new SignedEdgeListBuilder();
+		getGnpGraph(n, e, p, seed, parallelism, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Generate the reproducible sparse G(n,e,p) Signed Random Graph (see getGnpGraph_Csr) and write it 
+	 * as a binary snapshot (GraphSnapshot)
+	 * @param seed - the seed of the random streams
+	 * @param parallelism - the number of generating threads (does not change the graph)
+	 * @param outputFile - the snapshot file
+	 **/
+	public static void getGnpGraph_Snapshot(
+			int n, 
+			double e, 
+			double p,
+			long seed,
+			int parallelism,
+			String outputFile
+			) throws IOException {
+		GraphSnapshot.write(getGnpGraph_Csr(n, e, p, seed, parallelism), outputFile);
+	}
 	
 	// Main method
 	public static void main(String[] args) {
@@ -0,0 +1,54 @@
+package signedGraph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Streaming writer of a graph as a binary edge list
+ *
+ * Unlike a GraphSnapshot (CSR arrays, i.e. the whole graph is needed), the binary edge list is
+ * written record by record. Layout (little endian):
+ * 		header	- magic 'CCSE', version, number of vertex records (long), number of edge records (long)
+ * 		records	- 16 bytes each: source, target (ints), weight (double), in the order of arrival; 
+ * 				  a record (v, v, 0) adds the vertex v (loops are not edges)
+ * The counts are written into the header by close; a file that was not closed has the counts -1.
+ * Read it with graphImporter.BinaryEdgeListReader.
+ *
+ **/
+
+public class BinaryEdgeWriter extends StreamingEdgeWriter {
+
+	public static final int MAGIC = 0x45534343;	// 'CCSE' in little endian
+	public static final int VERSION = 1;
+	public static final int HEADER = 24;
+	public static final int RECORD = 16;
+
+	public BinaryEdgeWriter(String file) throws IOException {
+		super(file);
+		ensure(HEADER);
+		buf.putInt(MAGIC).putInt(VERSION).putLong(-1).putLong(-1);
+	}
+
+	@Override
+	protected void writeVertex(int id) {
+		ensure(RECORD);
+		buf.putInt(id).putInt(id).putDouble(0);
+	}
+
+	@Override
+	protected void writeEdge(int source, int target, double w) {
+		if (source == target) {
+			throw new IllegalArgumentException("loops not allowed: " + source);
+		}
+		ensure(RECORD);
+		buf.putInt(source).putInt(target).putDouble(w);
+	}
+
+	@Override
+	protected void finish() throws IOException {
+		ByteBuffer counts = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+		counts.putLong(vertexCount()).putLong(edgeCount()).flip();
+		writeAt(8, counts);
+	}
+}
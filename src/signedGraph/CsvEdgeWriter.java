@@ -0,0 +1,47 @@
+package signedGraph;
+
+import java.io.IOException;
+
+/**
+ * Streaming writer of a graph as a csv edge list 'source,target,weight' (ReadGraph_w_edgeList)
+ *
+ * The file starts with one comment line; vertices without edges are not written.
+ *
+ **/
+
+public class CsvEdgeWriter extends StreamingEdgeWriter {
+
+	public static final String HEADER = "#Source,Target,weight(signed)";
+
+	public CsvEdgeWriter(String file) throws IOException {
+		this(file, HEADER);
+	}
+
+	/**
+	 * @param header - the first (comment) line, or null for none
+	 **/
+	public CsvEdgeWriter(String file, String header) throws IOException {
+		super(file);
+		if (header != null) {
+			putAscii(header);
+			putAscii("\n");
+		}
+	}
+
+	@Override
+	protected void writeVertex(int id) {
+	}
+
+	@Override
+	protected void writeEdge(int source, int target, double w) {
+		putLong(source);
+		ensure(1);
+		buf.put((byte) ',');
+		putLong(target);
+		ensure(1);
+		buf.put((byte) ',');
+		putWeight(w);
+		ensure(1);
+		buf.put((byte) '\n');
+	}
+}
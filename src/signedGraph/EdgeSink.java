@@ -0,0 +1,22 @@
+package signedGraph;
+
+/**
+ * Consumer of the vertices and signed weighted edges of a graph, e.g. of a generator or a reader
+ *
+ * A sink gets the graph as a stream (SignedEdgeListBuilder collects it into primitive arrays), so a
+ * producer never needs the whole graph as objects in memory.
+ *
+ **/
+
+public interface EdgeSink {
+
+	/**
+	 * Add a vertex (also an isolated one)
+	 **/
+	void addVertex(int id);
+
+	/**
+	 * Add the signed weighted edge (source, target)
+	 **/
+	void addEdge(int source, int target, double w);
+}
@@ -0,0 +1,48 @@
+package signedGraph;
+
+import java.io.IOException;
+
+/**
+ * Streaming writer of a graph in GraphML, with the signed weight as edge data 'weight'
+ *
+ * The nodes and edges are written in the order they arrive (GraphML allows both in any order);
+ * the closing tags are written by close.
+ *
+ **/
+
+public class GraphMLEdgeWriter extends StreamingEdgeWriter {
+
+	public GraphMLEdgeWriter(String file) throws IOException {
+		super(file);
+		putAscii("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		putAscii("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\" "
+				+ "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" "
+				+ "xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns "
+				+ "http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n");
+		putAscii("<key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"double\"/>\n");
+		putAscii("<graph edgedefault=\"undirected\">\n");
+	}
+
+	@Override
+	protected void writeVertex(int id) {
+		putAscii("<node id=\"");
+		putLong(id);
+		putAscii("\"/>\n");
+	}
+
+	@Override
+	protected void writeEdge(int source, int target, double w) {
+		putAscii("<edge source=\"");
+		putLong(source);
+		putAscii("\" target=\"");
+		putLong(target);
+		putAscii("\"><data key=\"weight\">");
+		putWeight(w);
+		putAscii("</data></edge>\n");
+	}
+
+	@Override
+	protected void writeTrailer() {
+		putAscii("</graph>\n</graphml>\n");
+	}
+}
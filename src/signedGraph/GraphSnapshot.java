@@ -0,0 +1,257 @@
+package signedGraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Versioned binary snapshot of a signed weighted graph (SignedCsrGraph) and its vertex labels
+ *
+ * A snapshot stores the CSR arrays as they are in memory, so a reload maps the file and copies
+ * every array in bulk, without parsing any edge; even the edge ids are stored, since numbering them
+ * again costs more than the copies. Layout (little endian):
+ * 		header			- magic 'CCSG', version, n, number of slots (2m), number of labels, 0, 0, 0 (8 ints)
+ * 		vertex ids		- n ints (ascending)
+ * 		offsets			- n+1 ints
+ * 		neighbours		- 2m ints
+ * 		edge ids		- 2m ints
+ * 		padding			- 0 or 4 bytes, so the weights start at a multiple of 8
+ * 		weights			- 2m doubles
+ * 		labels			- for each label (ascending id): id, length of the name in bytes, the name (UTF-8)
+ * The labels are e.g. the country names of the trade data (ImportTradeData).
+ *
+ * Example:
+ * 		GraphSnapshot.write(g, idNames, "data/trade.ccsg");
+ * 		SignedCsrGraph h = GraphSnapshot.read("data/trade.ccsg").graph();
+ *
+ **/
+
+public class GraphSnapshot {
+
+	public static final int MAGIC = 0x47534343;	// 'CCSG' in little endian
+	public static final int VERSION = 1;
+
+	// suggested file name extension
+	public static final String EXTENSION = ".ccsg";
+
+	private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+	private static final int HEADER = 32;
+	private static final int BUFFER = 1 << 20;
+	private static final int MAX_WINDOW = 1 << 30;
+
+	private SignedCsrGraph graph;
+	private Map<Integer, String> labels;
+
+	private GraphSnapshot(SignedCsrGraph graph, Map<Integer, String> labels) {
+		this.graph = graph;
+		this.labels = labels;
+	}
+
+	public SignedCsrGraph graph() {
+		return graph;
+	}
+
+	/**
+	 * @return the label (name) of each labelled vertex id; empty if the snapshot has no labels
+	 **/
+	public Map<Integer, String> labels() {
+		return labels;
+	}
+
+	/**
+	 * @return true if the snapshot file and the source file it was made of exist, and the snapshot is 
+	 * 		   not older than the source
+	 **/
+	public static boolean isUpToDate(String snapshotFile, String sourceFile) {
+		File snapshot = new File(snapshotFile);
+		File source = new File(sourceFile);
+		return snapshot.isFile() && source.isFile() && snapshot.lastModified() >= source.lastModified();
+	}
+
+	public static void write(SignedCsrGraph g, String file) throws IOException {
+		write(g, null, file);
+	}
+
+	/**
+	 * Write the snapshot of g to a temporary file in the directory of file, and rename it to file in 
+	 * one atomic step, so a reader never sees a partly written snapshot
+	 * @param labels - the label of each vertex id, or null
+	 **/
+	public static void write(SignedCsrGraph g, Map<Integer, String> labels, String file) throws IOException {
+		int[] vertexIds = g.vertexIdArray();
+		int[] offsets = g.offsetArray();
+		int[] neighbours = g.neighbourArray();
+		double[] weights = g.weightArray();
+
+		int[] ids = new int[0];
+		if (labels != null) {
+			ids = new int[labels.size()];
+			int k = 0;
+			for (Map.Entry<Integer, String> e : labels.entrySet()) {
+				if (e.getValue() != null) ids[k++] = e.getKey();
+			}
+			ids = Arrays.copyOf(ids, k);
+			Arrays.sort(ids);
+		}
+
+		Path target = Paths.get(file).toAbsolutePath();
+		Path tmp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+		boolean written = false;
+		FileChannel ch = FileChannel.open(tmp, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		try {
+			ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER).order(ORDER);
+			buf.putInt(MAGIC).putInt(VERSION).putInt(vertexIds.length).putInt(neighbours.length).putInt(ids.length);
+			buf.putInt(0).putInt(0).putInt(0);
+
+			putInts(ch, buf, vertexIds);
+			putInts(ch, buf, offsets);
+			putInts(ch, buf, neighbours);
+			putInts(ch, buf, g.edgeIdArray());
+			if (padding(vertexIds.length, neighbours.length) != 0) putInts(ch, buf, new int[1]);
+			putDoubles(ch, buf, weights);
+
+			for (int id : ids) {
+				byte[] name = labels.get(id).getBytes(StandardCharsets.UTF_8);
+				if (buf.remaining() < 8) flush(ch, buf);
+				buf.putInt(id).putInt(name.length);
+				for (int off = 0; off < name.length; ) {
+					if (!buf.hasRemaining()) flush(ch, buf);
+					int k = Math.min(buf.remaining(), name.length - off);
+					buf.put(name, off, k);
+					off += k;
+				}
+			}
+			flush(ch, buf);
+			ch.close();
+			Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			written = true;
+		} finally {
+			ch.close();
+			if (!written) Files.deleteIfExists(tmp);
+		}
+	}
+
+	/**
+	 * Load a snapshot written by write
+	 * @throws IOException if the file is not a snapshot, has an unsupported version or is truncated
+	 **/
+	public static GraphSnapshot read(String file) throws IOException {
+		FileChannel ch = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+		try {
+			long size = ch.size();
+			if (size < HEADER) throw new IOException(file + ": not a graph snapshot");
+
+			ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER).order(ORDER);
+			if (header.getInt() != MAGIC) throw new IOException(file + ": not a graph snapshot");
+			int version = header.getInt();
+			if (version != VERSION) throw new IOException(file + ": unsupported snapshot version " + version);
+			int n = header.getInt();
+			int slots = header.getInt();
+			int labelCount = header.getInt();
+			if (n < 0 || slots < 0 || slots % 2 != 0 || labelCount < 0) {
+				throw new IOException(file + ": corrupt snapshot header");
+			}
+
+			long weightsAt = HEADER + 4L * (2L * n + 1 + 2L * slots) + padding(n, slots);
+			long labelsAt = weightsAt + 8L * slots;
+			if (size < labelsAt + 8L * labelCount) throw new IOException(file + ": truncated snapshot");
+
+			int[] vertexIds = new int[n];
+			int[] offsets = new int[n+1];
+			int[] neighbours = new int[slots];
+			int[] edgeIds = new int[slots];
+			double[] weights = new double[slots];
+			long pos = getInts(ch, HEADER, vertexIds);
+			pos = getInts(ch, pos, offsets);
+			pos = getInts(ch, pos, neighbours);
+			getInts(ch, pos, edgeIds);
+			getDoubles(ch, weightsAt, weights);
+			if (offsets[0] != 0 || offsets[n] != slots) throw new IOException(file + ": corrupt snapshot offsets");
+
+			Map<Integer, String> labels = new HashMap<Integer, String>();
+			if (labelCount > 0) {
+				ByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, labelsAt, size - labelsAt).order(ORDER);
+				for (int i=0; i<labelCount; i++) {
+					if (b.remaining() < 8) throw new IOException(file + ": truncated snapshot");
+					int id = b.getInt();
+					int length = b.getInt();
+					if (length < 0 || length > b.remaining()) throw new IOException(file + ": truncated snapshot");
+					byte[] name = new byte[length];
+					b.get(name);
+					labels.put(id, new String(name, StandardCharsets.UTF_8));
+				}
+			}
+			return new GraphSnapshot(new SignedCsrGraph(vertexIds, offsets, neighbours, weights, edgeIds), labels);
+		} finally {
+			ch.close();
+		}
+	}
+
+	// bytes between the edge ids and the weights
+	private static int padding(int n, int slots) {
+		return (int) ((4L * (2L * n + 1 + 2L * slots)) % 8);
+	}
+
+	private static void flush(FileChannel ch, ByteBuffer buf) throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			ch.write(buf);
+		}
+		buf.clear();
+	}
+
+	private static void putInts(FileChannel ch, ByteBuffer buf, int[] a) throws IOException {
+		for (int off = 0; off < a.length; ) {
+			if (buf.remaining() < 4) flush(ch, buf);
+			int k = Math.min(buf.remaining() / 4, a.length - off);
+			buf.asIntBuffer().put(a, off, k);
+			buf.position(buf.position() + 4 * k);
+			off += k;
+		}
+	}
+
+	private static void putDoubles(FileChannel ch, ByteBuffer buf, double[] a) throws IOException {
+		for (int off = 0; off < a.length; ) {
+			if (buf.remaining() < 8) flush(ch, buf);
+			int k = Math.min(buf.remaining() / 8, a.length - off);
+			buf.asDoubleBuffer().put(a, off, k);
+			buf.position(buf.position() + 8 * k);
+			off += k;
+		}
+	}
+
+	// copy the ints at pos in windows of at most MAX_WINDOW bytes; returns the position after them
+	private static long getInts(FileChannel ch, long pos, int[] a) throws IOException {
+		for (int off = 0; off < a.length; ) {
+			int k = Math.min(MAX_WINDOW / 4, a.length - off);
+			MappedByteBuffer window = ch.map(FileChannel.MapMode.READ_ONLY, pos, 4L * k);
+			window.order(ORDER).asIntBuffer().get(a, off, k);
+			pos += 4L * k;
+			off += k;
+		}
+		return pos;
+	}
+
+	private static long getDoubles(FileChannel ch, long pos, double[] a) throws IOException {
+		for (int off = 0; off < a.length; ) {
+			int k = Math.min(MAX_WINDOW / 8, a.length - off);
+			MappedByteBuffer window = ch.map(FileChannel.MapMode.READ_ONLY, pos, 8L * k);
+			window.order(ORDER).asDoubleBuffer().get(a, off, k);
+			pos += 8L * k;
+			off += k;
+		}
+		return pos;
+	}
+}
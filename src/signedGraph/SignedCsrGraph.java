@@ -0,0 +1,202 @@
+package signedGraph;
+
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+
+/**
+ * Undirected signed weighted graph in Compressed Sparse Row (CSR) format
+ *
+ * The vertex ids are remapped to the indices 0..n-1 (in ascending id order). The adjacency list of
+ * vertex u is stored in the slots offsets[u]..offsets[u+1]-1 of the arrays neighbours and weights,
+ * sorted by neighbour, so an edge weight is found by binary search in O(log d) without boxing or
+ * hashing. Every undirected edge appears in two slots which share the same edge id 0..m-1; the edge
+ * ids are numbered in the order (u, v), u < v, of the adjacency lists.
+ *
+ * Adapters fromJGraphT / toJGraphT convert from/to SimpleWeightedGraph (jGrapht).
+ *
+ * Using library: jGrapht; available at:  www.jGrapht.org
+ *
+ **/
+
+public class SignedCsrGraph {
+
+	private int n;
+	private int m;
+	private int[] vertexIds;
+	private int[] offsets;
+	private int[] neighbours;
+	private double[] weights;
+	private int[] edgeIds;
+
+	/**
+	 * @param vertexIds - vertex id of each index 0..n-1, in ascending order
+	 * @param offsets - start of the adjacency list of each vertex (length n+1)
+	 * @param neighbours - neighbour indices, sorted inside each adjacency list
+	 * @param weights - signed edge weight of each slot
+	 **/
+	public SignedCsrGraph(int[] vertexIds, int[] offsets, int[] neighbours, double[] weights) {
+		this(vertexIds, offsets, neighbours, weights, edgeIds(offsets, neighbours));
+	}
+
+	// with precomputed edge ids, e.g. of a GraphSnapshot
+	SignedCsrGraph(int[] vertexIds, int[] offsets, int[] neighbours, double[] weights, int[] edgeIds) {
+		this.n = vertexIds.length;
+		this.m = neighbours.length / 2;
+		this.vertexIds = vertexIds;
+		this.offsets = offsets;
+		this.neighbours = neighbours;
+		this.weights = weights;
+		this.edgeIds = edgeIds;
+	}
+
+	// edge ids: the slots (u, v), u < v, are numbered in order; the mirror slot (v, u) is the
+	// next not yet numbered slot of row v with a smaller neighbour, since u runs in ascending order
+	private static int[] edgeIds(int[] offsets, int[] neighbours) {
+		int n = offsets.length - 1;
+		int[] edgeIds = new int[neighbours.length];
+		int[] mirror = new int[n];
+		System.arraycopy(offsets, 0, mirror, 0, n);
+		int e = 0;
+		for (int u=0; u<n; u++) {
+			for (int s=offsets[u]; s<offsets[u+1]; s++) {
+				int v = neighbours[s];
+				if (v <= u) continue;
+				edgeIds[s] = e;
+				edgeIds[mirror[v]++] = e;
+				e += 1;
+			}
+		}
+		return edgeIds;
+	}
+
+	/**
+	 * Convert a jGrapht graph; the edge weights are read with getEdgeWeight
+	 * (1 for the edges of an unweighted graph)
+	 **/
+	public static <E> SignedCsrGraph fromJGraphT(Graph<Integer, E> g) {
+		SignedEdgeListBuilder builder = new SignedEdgeListBuilder();
+		for (int v : g.vertexSet()) {
+			builder.addVertex(v);
+		}
+		for (E e : g.edgeSet()) {
+			builder.addEdge(g.getEdgeSource(e), g.getEdgeTarget(e), g.getEdgeWeight(e));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Convert to a SimpleWeightedGraph (jGrapht) with the original vertex ids
+	 **/
+	public SimpleWeightedGraph<Integer, DefaultWeightedEdge> toJGraphT() {
+		SimpleWeightedGraph<Integer, DefaultWeightedEdge> g =
+				new SimpleWeightedGraph<Integer, DefaultWeightedEdge> (DefaultWeightedEdge.class);
+
+		for (int u=0; u<n; u++) {
+			g.addVertex(vertexIds[u]);
+		}
+		for (int u=0; u<n; u++) {
+			for (int s=offsets[u]; s<offsets[u+1]; s++) {
+				int v = neighbours[s];
+				if (v > u) {
+					g.setEdgeWeight(g.addEdge(vertexIds[u], vertexIds[v]), weights[s]);
+				}
+			}
+		}
+		return g;
+	}
+
+	public int vertexCount() {
+		return n;
+	}
+
+	public int edgeCount() {
+		return m;
+	}
+
+	/**
+	 * @return the original id of vertex index u
+	 **/
+	public int vertexId(int u) {
+		return vertexIds[u];
+	}
+
+	/**
+	 * @return the index of the vertex id, or -1 if the graph has no such vertex
+	 **/
+	public int indexOf(int vertexId) {
+		int u = java.util.Arrays.binarySearch(vertexIds, vertexId);
+		return (u >= 0) ? u : -1;
+	}
+
+	public int degree(int u) {
+		return offsets[u+1] - offsets[u];
+	}
+
+	/**
+	 * First slot of the adjacency list of u
+	 **/
+	public int start(int u) {
+		return offsets[u];
+	}
+
+	/**
+	 * One past the last slot of the adjacency list of u
+	 **/
+	public int end(int u) {
+		return offsets[u+1];
+	}
+
+	public int neighbour(int slot) {
+		return neighbours[slot];
+	}
+
+	public double weight(int slot) {
+		return weights[slot];
+	}
+
+	public int edgeId(int slot) {
+		return edgeIds[slot];
+	}
+
+	/**
+	 * @return the slot of v in the adjacency list of u, or -1 if (u,v) is not an edge
+	 **/
+	public int slotOf(int u, int v) {
+		int s = java.util.Arrays.binarySearch(neighbours, offsets[u], offsets[u+1], v);
+		return (s >= 0) ? s : -1;
+	}
+
+	public boolean hasEdge(int u, int v) {
+		return slotOf(u, v) != -1;
+	}
+
+	/**
+	 * @return the signed weight of the edge (u,v), or 0 if (u,v) is not an edge
+	 **/
+	public double weight(int u, int v) {
+		int s = slotOf(u, v);
+		return (s == -1) ? 0 : weights[s];
+	}
+
+	// the arrays themselves (not copies), for GraphSnapshot
+	int[] vertexIdArray() {
+		return vertexIds;
+	}
+
+	int[] offsetArray() {
+		return offsets;
+	}
+
+	int[] neighbourArray() {
+		return neighbours;
+	}
+
+	double[] weightArray() {
+		return weights;
+	}
+
+	int[] edgeIdArray() {
+		return edgeIds;
+	}
+}
@@ -0,0 +1,224 @@
+package signedGraph;
+
+/**
+ * Builder of a SignedCsrGraph from an edge list
+ *
+ * Vertices and signed weighted edges are appended to growable primitive arrays (no boxing, no
+ * hashing); build() remaps the vertex ids to 0..n-1 and sorts the adjacency lists with two stable
+ * counting sorts, i.e. O(n + m) after the id remapping.
+ *
+ * As in SimpleWeightedGraph (jGrapht), loops are not allowed and only the first of several edges
+ * between the same two vertices is kept.
+ *
+ **/
+
+public class SignedEdgeListBuilder implements EdgeSink {
+
+	private int[] vertices = new int[16];
+	private int vertexCount = 0;
+
+	private int[] src = new int[16];
+	private int[] trg = new int[16];
+	private double[] weight = new double[16];
+	private int edgeCount = 0;
+
+	/**
+	 * Add an isolated vertex (vertices of edges are added automatically)
+	 **/
+	public void addVertex(int id) {
+		if (vertexCount == vertices.length) {
+			vertices = grow(vertices, 2 * vertexCount);
+		}
+		vertices[vertexCount++] = id;
+	}
+
+	/**
+	 * Add the signed weighted edge (source, target)
+	 **/
+	public void addEdge(int source, int target, double w) {
+		if (source == target) {
+			throw new IllegalArgumentException("loops not allowed: " + source);
+		}
+		if (edgeCount == src.length) {
+			int cap = 2 * edgeCount;
+			src = grow(src, cap);
+			trg = grow(trg, cap);
+			weight = grow(weight, cap);
+		}
+		src[edgeCount] = source;
+		trg[edgeCount] = target;
+		weight[edgeCount] = w;
+		edgeCount += 1;
+	}
+
+	/**
+	 * @return the number of edges added so far (including duplicates)
+	 **/
+	public int edgeCount() {
+		return edgeCount;
+	}
+
+	public int edgeSource(int e) {
+		return src[e];
+	}
+
+	public int edgeTarget(int e) {
+		return trg[e];
+	}
+
+	public double edgeWeight(int e) {
+		return weight[e];
+	}
+
+	public int vertexCount() {
+		return vertexCount;
+	}
+
+	public int vertex(int v) {
+		return vertices[v];
+	}
+
+	/**
+	 * Append all vertices and edges of another builder (in their insertion order)
+	 **/
+	public void addAll(SignedEdgeListBuilder other) {
+		if (vertexCount + other.vertexCount > vertices.length) {
+			vertices = grow(vertices, Math.max(2 * vertexCount, vertexCount + other.vertexCount));
+		}
+		System.arraycopy(other.vertices, 0, vertices, vertexCount, other.vertexCount);
+		vertexCount += other.vertexCount;
+
+		if (edgeCount + other.edgeCount > src.length) {
+			int cap = Math.max(2 * edgeCount, edgeCount + other.edgeCount);
+			src = grow(src, cap);
+			trg = grow(trg, cap);
+			weight = grow(weight, cap);
+		}
+		System.arraycopy(other.src, 0, src, edgeCount, other.edgeCount);
+		System.arraycopy(other.trg, 0, trg, edgeCount, other.edgeCount);
+		System.arraycopy(other.weight, 0, weight, edgeCount, other.edgeCount);
+		edgeCount += other.edgeCount;
+	}
+
+	/**
+	 * Build the CSR graph
+	 **/
+	public SignedCsrGraph build() {
+
+		// distinct vertex ids in ascending order
+		int[] ids = new int[vertexCount + 2*edgeCount];
+		System.arraycopy(vertices, 0, ids, 0, vertexCount);
+		System.arraycopy(src, 0, ids, vertexCount, edgeCount);
+		System.arraycopy(trg, 0, ids, vertexCount + edgeCount, edgeCount);
+		java.util.Arrays.sort(ids);
+		int n = 0;
+		for (int t=0; t<ids.length; t++) {
+			if (n == 0 || ids[t] != ids[n-1]) {
+				ids[n++] = ids[t];
+			}
+		}
+		int[] vertexIds = new int[n];
+		System.arraycopy(ids, 0, vertexIds, 0, n);
+		ids = null;
+
+		// remap the endpoints to 0..n-1 (direct table when the ids are dense enough)
+		int[] u = new int[edgeCount];
+		int[] v = new int[edgeCount];
+		if (n > 0 && (long) vertexIds[n-1] - vertexIds[0] < 4L * n + 1024) {
+			int base = vertexIds[0];
+			int[] index = new int[vertexIds[n-1] - base + 1];
+			for (int t=0; t<n; t++) {
+				index[vertexIds[t] - base] = t;
+			}
+			for (int e=0; e<edgeCount; e++) {
+				u[e] = index[src[e] - base];
+				v[e] = index[trg[e] - base];
+			}
+		}
+		else {
+			for (int e=0; e<edgeCount; e++) {
+				u[e] = java.util.Arrays.binarySearch(vertexIds, src[e]);
+				v[e] = java.util.Arrays.binarySearch(vertexIds, trg[e]);
+			}
+		}
+
+		// both directions of each edge as slots (row, neighbour, edge)
+		int slots = 2 * edgeCount;
+		int[] slotEdge = new int[slots];
+		int[] byNeighbour = new int[slots];
+
+		// stable counting sort of the slots by neighbour ...
+		int[] count = new int[n+1];
+		for (int e=0; e<edgeCount; e++) {
+			count[v[e] + 1] += 1;
+			count[u[e] + 1] += 1;
+		}
+		for (int t=0; t<n; t++) count[t+1] += count[t];
+		for (int e=0; e<edgeCount; e++) {
+			byNeighbour[count[v[e]]++] = 2*e;			// slot (u -> v)
+			byNeighbour[count[u[e]]++] = 2*e + 1;		// slot (v -> u)
+		}
+
+		// ... then by row, so every row is sorted by neighbour, duplicates in insertion order
+		java.util.Arrays.fill(count, 0);
+		for (int e=0; e<edgeCount; e++) {
+			count[u[e] + 1] += 1;
+			count[v[e] + 1] += 1;
+		}
+		for (int t=0; t<n; t++) count[t+1] += count[t];
+		int[] rowStart = count.clone();
+		for (int t=0; t<slots; t++) {
+			int s = byNeighbour[t];
+			int row = ((s & 1) == 0) ? u[s >> 1] : v[s >> 1];
+			slotEdge[count[row]++] = s;
+		}
+		byNeighbour = null;
+
+		// drop duplicated neighbours (keep the first edge) and compact the rows
+		int[] offsets = new int[n+1];
+		int[] neighbours = new int[slots];
+		double[] weights = new double[slots];
+		int pos = 0;
+		for (int row=0; row<n; row++) {
+			offsets[row] = pos;
+			for (int t=rowStart[row]; t<rowStart[row+1]; t++) {
+				int s = slotEdge[t];
+				int e = s >> 1;
+				int nbr = ((s & 1) == 0) ? v[e] : u[e];
+				if (pos > offsets[row] && neighbours[pos-1] == nbr) continue;
+				neighbours[pos] = nbr;
+				weights[pos] = weight[e];
+				pos += 1;
+			}
+		}
+		offsets[n] = pos;
+
+		return new SignedCsrGraph(vertexIds, offsets, trim(neighbours, pos), trim(weights, pos));
+	}
+
+	private static int[] grow(int[] a, int len) {
+		int[] b = new int[Math.max(len, 16)];
+		System.arraycopy(a, 0, b, 0, a.length);
+		return b;
+	}
+
+	private static double[] grow(double[] a, int len) {
+		double[] b = new double[Math.max(len, 16)];
+		System.arraycopy(a, 0, b, 0, a.length);
+		return b;
+	}
+
+	private static int[] trim(int[] a, int len) {
+		if (a.length == len) return a;
+		int[] b = new int[len];
+		System.arraycopy(a, 0, b, 0, len);
+		return b;
+	}
+
+	private static double[] trim(double[] a, int len) {
+		if (a.length == len) return a;
+		double[] b = new double[len];
+		System.arraycopy(a, 0, b, 0, len);
+		return b;
+	}
+}
@@ -0,0 +1,165 @@
+package signedGraph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Base of the writers that stream a graph to a file as its vertices and edges arrive (EdgeSink)
+ *
+ * The bytes are collected in one direct buffer of BUFFER bytes and written through a FileChannel
+ * whenever it is full, so the memory of a writer is constant, whatever the size of the graph. As
+ * addVertex / addEdge (EdgeSink) cannot throw IOException, write errors are thrown as
+ * UncheckedIOException; close the writer (try-with-resources) to write the rest of the buffer.
+ *
+ * Example:
+ * 		try (CsvEdgeWriter w = new CsvEdgeWriter("data/graph.csv")) {
+ * 			NestedSignedRandomGraphV1.getGnpNestedGraph(m, n, p, r, seed, 1, w);
+ * 		}
+ *
+ **/
+
+public abstract class StreamingEdgeWriter implements EdgeSink, Closeable {
+
+	// size of the write buffer
+	static final int BUFFER = 1 << 20;
+
+	private FileChannel channel;
+	private long vertices = 0;
+	private long edges = 0;
+	protected ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+
+	protected StreamingEdgeWriter(String file) throws IOException {
+		channel = FileChannel.open(Paths.get(file),
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+	}
+
+	@Override
+	public final void addVertex(int id) {
+		vertices += 1;
+		writeVertex(id);
+	}
+
+	@Override
+	public final void addEdge(int source, int target, double w) {
+		edges += 1;
+		writeEdge(source, target, w);
+	}
+
+	protected abstract void writeVertex(int id);
+
+	protected abstract void writeEdge(int source, int target, double w);
+
+	/**
+	 * Write what follows the last edge (e.g. closing tags); called once by close
+	 **/
+	protected void writeTrailer() throws IOException {
+	}
+
+	/**
+	 * Called once by close after all buffered bytes are written, e.g. to patch a header with writeAt
+	 **/
+	protected void finish() throws IOException {
+	}
+
+	public long vertexCount() {
+		return vertices;
+	}
+
+	public long edgeCount() {
+		return edges;
+	}
+
+	/**
+	 * Make room for k bytes in the buffer (k <= BUFFER)
+	 **/
+	protected final void ensure(int k) {
+		if (buf.remaining() < k) {
+			try {
+				flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private void flush() throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+		buf.clear();
+	}
+
+	/**
+	 * Write the bytes at the given position of the file (e.g. a header with the final counts);
+	 * bytes still in the buffer would overwrite them, hence use it in finish only
+	 **/
+	protected final void writeAt(long position, ByteBuffer bytes) throws IOException {
+		while (bytes.hasRemaining()) {
+			position += channel.write(bytes, position);
+		}
+	}
+
+	protected final void putAscii(String s) {
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		for (int off = 0; off < b.length; ) {
+			ensure(1);
+			int k = Math.min(buf.remaining(), b.length - off);
+			buf.put(b, off, k);
+			off += k;
+		}
+	}
+
+	/**
+	 * Put the decimal digits of x (at most 20 bytes)
+	 **/
+	protected final void putLong(long x) {
+		ensure(20);
+		if (x == Long.MIN_VALUE) {
+			putAscii(Long.toString(x));
+			return;
+		}
+		if (x < 0) {
+			buf.put((byte) '-');
+			x = -x;
+		}
+		long div = 1;
+		while (div <= x / 10) div *= 10;
+		for (; div > 0; div /= 10) {
+			buf.put((byte) ('0' + (x / div) % 10));
+		}
+	}
+
+	/**
+	 * Put the weight as Double.toString does (e.g. 1.0, -1.0, 0.25); integral weights without
+	 * creating a string
+	 **/
+	protected final void putWeight(double w) {
+		if (w == Math.rint(w) && Math.abs(w) < 1e7 && !(w == 0 && 1 / w < 0)) {
+			putLong((long) w);
+			ensure(2);
+			buf.put((byte) '.').put((byte) '0');
+		}
+		else putAscii(Double.toString(w));
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (channel == null) return;
+		try {
+			writeTrailer();
+			flush();
+			finish();
+		} finally {
+			channel.close();
+			channel = null;
+		}
+	}
+}